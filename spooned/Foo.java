@@ -0,0 +1,6 @@
+// default package (CtPackage.TOP_LEVEL_PACKAGE_NAME in Spoon= unnamed package)
+
+
+
+public class Foo {}
+
@@ -32,16 +32,19 @@ import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.XMLReaderFactory;
 
 import spoon.compiler.Environment;
+import spoon.compiler.ModelFidelity;
 import spoon.compiler.SpoonCompiler;
 import spoon.compiler.SpoonFile;
 import spoon.compiler.SpoonFolder;
 import spoon.compiler.SpoonResource;
 import spoon.compiler.SpoonResourceHelper;
 import spoon.processing.Severity;
+import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.factory.Factory;
 import spoon.reflect.factory.FactoryImpl;
 import spoon.reflect.visitor.DefaultJavaPrettyPrinter;
 import spoon.reflect.visitor.FragmentDrivenJavaPrettyPrinter;
+import spoon.reflect.visitor.ModelConsistencyChecker;
 import spoon.reflect.visitor.PrettyPrinter;
 import spoon.support.DefaultCoreFactory;
 import spoon.support.JavaOutputProcessor;
@@ -221,6 +224,30 @@ public class Launcher {
 		opt2.setDefault("7");
 		jsap.registerParameter(opt2);
 
+		// number of threads used to build the model
+		opt2 = new FlaggedOption("threads");
+		opt2.setLongFlag("threads");
+		opt2.setHelp("Number of threads used to build the model.");
+		opt2.setStringParser(JSAP.INTEGER_PARSER);
+		opt2.setDefault("1");
+		jsap.registerParameter(opt2);
+
+		// streaming window
+		opt2 = new FlaggedOption("stream");
+		opt2.setLongFlag("stream");
+		opt2.setHelp("Build, process and print the compilation units by windows of the given size (0 builds the whole model at once). All the processors must be local to compilation units.");
+		opt2.setStringParser(JSAP.INTEGER_PARSER);
+		opt2.setDefault("0");
+		jsap.registerParameter(opt2);
+
+		// model fidelity
+		opt2 = new FlaggedOption("fidelity");
+		opt2.setLongFlag("fidelity");
+		opt2.setHelp("Fidelity of the built model: DECLARATIONS (no method bodies), RESOLVED (no doc comments nor flow analysis) or CHECKED.");
+		opt2.setStringParser(JSAP.STRING_PARSER);
+		opt2.setDefault(ModelFidelity.CHECKED.name());
+		jsap.registerParameter(opt2);
+
 		// compiler's encoding
 		opt2 = new FlaggedOption("encoding");
 		opt2.setLongFlag("encoding");
@@ -349,6 +376,12 @@ public class Launcher {
 		sw1.setDefault("false");
 		jsap.registerParameter(sw1);
 
+		sw1 = new Switch("check-model");
+		sw1.setLongFlag("check-model");
+		sw1.setHelp("Check the parents of the model once it has been processed, and report the inconsistencies as warnings.");
+		sw1.setDefault("false");
+		jsap.registerParameter(sw1);
+
 		sw1 = new Switch("lines");
 		sw1.setLongFlag("lines");
 		sw1.setHelp("Set Spoon to try to preserve the original line numbers when generating the source code (may lead to human-unfriendly formatting).");
@@ -818,34 +851,50 @@ public class Launcher {
 					+ (System.currentTimeMillis() - t) + " ms");
 		}
 
-		t = System.currentTimeMillis();
-		compiler.build();
-		env.debugMessage("model built in " + (System.currentTimeMillis() - t)
-				+ " ms");
-
-		// System.out.println("============> " + factory.Type().getAll());
-		//
-		// System.out.println("============> "
-		// + factory.CompilationUnit().getMap());
-		//
-		// for (CompilationUnit cu :
-		// factory.CompilationUnit().getMap().values()) {
-		// System.out.println("## " + cu.getFile());
-		// for (CtSimpleType<?> type : cu.getDeclaredTypes()) {
-		// System.out.println("- " + type.getQualifiedName());
-		// }
-		// // getEnvironment().getDefaultFileGenerator().
-		// }
+		if (env.getStreamingWindowSize() > 0) {
+			t = System.currentTimeMillis();
+			compiler.buildAndProcessByWindows(processorTypes, outputType);
+			env.debugMessage("model built, processed and generated in "
+					+ (System.currentTimeMillis() - t) + " ms");
+		} else {
+			t = System.currentTimeMillis();
+			compiler.build();
+			env.debugMessage("model built in "
+					+ (System.currentTimeMillis() - t) + " ms");
 
-		t = System.currentTimeMillis();
-		compiler.process(processorTypes);
-		env.debugMessage("model processed in "
-				+ (System.currentTimeMillis() - t) + " ms");
+			// System.out.println("============> " + factory.Type().getAll());
+			//
+			// System.out.println("============> "
+			// + factory.CompilationUnit().getMap());
+			//
+			// for (CompilationUnit cu :
+			// factory.CompilationUnit().getMap().values()) {
+			// System.out.println("## " + cu.getFile());
+			// for (CtSimpleType<?> type : cu.getDeclaredTypes()) {
+			// System.out.println("- " + type.getQualifiedName());
+			// }
+			// // getEnvironment().getDefaultFileGenerator().
+			// }
 
-		t = System.currentTimeMillis();
-		compiler.generateProcessedSourceFiles(outputType);
-		env.debugMessage("source generated in "
-				+ (System.currentTimeMillis() - t) + " ms");
+			t = System.currentTimeMillis();
+			compiler.process(processorTypes);
+			env.debugMessage("model processed in "
+					+ (System.currentTimeMillis() - t) + " ms");
+
+			if (env.isModelConsistencyChecked()) {
+				t = System.currentTimeMillis();
+				for (CtPackage p : compiler.getFactory().Package().getAllRoots()) {
+					new ModelConsistencyChecker(env, false, false).scan(p);
+				}
+				env.debugMessage("model checked in "
+						+ (System.currentTimeMillis() - t) + " ms");
+			}
+
+			t = System.currentTimeMillis();
+			compiler.generateProcessedSourceFiles(outputType);
+			env.debugMessage("source generated in "
+					+ (System.currentTimeMillis() - t) + " ms");
+		}
 
 		t = System.currentTimeMillis();
 		if (compile) {
@@ -888,6 +937,12 @@ public class Launcher {
 				args.getInt("tabsize"), args.getBoolean("tabs"),
 				args.getBoolean("fragments"), args.getBoolean("lines"),
 				args.getFile("output"));
+		factory.getEnvironment().setBuildThreadCount(args.getInt("threads"));
+		factory.getEnvironment().setStreamingWindowSize(args.getInt("stream"));
+		factory.getEnvironment().setModelFidelity(
+				ModelFidelity.valueOf(args.getString("fidelity")));
+		factory.getEnvironment().setModelConsistencyChecked(
+				args.getBoolean("check-model"));
 
 		factory.getEnvironment().reportProgressMessage(getVersionMessage());
 
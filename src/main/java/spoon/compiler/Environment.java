@@ -278,4 +278,106 @@ public interface Environment {
 	 * {@link #getSourceClasspath()}.
 	 */
 	void setSourceClasspath(String[] sourceClasspath);
+
+	/**
+	 * Loads a class by its qualified name, from the context class loader or
+	 * from the source class path (see {@link #getSourceClasspath()}). The
+	 * classes are loaded by a single class loader and cached, as well as the
+	 * names that cannot be found, until the source class path changes.
+	 * 
+	 * @throws ClassNotFoundException
+	 *             if the class cannot be found
+	 */
+	Class<?> loadClass(String qualifiedName) throws ClassNotFoundException;
+
+	/**
+	 * Gets the number of threads used to build the model from the compiled
+	 * compilation units. A value of 1 (the default) builds the model
+	 * sequentially.
+	 */
+	int getBuildThreadCount();
+
+	/**
+	 * Sets the number of threads used to build the model from the compiled
+	 * compilation units. Each unit is converted by its own tree builder and
+	 * the results are merged into the factory in the order of the units, so
+	 * that the resulting model does not depend on this value.
+	 */
+	void setBuildThreadCount(int buildThreadCount);
+
+	/**
+	 * Gets the number of compilation units that are built, processed and
+	 * printed together in streaming mode. A value of 0 (the default) disables
+	 * the streaming mode, so that the whole model is built before being
+	 * processed.
+	 */
+	int getStreamingWindowSize();
+
+	/**
+	 * Sets the number of compilation units that are built, processed and
+	 * printed together in streaming mode (0 disables the streaming mode). In
+	 * streaming mode, all the processors must implement
+	 * {@link spoon.processing.CompilationUnitLocal}.
+	 */
+	void setStreamingWindowSize(int streamingWindowSize);
+
+	/**
+	 * Tells if the bodies of the methods of the input sources are built
+	 * lazily, on the first call to
+	 * {@link spoon.reflect.declaration.CtExecutable#getBody()}.
+	 */
+	boolean isLazyMethodBodies();
+
+	/**
+	 * Sets the lazy method bodies mode. In this mode, the method bodies are
+	 * neither parsed nor converted when the model is built, and the compiler
+	 * state that is needed to build them is kept as long as the model is
+	 * used. This mode is meant for the analyses that only need the
+	 * signatures of most methods, and it is ignored in streaming mode.
+	 */
+	void setLazyMethodBodies(boolean lazyMethodBodies);
+
+	/**
+	 * Gets the fidelity of the model built from the input sources
+	 * ({@link ModelFidelity#CHECKED} by default).
+	 */
+	ModelFidelity getModelFidelity();
+
+	/**
+	 * Sets the fidelity of the model built from the input sources. A lower
+	 * fidelity skips the compiler phases that populate the parts of the model
+	 * that are not needed, which makes the build faster.
+	 */
+	void setModelFidelity(ModelFidelity modelFidelity);
+
+	/**
+	 * Tells if the parents of the model are checked once the model has been
+	 * processed (false by default).
+	 */
+	boolean isModelConsistencyChecked();
+
+	/**
+	 * Sets the model consistency check. The setters of the model keep the
+	 * parents consistent, so that the check is only needed to validate the
+	 * processors that modify the collections of the model directly: it
+	 * reports a warning for each element whose parent is not the element
+	 * that contains it (see {@link spoon.reflect.visitor.ModelConsistencyChecker}).
+	 */
+	void setModelConsistencyChecked(boolean modelConsistencyChecked);
+
+	/**
+	 * Tells if the model builder shares the references to the same
+	 * non-parameterized types, non-generic methods and packages (false by
+	 * default).
+	 */
+	boolean isSharingReferences();
+
+	/**
+	 * Sets the sharing of the references built from the input sources. A
+	 * shared reference is built once for all its occurrences in the model,
+	 * which saves memory, but it cannot be modified: the processors must
+	 * replace it with a clone (see
+	 * {@link spoon.reflect.reference.CtReference#isShared()}).
+	 */
+	void setSharingReferences(boolean sharingReferences);
 }
\ No newline at end of file
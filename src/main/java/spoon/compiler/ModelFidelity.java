@@ -0,0 +1,51 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+package spoon.compiler;
+
+/**
+ * This enumeration defines how much of the model is built from the input
+ * sources, and hence which phases of the JDT compiler are run.
+ * 
+ * @see spoon.compiler.Environment#getModelFidelity()
+ */
+public enum ModelFidelity {
+
+	/**
+	 * Only the declarations are built: the types, their fields (with their
+	 * initializers) and the signatures of their executables. The bodies of
+	 * the methods and constructors are neither parsed nor built, the
+	 * overridden methods are not verified, and the doc comments are not
+	 * parsed.
+	 */
+	DECLARATIONS,
+
+	/**
+	 * The whole model is built from the resolved sources, but the doc
+	 * comments are not parsed and the flow analysis is not run, so that the
+	 * errors it detects (missing return statements, unreachable code...) are
+	 * not reported.
+	 */
+	RESOLVED,
+
+	/**
+	 * The whole model is built, including the doc comments, and the sources
+	 * are fully checked by the compiler (the default).
+	 */
+	CHECKED
+
+}
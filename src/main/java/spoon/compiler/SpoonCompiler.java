@@ -213,6 +213,9 @@ public interface SpoonCompiler extends FactoryAccessor {
 	/**
 	 * Sets this compiler to optimize the model building process by ignoring
 	 * files that has not be modified since the latest source code generation.
+	 * The changes are detected with the content hashes recorded in a build
+	 * manifest stored in the output directory, and the files that depend on
+	 * a modified file are built again too.
 	 */
 	void setBuildOnlyOutdatedFiles(boolean buildOnlyOutdatedFiles);
 
@@ -240,4 +243,18 @@ public interface SpoonCompiler extends FactoryAccessor {
 	 */
 	void process(List<String> processorTypes);
 
+	/**
+	 * Builds, processes and generates the input sources one window of
+	 * compilation units at a time (see
+	 * {@link Environment#getStreamingWindowSize()}), so that the memory used
+	 * is proportional to the window size rather than to the size of the
+	 * program. The whole program is resolved once, and the model of each
+	 * window is removed from the factory once generated. All the processors
+	 * must implement {@link spoon.processing.CompilationUnitLocal}.
+	 * 
+	 * @return true if the Java sources were successfully built
+	 */
+	boolean buildAndProcessByWindows(List<String> processorTypes,
+			OutputType outputType) throws Exception;
+
 }
@@ -0,0 +1,29 @@
+/* 
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ * 
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify 
+ * and/or redistribute the software under the terms of the CeCILL-C license as 
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info. 
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT 
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or 
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *  
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+package spoon.processing;
+
+/**
+ * This marker interface should be implemented by the processors that only
+ * read and modify the compilation unit of the elements they process. Such
+ * processors do not need the whole model to be built, so that they can be
+ * applied to one window of compilation units at a time (see
+ * {@link spoon.compiler.Environment#getStreamingWindowSize()}).
+ */
+public interface CompilationUnitLocal {
+
+}
@@ -87,10 +87,12 @@ public interface CtElement extends FactoryAccessor, Comparable<CtElement> {
 	String getDocComment();
 
 	/**
-	 * Gets the parent of current element, which can be null. Elements that are
-	 * manually added to the tree may have a null parent if not manually set.
-	 * Note that the parents of an entire tree of elements can be automatically
-	 * set by using the {@link #updateAllParentsBelow()}.
+	 * Gets the parent of current element, which can be null. The setters and
+	 * adders of the model set the parents of the elements they add, but the
+	 * elements that are added directly to the collections returned by the
+	 * getters may have a null parent if not manually set. Note that the
+	 * parents of an entire tree of elements can be automatically set by using
+	 * the {@link #updateAllParentsBelow()}.
 	 * 
 	 * @throws ParentNotInitializedException
 	 *             when the parent of this element is not initialized
@@ -120,6 +122,15 @@ public interface CtElement extends FactoryAccessor, Comparable<CtElement> {
 	 */
 	String getSignature();
 
+	/**
+	 * Gets the identifier of this element, a small integer that is unique in
+	 * the factory of the element and given when the element is created (a
+	 * clone gets a new identifier). It is 0 if the element has not been
+	 * created by a factory. See {@link spoon.reflect.factory.MetadataFactory}
+	 * for the side tables indexed by the identifiers.
+	 */
+	int getId();
+
 	/**
 	 * Gets the first parent that matches the given type.
 	 */
@@ -177,7 +188,9 @@ public interface CtElement extends FactoryAccessor, Comparable<CtElement> {
 
 	/**
 	 * Calculates and sets all the parents below this element. This function can
-	 * be called to check and fix parents after manipulating the model.
+	 * be called to check and fix parents after manipulating the collections of
+	 * the model directly (it scans the whole tree, and is not needed when the
+	 * model is modified through its setters).
 	 */
 	void updateAllParentsBelow();
 
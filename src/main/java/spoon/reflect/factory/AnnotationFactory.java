@@ -59,7 +59,7 @@ public class AnnotationFactory extends TypeFactory {
 			String simpleName) {
 		CtAnnotationType<T> t = factory.Core().createAnnotationType();
 		t.setSimpleName(simpleName);
-		owner.getTypes().add(t);
+		owner.addType(t);
 		return t;
 	}
 
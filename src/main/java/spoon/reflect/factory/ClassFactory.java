@@ -46,6 +46,7 @@ public class ClassFactory extends TypeFactory {
 	public <T> CtClass<T> create(CtClass<?> declaringClass, String simpleName) {
 		CtClass<T> c = factory.Core().createClass();
 		c.setSimpleName(simpleName);
+		declaringClass.addNestedType(c);
 		return c;
 	}
 
@@ -63,8 +64,7 @@ public class ClassFactory extends TypeFactory {
 		if (owner.getTypes().contains(c)) {
 			owner.getTypes().remove(c);
 		}
-		owner.getTypes().add(c);
-		c.setParent(owner);
+		owner.addType(c);
 		return c;
 	}
 
@@ -18,9 +18,9 @@
 package spoon.reflect.factory;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
 import spoon.reflect.code.BinaryOperatorKind;
 import spoon.reflect.code.CtAssignment;
@@ -183,7 +183,7 @@ public class CodeFactory extends SubFactory {
 		for (T e : value) {
 			CtLiteral<T> l = factory.Core().createLiteral();
 			l.setValue(e);
-			array.getElements().add(l);
+			array.addElement(l);
 		}
 		return array;
 	}
@@ -379,7 +379,7 @@ public class CodeFactory extends SubFactory {
 	 * @return Set of given modifiers
 	 */
 	public Set<ModifierKind> modifiers(ModifierKind... modifiers) {
-		Set<ModifierKind> ret = new TreeSet<ModifierKind>();
+		Set<ModifierKind> ret = EnumSet.noneOf(ModifierKind.class);
 		for (ModifierKind m : modifiers)
 			ret.add(m);
 		return ret;
@@ -36,4 +36,8 @@ public interface Factory {
 	EvalFactory Eval(); // used 4 times
 
 	ConstructorFactory Constructor(); // used 3 times
+
+	NameFactory Name();
+
+	MetadataFactory Metadata();
 }
@@ -17,6 +17,9 @@
 
 package spoon.reflect.factory;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 import spoon.compiler.Environment;
@@ -108,6 +111,7 @@ public class FactoryImpl implements Factory, Serializable {
 	public CoreFactory Core() {
 		if (Core == null) {
 			Core = new DefaultCoreFactory();
+			Core.setMainFactory(this);
 		}
 		return Core;
 	}
@@ -187,6 +191,63 @@ public class FactoryImpl implements Factory, Serializable {
 		return Interface;
 	}
 
+	private transient volatile NameFactory Name;
+
+	/**
+	 * The sub-factory of the interned names (created once, since the model
+	 * can be built by several threads).
+	 */
+	public NameFactory Name() {
+		if (Name == null) {
+			synchronized (this) {
+				if (Name == null) {
+					Name = new NameFactory(this);
+				}
+			}
+		}
+		return Name;
+	}
+
+	private transient volatile MetadataFactory Metadata;
+
+	/**
+	 * The sub-factory of the element identifiers and side tables (created
+	 * once, since the identifiers must be unique).
+	 */
+	public MetadataFactory Metadata() {
+		if (Metadata == null) {
+			synchronized (this) {
+				if (Metadata == null) {
+					Metadata = new MetadataFactory(this);
+				}
+			}
+		}
+		return Metadata;
+	}
+
+	/**
+	 * Saves the number of element identifiers given so far, since the
+	 * identifiers of the serialized elements are kept.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(Metadata == null ? 0 : Metadata.getIdCount());
+	}
+
+	/**
+	 * Restores the parent of the serialized sub-factories and the number of
+	 * element identifiers, so that the new elements do not get the
+	 * identifiers of the deserialized ones.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException,
+			ClassNotFoundException {
+		in.defaultReadObject();
+		if (Package != null) {
+			Package.factory = this;
+		}
+		Metadata().reserveIds(in.readInt());
+	}
+
 	private transient MethodFactory Method;
 
 	/**
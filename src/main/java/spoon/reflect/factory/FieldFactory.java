@@ -62,7 +62,7 @@ public class FieldFactory extends SubFactory {
 		field.setType(type);
 		field.setSimpleName(name);
 		if (target != null)
-			target.getFields().add(field);
+			target.addField(field);
 		return field;
 	}
 
@@ -102,7 +102,7 @@ public class FieldFactory extends SubFactory {
 	public <T> CtField<T> create(CtType<?> target, CtField<T> source) {
 		CtField<T> newField = factory.Core().clone(source);
 		if (target != null)
-			target.getFields().add(newField);
+			target.addField(newField);
 		return newField;
 	}
 
@@ -42,7 +42,7 @@ public class InterfaceFactory extends TypeFactory {
 	public <T> CtInterface<T> create(CtPackage owner, String simpleName) {
 		CtInterface<T> i = factory.Core().createInterface();
 		i.setSimpleName(simpleName);
-		owner.getTypes().add(i);
+		owner.addType(i);
 		return i;
 	}
 
@@ -52,7 +52,7 @@ public class InterfaceFactory extends TypeFactory {
 	public <T> CtInterface<T> create(CtType<T> owner, String simpleName) {
 		CtInterface<T> i = factory.Core().createInterface();
 		i.setSimpleName(simpleName);
-		owner.getNestedTypes().add(i);
+		owner.addNestedType(i);
 		return i;
 	}
 
@@ -0,0 +1,177 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+
+package spoon.reflect.factory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import spoon.reflect.declaration.CtElement;
+import spoon.support.util.ElementIntTable;
+import spoon.support.util.ElementTable;
+
+/**
+ * The sub-factory of the element identifiers and of the side tables where
+ * analyses attach metadata to the elements. Each element created by the
+ * factory gets a dense identifier (see {@link CtElement#getId()}), so that
+ * the tables can store their values in arrays indexed by identifier instead
+ * of in maps that hash the elements.
+ */
+public class MetadataFactory extends SubFactory {
+
+	/**
+	 * The last identifier given to an element (identifiers start at 1, 0
+	 * meaning that the element has no identifier).
+	 */
+	private final AtomicInteger lastId = new AtomicInteger();
+
+	/**
+	 * The generation of the model, which is incremented by the changes to the
+	 * elements of the factory, so that the results computed from the model
+	 * (such as the declarations of the references) can be cached. It starts
+	 * at 1 so that a zero stamp is never valid.
+	 */
+	private final AtomicLong modelGeneration = new AtomicLong(1);
+
+	/**
+	 * The generation of the cached signatures, which is incremented by the
+	 * changes that may affect the signatures of any element of the factory.
+	 */
+	private final AtomicLong signatureGeneration = new AtomicLong(1);
+
+	/**
+	 * The generation of the cached qualified names, which is incremented by
+	 * the changes that may affect the qualified name of any type or package
+	 * of the factory: renaming or moving a type or a package, or changing the
+	 * name of a reference.
+	 */
+	private final AtomicLong nameGeneration = new AtomicLong(1);
+
+	/**
+	 * Creates a new metadata sub-factory.
+	 * 
+	 * @param factory
+	 *            the parent factory
+	 */
+	public MetadataFactory(Factory factory) {
+		super(factory);
+	}
+
+	/**
+	 * Gets a new element identifier.
+	 */
+	public int nextId() {
+		return lastId.incrementAndGet();
+	}
+
+	/**
+	 * Gets the number of identifiers given so far, which is also the largest
+	 * identifier.
+	 */
+	public int getIdCount() {
+		return lastId.get();
+	}
+
+	/**
+	 * Makes sure that the next identifiers are greater than the given count
+	 * (used when the factory is deserialized with its elements).
+	 */
+	void reserveIds(int count) {
+		int last;
+		do {
+			last = lastId.get();
+		} while (last < count && !lastId.compareAndSet(last, count));
+	}
+
+	/**
+	 * Gets the current generation of the model.
+	 */
+	public long getModelGeneration() {
+		return modelGeneration.get();
+	}
+
+	/**
+	 * Invalidates the results cached for the current generation of the model.
+	 * It is called by the structural changes made to the elements of the
+	 * factory: adding, removing or renaming a declaration, or changing the
+	 * parameters of an executable.
+	 */
+	public void invalidateModel() {
+		modelGeneration.incrementAndGet();
+	}
+
+	/**
+	 * Gets the current generation of the cached signatures.
+	 */
+	public long getSignatureGeneration() {
+		return signatureGeneration.get();
+	}
+
+	/**
+	 * Invalidates the cached signatures of all the elements and references of
+	 * the factory, as well as the other results cached for the model.
+	 */
+	public void invalidateSignatures() {
+		modelGeneration.incrementAndGet();
+		signatureGeneration.incrementAndGet();
+	}
+
+	/**
+	 * Gets the current generation of the cached qualified names.
+	 */
+	public long getNameGeneration() {
+		return nameGeneration.get();
+	}
+
+	/**
+	 * Invalidates the cached qualified names of all the types, packages and
+	 * type references of the factory.
+	 */
+	public void invalidateQualifiedNames() {
+		nameGeneration.incrementAndGet();
+	}
+
+	/**
+	 * Creates a side table that associates values to the elements of this
+	 * factory. The table does not retain the elements.
+	 */
+	public <V> ElementTable<V> createTable() {
+		return new ElementTable<V>(getIdCount(), false);
+	}
+
+	/**
+	 * Creates a side table whose entries are removed once their elements have
+	 * been garbage collected, so that the table does not retain the values of
+	 * the discarded elements.
+	 */
+	public <V> ElementTable<V> createWeakTable() {
+		return new ElementTable<V>(getIdCount(), true);
+	}
+
+	/**
+	 * Creates a side table that associates <code>int</code> values to the
+	 * elements of this factory, without boxing them.
+	 * 
+	 * @param defaultValue
+	 *            the value of the elements that have no entry
+	 */
+	public ElementIntTable createIntTable(int defaultValue) {
+		return new ElementIntTable(getIdCount(), defaultValue);
+	}
+
+}
@@ -0,0 +1,239 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.reflect.factory;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * The sub-factory of the identifiers of the model: a table where the simple
+ * names, package names and qualified names of the elements and references
+ * are interned when they are set. The identical names thus share their
+ * storage and can be compared by identity (with <code>==</code>, or with
+ * {@link String#equals(Object)}, which tests the identity first).
+ * 
+ * The table is split in stripes that are locked separately, so that the
+ * threads that build the model do not wait for each other. It does not
+ * retain the names: the ones that are not used by the model anymore (such as
+ * the names of the removed or renamed elements) are dropped from the table
+ * when it grows.
+ */
+public class NameFactory extends SubFactory {
+
+	private static final int STRIPES = 16;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final Stripe[] stripes = new Stripe[STRIPES];
+
+	/**
+	 * Creates a new name sub-factory.
+	 * 
+	 * @param factory
+	 *            the parent factory
+	 */
+	public NameFactory(Factory factory) {
+		super(factory);
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new Stripe();
+		}
+	}
+
+	/**
+	 * Gets the interned instance of the given name, adding it to the table if
+	 * it is not already there.
+	 */
+	public String intern(String name) {
+		if (name == null) {
+			return null;
+		}
+		int h = name.hashCode();
+		return stripe(h).intern(name, h);
+	}
+
+	/**
+	 * Gets the interned instance of the given name, adding it to the table if
+	 * it is not already there. No string is created if the name is already
+	 * interned.
+	 */
+	public String intern(char[] name) {
+		if (name == null) {
+			return null;
+		}
+		int h = 0;
+		for (char c : name) {
+			h = 31 * h + c;
+		}
+		return stripe(h).intern(name, h);
+	}
+
+	/**
+	 * Gets the interned instance of the given name, or null if the name has
+	 * not been interned.
+	 */
+	public String get(String name) {
+		if (name == null) {
+			return null;
+		}
+		int h = name.hashCode();
+		return stripe(h).get(name, h);
+	}
+
+	/**
+	 * Gets the number of interned names (including the unused names that
+	 * have not been dropped yet).
+	 */
+	public int size() {
+		int size = 0;
+		for (Stripe s : stripes) {
+			size += s.size();
+		}
+		return size;
+	}
+
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+
+	private Stripe stripe(int h) {
+		return stripes[spread(h) & (STRIPES - 1)];
+	}
+
+	private static boolean matches(String s, char[] name) {
+		if (s.length() != name.length) {
+			return false;
+		}
+		for (int i = 0; i < name.length; i++) {
+			if (s.charAt(i) != name[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * An interned name, with its hash code so that the table can be rehashed
+	 * once the name has been collected.
+	 */
+	private static final class Entry extends WeakReference<String> {
+		final int hash;
+
+		Entry(String name, int hash) {
+			super(name);
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * A stripe of the table: an open-addressing hash table, so that the names
+	 * can be looked up from the character arrays of the compiler without
+	 * creating strings.
+	 */
+	private static final class Stripe {
+		private Entry[] table = new Entry[INITIAL_CAPACITY];
+
+		private int size;
+
+		synchronized String intern(String name, int h) {
+			int i = slot(h);
+			Entry e;
+			while ((e = table[i]) != null) {
+				String s = e.get();
+				if (e.hash == h && s != null && (s == name || s.equals(name))) {
+					return s;
+				}
+				i = (i + 1) & (table.length - 1);
+			}
+			add(i, name, h);
+			return name;
+		}
+
+		synchronized String intern(char[] name, int h) {
+			int i = slot(h);
+			Entry e;
+			while ((e = table[i]) != null) {
+				String s = e.get();
+				if (e.hash == h && s != null && matches(s, name)) {
+					return s;
+				}
+				i = (i + 1) & (table.length - 1);
+			}
+			String s = new String(name);
+			add(i, s, h);
+			return s;
+		}
+
+		synchronized String get(String name, int h) {
+			int i = slot(h);
+			Entry e;
+			while ((e = table[i]) != null) {
+				String s = e.get();
+				if (e.hash == h && s != null && (s == name || s.equals(name))) {
+					return s;
+				}
+				i = (i + 1) & (table.length - 1);
+			}
+			return null;
+		}
+
+		synchronized int size() {
+			return size;
+		}
+
+		private int slot(int h) {
+			// the low bits select the stripe
+			return (spread(h) >>> 4) & (table.length - 1);
+		}
+
+		private void add(int i, String name, int h) {
+			table[i] = new Entry(name, h);
+			if (++size * 4 > table.length * 3) {
+				rehash();
+			}
+		}
+
+		/**
+		 * Drops the collected names, and doubles the capacity if the table
+		 * is still more than half full.
+		 */
+		private void rehash() {
+			Entry[] old = table;
+			int live = 0;
+			for (Entry e : old) {
+				if (e != null && e.get() != null) {
+					live++;
+				}
+			}
+			int capacity = old.length;
+			while (live * 2 > capacity) {
+				capacity *= 2;
+			}
+			table = new Entry[capacity];
+			size = 0;
+			for (Entry e : old) {
+				if (e != null && e.get() != null) {
+					int i = slot(e.hash);
+					while (table[i] != null) {
+						i = (i + 1) & (table.length - 1);
+					}
+					table[i] = e;
+					size++;
+				}
+			}
+		}
+	}
+
+}
@@ -24,8 +24,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import spoon.reflect.declaration.CtNamedElement;
 import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtSimpleType;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.reference.CtPackageReference;
 
@@ -40,6 +44,18 @@ public class PackageFactory extends SubFactory implements Serializable {
 	 */
 	private Map<String, CtPackage> packages = new TreeMap<String, CtPackage>();
 
+	/**
+	 * The packages registered in this factory and their sub-packages, indexed
+	 * by qualified name.
+	 */
+	private ConcurrentMap<String, CtPackage> index = new ConcurrentHashMap<String, CtPackage>();
+
+	/**
+	 * The types of these packages (including the member types), indexed by
+	 * qualified name. This index is shared by all the type sub-factories.
+	 */
+	private ConcurrentMap<String, CtSimpleType<?>> typeIndex = new ConcurrentHashMap<String, CtSimpleType<?>>();
+
 	/**
 	 * Creates a new package sub-factory.
 	 * 
@@ -141,8 +157,7 @@ public class PackageFactory extends SubFactory implements Serializable {
 			if (next == null) {
 				next = factory.Core().createPackage();
 				next.setSimpleName(name);
-				last.getPackages().add(next);
-				next.setParent(last);
+				last.addPackage(next);
 			}
 			last = next;
 		}
@@ -161,6 +176,12 @@ public class PackageFactory extends SubFactory implements Serializable {
 		if (qualifiedName.contains(CtType.INNERTTYPE_SEPARATOR)) {
 			throw new RuntimeException("Invalid package name " + qualifiedName);
 		}
+		CtPackage pack = index.get(qualifiedName);
+		if (pack != null) {
+			return pack;
+		}
+		// the packages that were not added through the model setters are
+		// searched in the package tree
 		StringTokenizer token = new StringTokenizer(qualifiedName,
 				CtPackage.PACKAGE_SEPARATOR);
 		CtPackage current = null;
@@ -170,11 +191,17 @@ public class PackageFactory extends SubFactory implements Serializable {
 				current = current.getPackage(token.nextToken());
 			}
 		}
-		
-
 		return current;
 	}
 
+	/**
+	 * Gets an indexed type from its qualified name (see
+	 * {@link TypeFactory#get(String)}).
+	 */
+	CtSimpleType<?> getIndexedType(String qualifiedName) {
+		return typeIndex.get(qualifiedName);
+	}
+
 	/**
 	 * Gets the list of all created packages. It includes all the top-level
 	 * packages and their sub-packages.
@@ -212,6 +239,80 @@ public class PackageFactory extends SubFactory implements Serializable {
 					+ " already created");
 		}
 		packages.put(pck.getQualifiedName(), pck);
+		index(pck);
+	}
+
+	/**
+	 * Tells if a package or a type is in the index of the qualified names,
+	 * which holds the registered packages and the types they contain. It is
+	 * used by the model to keep the index up to date.
+	 */
+	public boolean isIndexed(CtNamedElement element) {
+		if (element instanceof CtPackage) {
+			String name = ((CtPackage) element).getQualifiedName();
+			return name != null && index.get(name) == element;
+		}
+		if (element instanceof CtSimpleType) {
+			String name = ((CtSimpleType<?>) element).getQualifiedName();
+			return name != null && typeIndex.get(name) == element;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds a package or a type to the index of the qualified names, with the
+	 * packages and the member types it contains.
+	 */
+	public void index(CtNamedElement element) {
+		if (element instanceof CtPackage) {
+			CtPackage pack = (CtPackage) element;
+			if (pack.getQualifiedName() != null) {
+				index.put(pack.getQualifiedName(), pack);
+			}
+			for (CtPackage p : pack.getPackages()) {
+				index(p);
+			}
+			for (CtSimpleType<?> t : pack.getTypes()) {
+				index(t);
+			}
+		} else if (element instanceof CtSimpleType) {
+			CtSimpleType<?> type = (CtSimpleType<?>) element;
+			if (type.getQualifiedName() != null) {
+				typeIndex.put(type.getQualifiedName(), type);
+				factory.Type().getHierarchy().typeChanged(type.getQualifiedName());
+			}
+			for (CtSimpleType<?> t : type.getNestedTypes()) {
+				index(t);
+			}
+		}
+	}
+
+	/**
+	 * Removes a package or a type from the index of the qualified names, with
+	 * the packages and the member types it contains.
+	 */
+	public void unindex(CtNamedElement element) {
+		if (element instanceof CtPackage) {
+			CtPackage pack = (CtPackage) element;
+			if (pack.getQualifiedName() != null) {
+				index.remove(pack.getQualifiedName(), pack);
+			}
+			for (CtPackage p : pack.getPackages()) {
+				unindex(p);
+			}
+			for (CtSimpleType<?> t : pack.getTypes()) {
+				unindex(t);
+			}
+		} else if (element instanceof CtSimpleType) {
+			CtSimpleType<?> type = (CtSimpleType<?>) element;
+			if (type.getQualifiedName() != null
+					&& typeIndex.remove(type.getQualifiedName(), type)) {
+				factory.Type().getHierarchy().typeChanged(type.getQualifiedName());
+			}
+			for (CtSimpleType<?> t : type.getNestedTypes()) {
+				unindex(t);
+			}
+		}
 	}
 
 }
\ No newline at end of file
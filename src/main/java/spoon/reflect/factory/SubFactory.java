@@ -26,6 +26,13 @@ public abstract class SubFactory  {
 
 	protected Factory factory;
 
+	/**
+	 * Constructor of the serializable sub-factories, whose parent factory is
+	 * set again by the parent factory when it is deserialized.
+	 */
+	protected SubFactory() {
+	}
+
 	/**
 	 * The sub-factory constructor takes an instance of the parent factory.
 	 */
@@ -27,8 +27,12 @@ import spoon.reflect.declaration.CtSimpleType;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.declaration.CtTypeParameter;
 import spoon.reflect.reference.CtArrayTypeReference;
+import spoon.reflect.reference.CtReference;
 import spoon.reflect.reference.CtTypeParameterReference;
 import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.reference.PrimitiveKind;
+import spoon.support.reflect.reference.CtReferenceImpl;
+import spoon.support.util.TypeHierarchy;
 
 /**
  * The {@link CtType} sub-factory.
@@ -42,6 +46,7 @@ public class TypeFactory extends SubFactory {
 	public final CtTypeReference<Boolean> BOOLEAN = createReference(Boolean.class);
 	public final CtTypeReference<Byte> BYTE = createReference(Byte.class);
 	public final CtTypeReference<Character> CHARACTER = createReference(Character.class);
+	public final CtTypeReference<Short> SHORT = createReference(Short.class);
 	public final CtTypeReference<Integer> INTEGER = createReference(Integer.class);
 	public final CtTypeReference<Long> LONG = createReference(Long.class);
 	public final CtTypeReference<Float> FLOAT = createReference(Float.class);
@@ -50,6 +55,7 @@ public class TypeFactory extends SubFactory {
 	public final CtTypeReference<Boolean> BOOLEAN_PRIMITIVE = createReference(boolean.class);
 	public final CtTypeReference<Byte> BYTE_PRIMITIVE = createReference(byte.class);
 	public final CtTypeReference<Character> CHARACTER_PRIMITIVE = createReference(char.class);
+	public final CtTypeReference<Short> SHORT_PRIMITIVE = createReference(short.class);
 	public final CtTypeReference<Integer> INTEGER_PRIMITIVE = createReference(int.class);
 	public final CtTypeReference<Long> LONG_PRIMITIVE = createReference(long.class);
 	public final CtTypeReference<Float> FLOAT_PRIMITIVE = createReference(float.class);
@@ -57,6 +63,45 @@ public class TypeFactory extends SubFactory {
 	public final CtTypeReference<Date> DATE = createReference(Date.class);
 	public final CtTypeReference<Object> OBJECT = createReference(Object.class);
 
+	/**
+	 * The canonical references to the primitive types, by kind.
+	 */
+	private final CtTypeReference<?>[] primitives = createCanonicalReferences(false);
+
+	/**
+	 * The canonical references to the boxing types, by kind.
+	 */
+	private final CtTypeReference<?>[] boxes = createCanonicalReferences(true);
+
+	private CtTypeReference<?>[] createCanonicalReferences(boolean boxes) {
+		PrimitiveKind[] kinds = PrimitiveKind.values();
+		CtTypeReference<?>[] references = new CtTypeReference<?>[kinds.length];
+		for (PrimitiveKind kind : kinds) {
+			CtTypeReference<?> reference = createReference(boxes ? kind
+					.getBoxClass() : kind.getPrimitiveClass());
+			((CtReferenceImpl) reference).setShared();
+			references[kind.ordinal()] = reference;
+		}
+		return references;
+	}
+
+	/**
+	 * Gets the canonical reference to a primitive type. This reference is
+	 * shared: it cannot be modified (see {@link CtReference#isShared()}).
+	 */
+	public CtTypeReference<?> getPrimitiveReference(PrimitiveKind kind) {
+		return primitives[kind.ordinal()];
+	}
+
+	/**
+	 * Gets the canonical reference to the boxing type of a primitive type.
+	 * This reference is shared: it cannot be modified (see
+	 * {@link CtReference#isShared()}).
+	 */
+	public CtTypeReference<?> getBoxReference(PrimitiveKind kind) {
+		return boxes[kind.ordinal()];
+	}
+
 	/**
 	 * Returns a reference on the null type (type of null).
 	 */
@@ -180,6 +225,32 @@ public class TypeFactory extends SubFactory {
 		return ref;
 	}
 
+	private volatile TypeHierarchy hierarchy;
+
+	/**
+	 * Gets the index of the supertypes of the types, which answers the
+	 * subtyping queries of the type references.
+	 */
+	public TypeHierarchy getHierarchy() {
+		TypeFactory types = factory.Type();
+		if (types != this) {
+			// the class, interface and enum sub-factories share the
+			// hierarchy of the type sub-factory
+			return types.getHierarchy();
+		}
+		TypeHierarchy h = hierarchy;
+		if (h == null) {
+			synchronized (this) {
+				h = hierarchy;
+				if (h == null) {
+					h = new TypeHierarchy(factory);
+					hierarchy = h;
+				}
+			}
+		}
+		return h;
+	}
+
 	/**
 	 * Gets a created type from its qualified name.
 	 * 
@@ -187,6 +258,13 @@ public class TypeFactory extends SubFactory {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T> CtSimpleType<T> get(String qualifiedName) {
+		CtSimpleType<?> type = factory.Package().getIndexedType(qualifiedName);
+		if (type != null) {
+			return (CtSimpleType<T>) type;
+		}
+		// the local types are not indexed, and the types that were not added
+		// through the model setters neither: they are searched in their
+		// declaring types and packages
 		int inertTypeIndex = qualifiedName
 				.lastIndexOf(CtSimpleType.INNERTTYPE_SEPARATOR);
 		if (inertTypeIndex > 0) {
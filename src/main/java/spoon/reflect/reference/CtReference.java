@@ -48,6 +48,15 @@ public interface CtReference extends FactoryAccessor, Comparable<CtReference> {
 	 */
 	void setSimpleName(String simpleName);
 
+	/**
+	 * Tells if this reference is shared by several elements of the model
+	 * (such as the references created by the JDT tree builder). A shared
+	 * reference cannot be modified: its setters throw an
+	 * {@link UnsupportedOperationException}, and it has to be replaced by a
+	 * modified clone.
+	 */
+	boolean isShared();
+
 	/**
 	 * Tries to get the declaration that corresponds to the referenced element.
 	 * 
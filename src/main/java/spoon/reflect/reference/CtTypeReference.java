@@ -85,13 +85,19 @@ public interface CtTypeReference<T> extends CtReference,
 
 	/**
 	 * Returns the corresponding non-primitive type for a primitive type (the
-	 * same type otherwise).
+	 * same type otherwise). The returned boxing type is a new reference,
+	 * unless the environment shares the references (see
+	 * {@link spoon.compiler.Environment#isSharingReferences()}), in which case
+	 * it is shared (see {@link #isShared()}) and must be cloned to be
+	 * modified.
 	 */
 	CtTypeReference<?> box();
 
 	/**
 	 * Returns the primitive type for a boxing type (unchanged if the type does
-	 * not correspond to a boxing type).
+	 * not correspond to a boxing type). As with {@link #box()}, the returned
+	 * primitive type is a new reference, unless the environment shares the
+	 * references.
 	 */
 	CtTypeReference<?> unbox();
 
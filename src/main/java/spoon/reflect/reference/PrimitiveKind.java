@@ -0,0 +1,102 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+
+package spoon.reflect.reference;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This enumeration defines the primitive types, with their boxing types.
+ */
+public enum PrimitiveKind {
+
+	BOOLEAN(boolean.class, Boolean.class),
+
+	BYTE(byte.class, Byte.class),
+
+	CHAR(char.class, Character.class),
+
+	SHORT(short.class, Short.class),
+
+	INT(int.class, Integer.class),
+
+	LONG(long.class, Long.class),
+
+	FLOAT(float.class, Float.class),
+
+	DOUBLE(double.class, Double.class),
+
+	VOID(void.class, Void.class);
+
+	private static final Map<String, PrimitiveKind> primitives = new HashMap<>();
+
+	private static final Map<String, PrimitiveKind> boxes = new HashMap<>();
+
+	static {
+		for (PrimitiveKind kind : values()) {
+			primitives.put(kind.primitiveClass.getName(), kind);
+			boxes.put(kind.boxClass.getSimpleName(), kind);
+		}
+	}
+
+	private final Class<?> primitiveClass;
+
+	private final Class<?> boxClass;
+
+	private PrimitiveKind(Class<?> primitiveClass, Class<?> boxClass) {
+		this.primitiveClass = primitiveClass;
+		this.boxClass = boxClass;
+	}
+
+	/**
+	 * Gets the primitive type (such as <code>int.class</code>).
+	 */
+	public Class<?> getPrimitiveClass() {
+		return primitiveClass;
+	}
+
+	/**
+	 * Gets the boxing type (such as <code>Integer.class</code>).
+	 */
+	public Class<?> getBoxClass() {
+		return boxClass;
+	}
+
+	/**
+	 * Gets the kind of a primitive type from its name (such as "int"), or
+	 * null if the name is not the name of a primitive type.
+	 */
+	public static PrimitiveKind ofPrimitive(String name) {
+		return primitives.get(name);
+	}
+
+	/**
+	 * Gets the kind of the primitive type boxed by a type, from the name of
+	 * its package and its simple name (such as "java.lang" and "Integer"), or
+	 * null if the type is not a boxing type.
+	 */
+	public static PrimitiveKind ofBox(String packageName, String simpleName) {
+		PrimitiveKind kind = boxes.get(simpleName);
+		if (kind != null && !"java.lang".equals(packageName)) {
+			return null;
+		}
+		return kind;
+	}
+
+}
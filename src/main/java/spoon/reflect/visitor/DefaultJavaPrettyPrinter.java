@@ -511,25 +511,8 @@ public class DefaultJavaPrettyPrinter implements CtVisitor, PrettyPrinter {
 	 */
 	public DefaultJavaPrettyPrinter scan(CtElement e) {
 		if (e != null) {
-			if (!context.elementStack.isEmpty()) {
-				CtElement parent = context.elementStack.peek();
-				if (e.isParentInitialized()) {
-					if (parent != e.getParent()) {
-						env.report(null, Severity.WARNING,
-								"ignoring inconsistent parent for "
-										+ e.getClass().getSimpleName()
-										+ " ("
-										+ parent.getClass().getSimpleName()
-										+ " != "
-										+ e.getParent().getClass()
-												.getSimpleName() + ")"
-										+ e.getPosition()
-										);
-					}
-				} else {
-					e.setParent(parent);
-				}
-			}
+			// the parents are set by the model (see
+			// Environment.isModelConsistencyChecked() for checking them)
 			context.elementStack.push(e);
 			if (env.isPreserveLineNumbers()) {
 				context.noNewLines = e.getPosition() == null
@@ -23,6 +23,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -32,6 +33,7 @@ import org.xml.sax.SAXException;
 
 import spoon.compiler.Environment;
 import spoon.compiler.InvalidClassPathException;
+import spoon.compiler.ModelFidelity;
 import spoon.compiler.SpoonFile;
 import spoon.compiler.SpoonFolder;
 import spoon.processing.FileGenerator;
@@ -48,6 +50,7 @@ import spoon.reflect.declaration.ParentNotInitializedException;
 import spoon.reflect.factory.Factory;
 import spoon.support.compiler.FileSystemFolder;
 import spoon.support.processing.XmlProcessorProperties;
+import spoon.support.util.ClassResolver;
 
 /**
  * This class implements a simple Spoon environment that reports messages in the
@@ -390,6 +393,52 @@ public class StandardEnvironment implements Serializable, Environment {
 	public void setSourceClasspath(String[] sourceClasspath) {
 		verifySourceClasspath(sourceClasspath);
 		this.sourceClasspath = sourceClasspath ;
+		closeClassResolvers();
+	}
+
+	/**
+	 * The resolvers of the classes of the source classpath, by parent class
+	 * loader (the context class loaders of the threads that load classes),
+	 * so that a class is always loaded by the same loader for a given
+	 * context.
+	 */
+	private transient Map<ClassLoader, ClassResolver> classResolvers;
+
+	public Class<?> loadClass(String qualifiedName)
+			throws ClassNotFoundException {
+		return getClassResolver(
+				Thread.currentThread().getContextClassLoader()).loadClass(
+				qualifiedName);
+	}
+
+	private synchronized ClassResolver getClassResolver(ClassLoader parent) {
+		if (classResolvers == null) {
+			classResolvers = new HashMap<ClassLoader, ClassResolver>();
+		}
+		ClassResolver resolver = classResolvers.get(parent);
+		if (resolver == null) {
+			resolver = new ClassResolver(sourceClasspath, parent);
+			classResolvers.put(parent, resolver);
+		}
+		return resolver;
+	}
+
+	/**
+	 * Closes the resolvers of the previous source classpath.
+	 */
+	private synchronized void closeClassResolvers() {
+		if (classResolvers == null) {
+			return;
+		}
+		for (ClassResolver resolver : classResolvers.values()) {
+			try {
+				resolver.close();
+			} catch (IOException e) {
+				logger.warn("cannot close the class loader of "
+						+ resolver.getParent(), e);
+			}
+		}
+		classResolvers = null;
 	}
 	
 	private void verifySourceClasspath(String[] sourceClasspath) throws InvalidClassPathException {
@@ -438,6 +487,89 @@ public class StandardEnvironment implements Serializable, Environment {
 		this.inputClassLoader = classLoader;
 	}
 
+	int buildThreadCount = 1;
+
+	@Override
+	public int getBuildThreadCount() {
+		return buildThreadCount;
+	}
+
+	@Override
+	public void setBuildThreadCount(int buildThreadCount) {
+		if (buildThreadCount < 1) {
+			throw new IllegalArgumentException(
+					"the number of build threads must be at least 1");
+		}
+		this.buildThreadCount = buildThreadCount;
+	}
+
+	int streamingWindowSize = 0;
+
+	@Override
+	public int getStreamingWindowSize() {
+		return streamingWindowSize;
+	}
+
+	@Override
+	public void setStreamingWindowSize(int streamingWindowSize) {
+		if (streamingWindowSize < 0) {
+			throw new IllegalArgumentException(
+					"the streaming window size cannot be negative");
+		}
+		this.streamingWindowSize = streamingWindowSize;
+	}
+
+	boolean lazyMethodBodies = false;
+
+	@Override
+	public boolean isLazyMethodBodies() {
+		return lazyMethodBodies;
+	}
+
+	@Override
+	public void setLazyMethodBodies(boolean lazyMethodBodies) {
+		this.lazyMethodBodies = lazyMethodBodies;
+	}
+
+	ModelFidelity modelFidelity = ModelFidelity.CHECKED;
+
+	@Override
+	public ModelFidelity getModelFidelity() {
+		return modelFidelity;
+	}
+
+	@Override
+	public void setModelFidelity(ModelFidelity modelFidelity) {
+		if (modelFidelity == null) {
+			throw new IllegalArgumentException("the model fidelity is required");
+		}
+		this.modelFidelity = modelFidelity;
+	}
+
+	boolean modelConsistencyChecked = false;
+
+	@Override
+	public boolean isModelConsistencyChecked() {
+		return modelConsistencyChecked;
+	}
+
+	@Override
+	public void setModelConsistencyChecked(boolean modelConsistencyChecked) {
+		this.modelConsistencyChecked = modelConsistencyChecked;
+	}
+
+	boolean sharingReferences = false;
+
+	@Override
+	public boolean isSharingReferences() {
+		return sharingReferences;
+	}
+
+	@Override
+	public void setSharingReferences(boolean sharingReferences) {
+		this.sharingReferences = sharingReferences;
+	}
+
 	@Override
 	public boolean isPreserveLineNumbers() {
 		return preserveLineNumbers;
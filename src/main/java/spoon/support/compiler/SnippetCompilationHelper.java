@@ -82,7 +82,7 @@ public class SnippetCompilationHelper {
 		CtStatement ret = wrapper.getBody().getStatements().get(0);
 
 		// Clean up
-		c.getPackage().getTypes().remove(c);
+		c.getPackage().removeType(c);
 
 		// check typing?
 
@@ -163,7 +163,7 @@ public class SnippetCompilationHelper {
 				.get(0);
 
 		// Clean up (delete wrapper from factory)
-		c.getPackage().getTypes().remove(c);
+		c.getPackage().removeType(c);
 
 		return ret.getReturnedExpression();
 	}
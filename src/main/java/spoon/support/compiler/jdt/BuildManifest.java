@@ -0,0 +1,295 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+package spoon.support.compiler.jdt;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import spoon.SpoonException;
+import spoon.compiler.SpoonFile;
+import spoon.reflect.cu.CompilationUnit;
+import spoon.reflect.declaration.CtSimpleType;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.visitor.Query;
+import spoon.reflect.visitor.filter.ReferenceTypeFilter;
+
+/**
+ * A build manifest records, for each source file of a previous build, the
+ * hash of its content, the types it declares and the types it references. It
+ * is used to build only the files that have changed since the previous build,
+ * together with the files that depend on them (transitively).
+ */
+public class BuildManifest {
+
+	/**
+	 * The name of the file where the manifest is stored in the output
+	 * directory.
+	 */
+	public static final String FILE_NAME = ".spoon-manifest";
+
+	static final String ENCODING = "UTF-8";
+
+	/**
+	 * An entry of the manifest.
+	 */
+	static class Entry {
+		String hash;
+
+		Set<String> declaredTypes = new TreeSet<>();
+
+		Set<String> referencedTypes = new TreeSet<>();
+	}
+
+	private final Map<String, Entry> entries = new TreeMap<>();
+
+	private final Map<String, String> hashes = new HashMap<>();
+
+	/**
+	 * Loads the manifest stored in the given output directory. An empty
+	 * manifest is returned if the directory does not contain any manifest.
+	 */
+	public static BuildManifest load(File outputDirectory) throws IOException {
+		BuildManifest manifest = new BuildManifest();
+		File file = new File(outputDirectory, FILE_NAME);
+		if (!file.isFile()) {
+			return manifest;
+		}
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file), ENCODING));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split("\t", -1);
+				if (fields.length != 4) {
+					// corrupted manifest: everything will be rebuilt
+					manifest.entries.clear();
+					break;
+				}
+				Entry entry = new Entry();
+				entry.hash = fields[1];
+				split(fields[2], entry.declaredTypes);
+				split(fields[3], entry.referencedTypes);
+				manifest.entries.put(fields[0], entry);
+			}
+		} finally {
+			reader.close();
+		}
+		return manifest;
+	}
+
+	private static void split(String field, Set<String> names) {
+		if (!field.isEmpty()) {
+			for (String name : field.split(",")) {
+				names.add(name);
+			}
+		}
+	}
+
+	private static String join(Set<String> names) {
+		StringBuilder sb = new StringBuilder();
+		for (String name : names) {
+			if (sb.length() > 0) {
+				sb.append(',');
+			}
+			sb.append(name);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Stores this manifest in the given output directory.
+	 */
+	public void save(File outputDirectory) throws IOException {
+		if (!outputDirectory.exists() && !outputDirectory.mkdirs()) {
+			throw new IOException("cannot create " + outputDirectory);
+		}
+		PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+				new FileOutputStream(new File(outputDirectory, FILE_NAME)),
+				ENCODING));
+		try {
+			for (Map.Entry<String, Entry> e : entries.entrySet()) {
+				writer.print(e.getKey());
+				writer.print('\t');
+				writer.print(e.getValue().hash);
+				writer.print('\t');
+				writer.print(join(e.getValue().declaredTypes));
+				writer.print('\t');
+				writer.println(join(e.getValue().referencedTypes));
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Gets the qualified names of the types declared by the given file in
+	 * the previous build.
+	 */
+	public Set<String> getDeclaredTypes(SpoonFile file) {
+		Entry entry = entries.get(file.getPath());
+		if (entry == null) {
+			return new TreeSet<>();
+		}
+		return entry.declaredTypes;
+	}
+
+	/**
+	 * Gets the files that need to be built among the given source files: the
+	 * files that are new or whose content has changed since the previous
+	 * build, the given forced files, and all the files that depend on them
+	 * (directly or transitively). The files that are no longer part of the
+	 * sources are removed from the manifest and their dependents are built.
+	 */
+	public List<SpoonFile> getFilesToBuild(List<SpoonFile> files,
+			Collection<?> forced) {
+		Map<String, SpoonFile> byPath = new HashMap<>();
+		for (SpoonFile file : files) {
+			byPath.put(file.getPath(), file);
+		}
+
+		Set<String> outdated = new HashSet<>();
+		for (SpoonFile file : files) {
+			Entry entry = entries.get(file.getPath());
+			if (entry == null || forced.contains(file)
+					|| !entry.hash.equals(hash(file))) {
+				outdated.add(file.getPath());
+			}
+		}
+
+		// the types that have changed
+		Deque<String> changedTypes = new ArrayDeque<>();
+		for (String path : new ArrayList<>(entries.keySet())) {
+			if (!byPath.containsKey(path)) {
+				changedTypes.addAll(entries.remove(path).declaredTypes);
+			} else if (outdated.contains(path)) {
+				changedTypes.addAll(entries.get(path).declaredTypes);
+			}
+		}
+
+		// propagate the changes to the dependent files
+		Map<String, List<String>> dependents = new HashMap<>();
+		for (Map.Entry<String, Entry> e : entries.entrySet()) {
+			for (String type : e.getValue().referencedTypes) {
+				List<String> l = dependents.get(type);
+				if (l == null) {
+					l = new ArrayList<>();
+					dependents.put(type, l);
+				}
+				l.add(e.getKey());
+			}
+		}
+		Set<String> visitedTypes = new HashSet<>();
+		while (!changedTypes.isEmpty()) {
+			String type = changedTypes.poll();
+			if (!visitedTypes.add(type) || !dependents.containsKey(type)) {
+				continue;
+			}
+			for (String path : dependents.get(type)) {
+				if (outdated.add(path)) {
+					changedTypes.addAll(entries.get(path).declaredTypes);
+				}
+			}
+		}
+
+		List<SpoonFile> result = new ArrayList<>();
+		for (SpoonFile file : files) {
+			if (outdated.contains(file.getPath())) {
+				result.add(file);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Records the given built compilation unit in this manifest.
+	 */
+	public void update(SpoonFile file, CompilationUnit cu) {
+		Entry entry = new Entry();
+		entry.hash = hash(file);
+		for (CtSimpleType<?> type : cu.getDeclaredTypes()) {
+			entry.declaredTypes.add(type.getQualifiedName());
+			for (CtTypeReference<?> ref : Query.getReferences(type,
+					new ReferenceTypeFilter<CtTypeReference<?>>(
+							CtTypeReference.class))) {
+				if (!ref.isPrimitive()) {
+					// nested types are recorded as their top-level type
+					String name = ref.getQualifiedName();
+					int i = name.indexOf(CtSimpleType.INNERTTYPE_SEPARATOR);
+					entry.referencedTypes.add(i < 0 ? name : name.substring(0,
+							i));
+				}
+			}
+		}
+		entry.referencedTypes.removeAll(entry.declaredTypes);
+		entries.put(file.getPath(), entry);
+	}
+
+	/**
+	 * Computes the hash of the content of a file (the result is cached for
+	 * the lifetime of this manifest).
+	 */
+	String hash(SpoonFile file) {
+		String hash = hashes.get(file.getPath());
+		if (hash != null) {
+			return hash;
+		}
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			InputStream in = file.getContent();
+			try {
+				byte[] buffer = new byte[8192];
+				int n;
+				while ((n = in.read(buffer)) > 0) {
+					digest.update(buffer, 0, n);
+				}
+			} finally {
+				in.close();
+			}
+			StringBuilder sb = new StringBuilder();
+			for (byte b : digest.digest()) {
+				sb.append(String.format("%02x", b));
+			}
+			hash = sb.toString();
+		} catch (NoSuchAlgorithmException | IOException e) {
+			throw new SpoonException(e);
+		}
+		hashes.put(file.getPath(), hash);
+		return hash;
+	}
+
+}
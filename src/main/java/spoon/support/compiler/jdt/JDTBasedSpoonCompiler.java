@@ -26,32 +26,47 @@ import java.io.PrintWriter;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.eclipse.jdt.core.compiler.CategorizedProblem;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
 import org.eclipse.jdt.internal.compiler.batch.CompilationUnit;
 import org.eclipse.jdt.internal.compiler.batch.Main;
 import org.eclipse.jdt.internal.compiler.env.INameEnvironment;
+import org.eclipse.jdt.internal.compiler.lookup.TypeConstants;
 import org.eclipse.jdt.internal.compiler.util.Util;
 
 import spoon.Launcher;
 import spoon.OutputType;
+import spoon.SpoonException;
 import spoon.compiler.Environment;
 import spoon.compiler.ModelBuildingException;
+import spoon.compiler.ModelFidelity;
 import spoon.compiler.SpoonCompiler;
 import spoon.compiler.SpoonFile;
 import spoon.compiler.SpoonFolder;
 import spoon.compiler.SpoonResource;
 import spoon.compiler.SpoonResourceHelper;
+import spoon.processing.AbstractProcessor;
+import spoon.processing.CompilationUnitLocal;
 import spoon.processing.ProcessingManager;
+import spoon.processing.Processor;
 import spoon.processing.Severity;
 import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.declaration.CtSimpleType;
@@ -62,6 +77,7 @@ import spoon.reflect.visitor.PrettyPrinter;
 import spoon.support.QueueProcessingManager;
 import spoon.support.compiler.FileSystemFile;
 import spoon.support.compiler.VirtualFolder;
+import spoon.support.visitor.ProcessingVisitor;
 
 public class JDTBasedSpoonCompiler implements SpoonCompiler {
 
@@ -137,39 +153,105 @@ public class JDTBasedSpoonCompiler implements SpoonCompiler {
 		return createBatchCompiler(false);
 	}
 
-	protected void keepOutdatedFiles(List<SpoonFile> files,
-			Collection<File> outputFiles) {
-		// System.out.println("outputfiles: " + outputFiles);
+	/**
+	 * The manifest of the previous build, when only the outdated files are
+	 * built.
+	 */
+	BuildManifest manifest;
 
-		int offset = outputDirectory.getAbsolutePath().length() + 1;
-		Collection<String> relativeOutputPaths = new ArrayList<>();
-		for (File f : outputFiles) {
-			relativeOutputPaths.add(f.getAbsolutePath().substring(offset));
+	/**
+	 * Gets the manifest of the previous build (loaded from the output
+	 * directory).
+	 */
+	protected BuildManifest getManifest() throws IOException {
+		if (manifest == null) {
+			manifest = BuildManifest.load(outputDirectory);
 		}
-		for (SpoonFile sf : new ArrayList<SpoonFile>(files)) {
-			if (forceBuildList.contains(sf)) {
-				continue;
-			}
-			File f = sf.toFile();
-			for (String s : relativeOutputPaths) {
-				if (f.getAbsolutePath().endsWith(s)) {
-					if (f.lastModified() <= new File(outputDirectory, s)
-							.lastModified()) {
-						files.remove(sf);
-					}
-				}
+		return manifest;
+	}
+
+	/**
+	 * Records the compilation units built from the given files in the
+	 * manifest.
+	 */
+	protected void updateManifest(List<SpoonFile> builtFiles)
+			throws IOException {
+		updateManifest(indexByPath(builtFiles));
+	}
+
+	/**
+	 * Records the compilation units of the factory built from the given
+	 * files, indexed by path, in the manifest.
+	 */
+	private void updateManifest(Map<String, SpoonFile> builtFiles)
+			throws IOException {
+		for (spoon.reflect.cu.CompilationUnit cu : factory.CompilationUnit()
+				.getMap().values()) {
+			SpoonFile sf = builtFiles.get(cu.getFile().getCanonicalPath());
+			if (sf != null) {
+				getManifest().update(sf, cu);
 			}
 		}
-		// System.out.println("filtered: " + files);
+	}
+
+	private static Map<String, SpoonFile> indexByPath(List<SpoonFile> files) {
+		Map<String, SpoonFile> index = new HashMap<>();
+		for (SpoonFile sf : files) {
+			index.put(sf.getPath(), sf);
+		}
+		return index;
 	}
 
 	protected boolean buildSources() throws Exception {
 		if (sources.getAllJavaFiles().isEmpty())
 			return true;
+		List<SpoonFile> filesToBuild = getFilesToBuild();
+		CompilationUnitDeclaration[] units = resolveSources(filesToBuild);
+
+		// here we build the model
+		if (sourceCompiler.lazyMethodBodies) {
+			// the JDT units are kept by the loaders of the method bodies
+			LazyMethodBodies lazyBodies = new LazyMethodBodies(
+					sourceCompiler, factory);
+			buildModel(units, lazyBodies);
+			lazyBodies.releaseIfResolved();
+			sourceCompiler = null;
+		} else {
+			buildModel(units);
+			releaseSources();
+		}
+
+		if (buildOnlyOutdatedFiles) {
+			updateManifest(filesToBuild);
+		}
+
+		return probs.size() == 0;
+	}
+
+	/**
+	 * Gets the input source files that have to be built (all of them, unless
+	 * only the outdated files are built).
+	 */
+	protected List<SpoonFile> getFilesToBuild() throws IOException {
+		List<SpoonFile> filesToBuild = sources.getAllJavaFiles();
+		if (buildOnlyOutdatedFiles) {
+			filesToBuild = getManifest().getFilesToBuild(filesToBuild,
+					forceBuildList);
+		}
+		return filesToBuild;
+	}
+
+	/**
+	 * Parses and resolves the given input source files with JDT, without
+	 * building the corresponding model.
+	 */
+	protected CompilationUnitDeclaration[] resolveSources(
+			List<SpoonFile> filesToBuild) throws Exception {
 		initInputClassLoader();
 		// long t=System.currentTimeMillis();
 		// Build input
 		JDTBatchCompiler batchCompiler = createBatchCompiler();
+		ModelFidelity fidelity = getEnvironment().getModelFidelity();
 		List<String> args = new ArrayList<String>();
 		args.add("-1." + javaCompliance);
 		if (encoding != null) {
@@ -177,7 +259,9 @@ public class JDTBasedSpoonCompiler implements SpoonCompiler {
 			args.add(encoding);
 		}
 		args.add("-preserveAllLocals");
-		args.add("-enableJavadoc");
+		if (fidelity == ModelFidelity.CHECKED) {
+			args.add("-enableJavadoc");
+		}
 		args.add("-noExit");
 		// args.add("-d");
 		// args.add("none");
@@ -219,27 +303,166 @@ public class JDTBasedSpoonCompiler implements SpoonCompiler {
 			System.err.println("sources: " + sources.getAllFiles());
 			throw e;
 		}
-		List<SpoonFile> filesToBuild = sources.getAllJavaFiles();
-		if (buildOnlyOutdatedFiles) {
-			if (outputDirectory.exists()) {
-				@SuppressWarnings("unchecked")
-				Collection<File> outputFiles = FileUtils.listFiles(
-						outputDirectory, new String[] { "java" }, true);
-				keepOutdatedFiles(filesToBuild, outputFiles);
-			} else {
-				keepOutdatedFiles(filesToBuild, new ArrayList<File>());
+		// the streaming mode releases the units of each window
+		batchCompiler.lazyMethodBodies = getEnvironment().isLazyMethodBodies()
+				&& !streamed && fidelity != ModelFidelity.DECLARATIONS;
+		batchCompiler.fidelity = fidelity;
+		sourceCompiler = batchCompiler;
+		return batchCompiler.getUnits(filesToBuild);
+	}
+
+	/**
+	 * The batch compiler that resolved the input sources, until the model is
+	 * built.
+	 */
+	private JDTBatchCompiler sourceCompiler;
+
+	/**
+	 * Tears down the JDT state used to resolve the input sources, once their
+	 * model is built.
+	 */
+	protected void releaseSources() {
+		if (sourceCompiler != null) {
+			sourceCompiler.releaseUnits();
+			sourceCompiler = null;
+		}
+	}
+
+	/**
+	 * Builds the Spoon model of the given JDT compilation units into the
+	 * factory. The units are converted concurrently when the environment
+	 * defines more than one build thread. Each unit is released (and removed
+	 * from the given array) as soon as it has been converted.
+	 */
+	protected void buildModel(CompilationUnitDeclaration[] units)
+			throws Exception {
+		buildModel(units, null);
+	}
+
+	/**
+	 * Builds the model of the given units, deferring the method bodies that
+	 * have not been parsed to the given lazy bodies (if not null). In that
+	 * case, the units are not released.
+	 */
+	private void buildModel(CompilationUnitDeclaration[] units,
+			LazyMethodBodies lazyBodies) throws Exception {
+		int threadCount = getEnvironment().getBuildThreadCount();
+		if (threadCount <= 1 || units.length <= 1) {
+			JDTTreeBuilder builder = new JDTTreeBuilder(factory);
+			builder.lazyBodies = lazyBodies;
+			for (int i = 0; i < units.length; i++) {
+				units[i].traverse(builder, units[i].scope);
+				if (lazyBodies == null) {
+					releaseUnit(units[i]);
+				}
+				units[i] = null;
 			}
+		} else {
+			buildModel(units, threadCount, lazyBodies);
 		}
-		CompilationUnitDeclaration[] units = batchCompiler
-				.getUnits(filesToBuild);
+	}
 
-		// here we build the model
-		JDTTreeBuilder builder = new JDTTreeBuilder(factory);
+	private void buildModel(final CompilationUnitDeclaration[] units,
+			int threadCount, final LazyMethodBodies lazyBodies)
+			throws Exception {
+		// the shared parts of the factory are created upfront so that the
+		// builders only read them
+		factory.Core();
+		factory.Type();
+		JDTTreeBuilder preparer = new JDTTreeBuilder(factory);
 		for (CompilationUnitDeclaration unit : units) {
-			unit.traverse(builder, unit.scope);
+			preparer.prepare(unit);
 		}
 
-		return probs.size() == 0;
+		final Object lookupLock = new Object();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(
+				threadCount, units.length));
+		try {
+			List<Future<JDTTreeBuilder>> builders = new ArrayList<>();
+			for (final CompilationUnitDeclaration unit : units) {
+				builders.add(executor.submit(new Callable<JDTTreeBuilder>() {
+					@Override
+					public JDTTreeBuilder call() {
+						if (isPackageInfo(unit)) {
+							// it modifies its package: built by the merge
+							return null;
+						}
+						JDTTreeBuilder builder = new JDTTreeBuilder(factory);
+						builder.deferTypeRegistration = true;
+						builder.lookupLock = lookupLock;
+						builder.lazyBodies = lazyBodies;
+						unit.traverse(builder, unit.scope);
+						if (lazyBodies == null) {
+							synchronized (lookupLock) {
+								releaseUnit(unit);
+							}
+						}
+						return builder;
+					}
+				}));
+			}
+			// the packages are only modified once all the builders are done,
+			// in the order of the units, so that the model does not depend on
+			// the scheduling of the builders
+			List<JDTTreeBuilder> built = new ArrayList<>();
+			for (Future<JDTTreeBuilder> builder : builders) {
+				try {
+					built.add(builder.get());
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof Exception) {
+						throw (Exception) e.getCause();
+					}
+					if (e.getCause() instanceof Error) {
+						throw (Error) e.getCause();
+					}
+					throw e;
+				}
+			}
+			for (int i = 0; i < units.length; i++) {
+				JDTTreeBuilder builder = built.get(i);
+				if (builder == null) {
+					builder = new JDTTreeBuilder(factory);
+					builder.lazyBodies = lazyBodies;
+					units[i].traverse(builder, units[i].scope);
+					if (lazyBodies == null) {
+						releaseUnit(units[i]);
+					}
+				} else {
+					builder.registerCreatedTypes();
+				}
+				units[i] = null;
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Releases a unit once its model is built. The lookup environment keeps
+	 * the units until the end of the build, so that the syntax tree of the
+	 * unit is dropped, in addition to the scopes of its bindings.
+	 */
+	private static void releaseUnit(CompilationUnitDeclaration unit) {
+		unit.cleanUp();
+		unit.currentPackage = null;
+		unit.imports = null;
+		unit.types = null;
+		unit.comments = null;
+		unit.javadoc = null;
+		unit.localTypes = null;
+		unit.localTypeCount = 0;
+	}
+
+	private static boolean isPackageInfo(CompilationUnitDeclaration unit) {
+		if (unit.types != null) {
+			for (TypeDeclaration type : unit.types) {
+				if (CharOperation.equals(type.name,
+						TypeConstants.PACKAGE_INFO_NAME)) {
+					return true;
+				}
+			}
+		}
+		return false;
 	}
 
 	private Collection<? extends String> toStringList(
@@ -357,10 +580,8 @@ public class JDTBasedSpoonCompiler implements SpoonCompiler {
 		}
 
 		// here we build the model in the template factory
-		JDTTreeBuilder builder = new JDTTreeBuilder(factory);
-		for (CompilationUnitDeclaration unit : units) {
-			unit.traverse(builder, unit.scope);
-		}
+		buildModel(units);
+		batchCompiler.releaseUnits();
 
 		return probs.size() == 0;
 
@@ -407,7 +628,8 @@ public class JDTBasedSpoonCompiler implements SpoonCompiler {
 	// return units;
 	// }
 
-	final List<CategorizedProblem[]> probs = new ArrayList<CategorizedProblem[]>();
+	// problems may be reported concurrently by the compiler threads
+	final List<CategorizedProblem[]> probs = new CopyOnWriteArrayList<CategorizedProblem[]>();
 
 	public final TreeBuilderRequestor requestor = new TreeBuilderRequestor(this);
 
@@ -415,6 +637,14 @@ public class JDTBasedSpoonCompiler implements SpoonCompiler {
 		return this.probs;
 	}
 
+	/**
+	 * Records the problems of a compilation result. This method can safely
+	 * be called from several threads.
+	 */
+	void addProblems(CategorizedProblem[] problems) {
+		probs.add(problems);
+	}
+
 	private boolean build = false;
 
 	SpoonFolder sources = new VirtualFolder();
@@ -606,47 +836,46 @@ public class JDTBasedSpoonCompiler implements SpoonCompiler {
 
 		if (buildOnlyOutdatedFiles) {
 
-			// ignore the files that are not outdated
+			// ignore the files that are not outdated (the ones that were not
+			// rebuilt)
 			if (outputDirectory.exists()) {
-				@SuppressWarnings("unchecked")
-				Collection<File> outputFiles = FileUtils.listFiles(
-						outputDirectory, new String[] { "java" }, true);
-				int offset = outputDirectory.getAbsolutePath().length() + 1;
-				Collection<String> relativeOutputPaths = new ArrayList<>();
-				for (File f : outputFiles) {
-					relativeOutputPaths.add(f.getAbsolutePath().substring(
-							offset));
-				}
-				for (SpoonFile sf : sources.getAllJavaFiles()) {
-					if (factory.CompilationUnit().getMap()
-							.containsKey(sf.getPath())) {
-						continue;
+				try {
+					Set<String> builtPaths = new HashSet<>();
+					for (spoon.reflect.cu.CompilationUnit cu : factory
+							.CompilationUnit().getMap().values()) {
+						builtPaths.add(cu.getFile().getCanonicalPath());
 					}
-					File source = sf.toFile();
-					for (String out : relativeOutputPaths) {
-						if (source.getAbsolutePath().endsWith(out)) {
-							if (source.lastModified() <= new File(
-									outputDirectory, out).lastModified()) {
-								batchCompiler
-										.ignoreFile(new File(outputDirectory,
-												out).getAbsolutePath());
-							}
+					for (SpoonFile sf : sources.getAllJavaFiles()) {
+						if (builtPaths.contains(sf.getPath())) {
+							continue;
+						}
+						for (String type : getManifest().getDeclaredTypes(sf)) {
+							batchCompiler.ignoreFile(new File(outputDirectory,
+									type.replace('.', File.separatorChar)
+											+ ".java").getAbsolutePath());
 						}
 					}
+				} catch (IOException e) {
+					throw new SpoonException(e);
 				}
 			}
 
 			args.add(getOutputDirectory().getAbsolutePath());
 
+		} else if (streamed) {
+			// the model of the sources is no longer available: the generated
+			// sources are compiled
+			args.add(getOutputDirectory().getAbsolutePath());
 		} else {
 			args.addAll(toStringList(sources.getAllJavaFiles()));
 		}
 
 		getFactory().getEnvironment().debugMessage("compile args: " + args);
 
-		// batchCompiler.batchCompiler.useSingleThread = true;
-
-		System.setProperty("jdt.compiler.useSingleThread", "true");
+		// JDT reads, processes and writes the units in separate threads
+		// unless told otherwise
+		System.setProperty("jdt.compiler.useSingleThread",
+				Boolean.toString(getEnvironment().getBuildThreadCount() <= 1));
 
 		batchCompiler.compile(args.toArray(new String[0]));
 
@@ -667,6 +896,14 @@ public class JDTBasedSpoonCompiler implements SpoonCompiler {
 	@Override
 	public void generateProcessedSourceFiles(OutputType outputType)
 			throws Exception {
+		generateSourceFiles(outputType);
+		saveManifest(outputType);
+	}
+
+	/**
+	 * Generates the source files of the model, without saving the manifest.
+	 */
+	private void generateSourceFiles(OutputType outputType) throws Exception {
 		initInputClassLoader();
 		switch (outputType) {
 		case CLASSES:
@@ -682,6 +919,15 @@ public class JDTBasedSpoonCompiler implements SpoonCompiler {
 		}
 	}
 
+	private void saveManifest(OutputType outputType) throws IOException {
+		if (buildOnlyOutdatedFiles && manifest != null
+				&& outputType != OutputType.NO_OUTPUT) {
+			// the manifest is saved once the sources are generated, so that
+			// an interrupted generation does not hide outdated files
+			manifest.save(outputDirectory);
+		}
+	}
+
 	protected void generateProcessedSourceFilesUsingTypes() throws Exception {
 		if (factory.getEnvironment().getDefaultFileGenerator() != null) {
 			factory.getEnvironment().debugMessage(
@@ -992,6 +1238,112 @@ public class JDTBasedSpoonCompiler implements SpoonCompiler {
 		processing.process();
 	}
 
+	/**
+	 * Tells if the input sources were processed in streaming mode, in which
+	 * case their model is no longer available in the factory.
+	 */
+	boolean streamed = false;
+
+	@Override
+	public boolean buildAndProcessByWindows(List<String> processorTypes,
+			OutputType outputType) throws Exception {
+		if (factory == null) {
+			throw new Exception("Factory not initialized");
+		}
+		if (build) {
+			throw new Exception("Model already built");
+		}
+		build = true;
+		streamed = true;
+		initInputClassLoader();
+		javaCompliance = factory.getEnvironment().getComplianceLevel();
+
+		// the templates are shared by all the windows
+		boolean templateSuccess = buildTemplates();
+
+		List<Processor<?>> processors = new ArrayList<>();
+		for (String processorName : processorTypes) {
+			Processor<?> p = (Processor<?>) Thread.currentThread()
+					.getContextClassLoader().loadClass(processorName)
+					.newInstance();
+			if (!(p instanceof CompilationUnitLocal)) {
+				throw new SpoonException("processor " + processorName
+						+ " is not local to compilation units,"
+						+ " it cannot be applied in streaming mode");
+			}
+			p.setFactory(factory);
+			p.initProperties(AbstractProcessor.loadProperties(p));
+			p.init();
+			p.process();
+			processors.add(p);
+		}
+
+		if (sources.getAllJavaFiles().isEmpty()) {
+			return templateSuccess;
+		}
+		List<SpoonFile> filesToBuild = getFilesToBuild();
+		// the whole program is resolved once
+		CompilationUnitDeclaration[] units = resolveSources(filesToBuild);
+		reportProblems(factory.getEnvironment());
+
+		int windowSize = Math.max(1, getEnvironment().getStreamingWindowSize());
+		Map<String, SpoonFile> builtFiles = indexByPath(filesToBuild);
+		ProcessingVisitor visitor = new ProcessingVisitor(factory);
+		for (int start = 0; start < units.length; start += windowSize) {
+			CompilationUnitDeclaration[] window = Arrays.copyOfRange(units,
+					start, Math.min(units.length, start + windowSize));
+			// the units of the window are released once converted
+			buildModel(window);
+			for (int i = start; i < start + window.length; i++) {
+				units[i] = null;
+			}
+			if (buildOnlyOutdatedFiles) {
+				updateManifest(builtFiles);
+			}
+
+			List<CtSimpleType<?>> types = new ArrayList<>();
+			for (spoon.reflect.cu.CompilationUnit cu : factory
+					.CompilationUnit().getMap().values()) {
+				types.addAll(cu.getDeclaredTypes());
+			}
+			for (Processor<?> p : processors) {
+				visitor.setProcessor(p);
+				for (CtSimpleType<?> type : types) {
+					visitor.scan(type);
+				}
+			}
+
+			generateSourceFiles(outputType);
+			releaseCompilationUnits();
+		}
+
+		releaseSources();
+		// the manifest is written once all the windows are generated
+		saveManifest(outputType);
+
+		for (Processor<?> p : processors) {
+			p.processingDone();
+		}
+		return probs.size() == 0 && templateSuccess;
+	}
+
+	/**
+	 * Removes the compilation units of the current streaming window and
+	 * their types from the factory.
+	 */
+	protected void releaseCompilationUnits() {
+		for (spoon.reflect.cu.CompilationUnit cu : factory.CompilationUnit()
+				.getMap().values()) {
+			for (CtSimpleType<?> type : cu.getDeclaredTypes()) {
+				if (type.getPackage() != null) {
+					type.getPackage().removeType(type);
+				}
+			}
+		}
+		factory.CompilationUnit().getMap().clear();
+		loadedContent.clear();
+	}
+
 	protected Environment getEnvironment() {
 		return getFactory().getEnvironment();
 	}
@@ -7,14 +7,18 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.io.IOUtils;
+import org.eclipse.jdt.core.compiler.CategorizedProblem;
 import org.eclipse.jdt.internal.compiler.CompilationResult;
 import org.eclipse.jdt.internal.compiler.ICompilerRequestor;
 import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.MethodDeclaration;
 import org.eclipse.jdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem;
 import org.eclipse.jdt.internal.compiler.env.INameEnvironment;
 import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
 
 import spoon.Launcher;
+import spoon.compiler.ModelFidelity;
 import spoon.compiler.SpoonFile;
 
 // we use a fully qualified name to make it clear we are extending jdt
@@ -39,7 +43,8 @@ class JDTBatchCompiler extends org.eclipse.jdt.internal.compiler.batch.Main {
 		return new ICompilerRequestor() {
 			public void acceptResult(CompilationResult compilationResult) {
 				if (compilationResult.hasErrors()) {
-					JDTBatchCompiler.this.jdtCompiler.probs.add(compilationResult.problems);
+					JDTBatchCompiler.this.jdtCompiler
+							.addProblems(compilationResult.problems);
 				}
 				r.acceptResult(compilationResult);
 			}
@@ -102,6 +107,20 @@ class JDTBatchCompiler extends org.eclipse.jdt.internal.compiler.batch.Main {
 		return culist.toArray(new CompilationUnit[0]);
 	}
 
+	/**
+	 * Gets the name environment of the compilations, which shares the jar
+	 * files of the class path with the other compilers (or the environment
+	 * given to the Spoon compiler, if any).
+	 */
+	@Override
+	public FileSystem getLibraryAccess() {
+		if (this.jdtCompiler.environment instanceof FileSystem) {
+			return (FileSystem) this.jdtCompiler.environment;
+		}
+		return new SharedNameEnvironment(this.checkedClasspaths,
+				this.filenames);
+	}
+
 	public CompilationUnitDeclaration[] getUnits(List<SpoonFile> files)
 			throws Exception {
 		startTime = System.currentTimeMillis();
@@ -111,13 +130,77 @@ class JDTBatchCompiler extends org.eclipse.jdt.internal.compiler.batch.Main {
 		}
 		CompilerOptions compilerOptions = new CompilerOptions(this.options);
 		compilerOptions.parseLiteralExpressionsAsConstants = false;
-		TreeBuilderCompiler treeBuilderCompiler = new TreeBuilderCompiler(
+		treeBuilderCompiler = new TreeBuilderCompiler(
 				environment, getHandlingPolicy(), compilerOptions,
 				this.jdtCompiler.requestor, getProblemFactory(), this.out,
 				null);
+		treeBuilderCompiler.parseThreadCount = this.jdtCompiler
+				.getEnvironment().getBuildThreadCount();
+		treeBuilderCompiler.lazyMethodBodies = lazyMethodBodies;
+		treeBuilderCompiler.fidelity = fidelity;
 		CompilationUnitDeclaration[] units = treeBuilderCompiler
 				.buildUnits(getCompilationUnits(files));
+		if (this.jdtCompiler.environment == null) {
+			libraryAccess = environment;
+		}
 		return units;
 	}
 
+	/**
+	 * Tells if the method bodies of the units are parsed on demand, with
+	 * {@link #resolveMethodBody(MethodDeclaration, CompilationUnitDeclaration)}
+	 * (the units must not be released while the model is used).
+	 */
+	boolean lazyMethodBodies = false;
+
+	/**
+	 * The fidelity of the model built from the units.
+	 */
+	ModelFidelity fidelity = ModelFidelity.CHECKED;
+
+	/**
+	 * Parses and resolves the body of a method of the units returned by
+	 * {@link #getUnits(List)} in lazy method bodies mode. The problems found
+	 * in the body are recorded and reported as the ones found by the build.
+	 */
+	void resolveMethodBody(MethodDeclaration method,
+			CompilationUnitDeclaration unit) {
+		CategorizedProblem[] problems = treeBuilderCompiler.resolveMethodBody(
+				method, unit);
+		if (problems.length > 0) {
+			jdtCompiler.addProblems(problems);
+			for (CategorizedProblem problem : problems) {
+				jdtCompiler.report(jdtCompiler.getFactory().getEnvironment(),
+						problem);
+			}
+		}
+	}
+
+	/**
+	 * The compiler that built the units returned by {@link #getUnits(List)}.
+	 */
+	private TreeBuilderCompiler treeBuilderCompiler;
+
+	/**
+	 * The name environment created for the units, if any.
+	 */
+	private INameEnvironment libraryAccess;
+
+	/**
+	 * Tears down the compiler state (lookup environment, bindings, opened
+	 * archives) behind the units returned by {@link #getUnits(List)}, once
+	 * they have been converted to the Spoon model.
+	 */
+	public void releaseUnits() {
+		if (treeBuilderCompiler != null) {
+			treeBuilderCompiler.reset();
+			treeBuilderCompiler = null;
+		}
+		if (libraryAccess != null) {
+			// a name environment given by the Spoon compiler is owned by it
+			libraryAccess.cleanup();
+			libraryAccess = null;
+		}
+	}
+
 }
\ No newline at end of file
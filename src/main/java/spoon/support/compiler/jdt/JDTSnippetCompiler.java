@@ -110,10 +110,8 @@ public class JDTSnippetCompiler extends JDTBasedSpoonCompiler {
 		}
 		
 		// here we build the model
-		JDTTreeBuilder builder = new JDTTreeBuilder(factory);
-		for (CompilationUnitDeclaration unit : units) {
-			unit.traverse(builder, unit.scope);
-		}
+		buildModel(units);
+		batchCompiler.releaseUnits();
 
 		return probs.size() == 0;
 	}
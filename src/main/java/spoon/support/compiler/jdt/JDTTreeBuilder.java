@@ -18,11 +18,12 @@
 package spoon.support.compiler.jdt;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
-import java.util.TreeMap;
 import java.util.TreeSet;
 
 import org.apache.log4j.Logger;
@@ -179,6 +180,7 @@ import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtConstructor;
 import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtEnum;
+import spoon.reflect.declaration.CtExecutable;
 import spoon.reflect.declaration.CtField;
 import spoon.reflect.declaration.CtInterface;
 import spoon.reflect.declaration.CtMethod;
@@ -195,11 +197,12 @@ import spoon.reflect.reference.CtFieldReference;
 import spoon.reflect.reference.CtLocalVariableReference;
 import spoon.reflect.reference.CtPackageReference;
 import spoon.reflect.reference.CtParameterReference;
+import spoon.reflect.reference.CtReference;
 import spoon.reflect.reference.CtTypeParameterReference;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.reference.CtVariableReference;
-import spoon.reflect.visitor.Query;
-import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.reflect.declaration.CtExecutableImpl;
+import spoon.support.reflect.reference.CtReferenceImpl;
 
 /**
  * A visitor for iterating through the parse tree.
@@ -245,6 +248,13 @@ public class JDTTreeBuilder extends ASTVisitor {
 
 		Stack<String> label = new Stack<String>();
 
+		/**
+		 * The local variables (and catch parameters) declared in the current
+		 * top-level type, indexed by their binding, so that the accesses are
+		 * resolved without searching the enclosing elements.
+		 */
+		Map<LocalVariableBinding, CtLocalVariable<?>> localVariables = new HashMap<LocalVariableBinding, CtLocalVariable<?>>();
+
 		boolean selector = false;
 
 		/**
@@ -258,6 +268,13 @@ public class JDTTreeBuilder extends ASTVisitor {
 			createdTypes.add(type);
 		}
 
+		void addLocalVariable(LocalVariableBinding binding,
+				CtLocalVariable<?> variable) {
+			if (binding != null) {
+				localVariables.put(binding, variable);
+			}
+		}
+
 		private SourcePosition createSourcePosition(ASTNode node) {
 			CoreFactory cf = factory.Core();
 			int sourceStart = node.sourceStart;
@@ -346,12 +363,23 @@ public class JDTTreeBuilder extends ASTVisitor {
 
 	public class ReferenceBuilder {
 
-		Map<String, CtTypeReference<?>> basestypes = new TreeMap<String, CtTypeReference<?>>();
-
 		Set<String> typevars = new TreeSet<String>();
 
 		boolean bounds = false;
 
+		/**
+		 * The references built for the bindings that always yield the same
+		 * reference, when the references are shared (see
+		 * {@link spoon.compiler.Environment#isSharingReferences()}): they are
+		 * shared by all their occurrences in the model, and thus marked as
+		 * shared so that they cannot be modified.
+		 */
+		Map<TypeBinding, CtTypeReference<?>> bindingCache = new HashMap<TypeBinding, CtTypeReference<?>>();
+
+		Map<PackageBinding, CtPackageReference> packageCache = new HashMap<PackageBinding, CtPackageReference>();
+
+		Map<MethodBinding, CtExecutableReference<?>> executableCache = new HashMap<MethodBinding, CtExecutableReference<?>>();
+
 		public CtTypeReference<?> getBoundedTypeReference(TypeBinding binding) {
 			bounds = true;
 			CtTypeReference<?> ref = getTypeReference(binding);
@@ -359,6 +387,11 @@ public class JDTTreeBuilder extends ASTVisitor {
 			return ref;
 		}
 
+		/**
+		 * Gets the reference to a method or a constructor. The references to
+		 * non-generic methods are shared if the environment shares the
+		 * references.
+		 */
 		@SuppressWarnings("unchecked")
 		public <T> CtExecutableReference<T> getExecutableReference(
 				MethodBinding exec) {
@@ -366,11 +399,31 @@ public class JDTTreeBuilder extends ASTVisitor {
 				logger.error("null method binding");
 				return null;
 			}
+			// constructor references are modified by the builder
+			boolean shared = isSharing() && !exec.isConstructor()
+					&& exec.getClass() == MethodBinding.class
+					&& (exec.typeVariables == null || exec.typeVariables.length == 0);
+			if (shared) {
+				CtExecutableReference<T> ref = (CtExecutableReference<T>) executableCache
+						.get(exec);
+				if (ref == null) {
+					ref = createExecutableReference(exec);
+					share(ref);
+					executableCache.put(exec, ref);
+				}
+				return ref;
+			}
+			return createExecutableReference(exec);
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> CtExecutableReference<T> createExecutableReference(
+				MethodBinding exec) {
 			CtExecutableReference<T> ref = factory.Core()
 					.createExecutableReference();
 			ref.setDeclaringType(getTypeReference(exec.declaringClass));
 			ref.setType((CtTypeReference<T>) getTypeReference(exec.returnType));
-			ref.setSimpleName(new String(exec.selector));
+			ref.setSimpleName(intern(exec.selector));
 			ref.setStatic(exec.isStatic());
 			if (exec.parameters != null) {
 				for (TypeBinding b : exec.parameters) {
@@ -386,56 +439,140 @@ public class JDTTreeBuilder extends ASTVisitor {
 		}
 
 		public CtPackageReference getPackageReference(PackageBinding reference) {
-			String name = new String(reference.shortReadableName());
-			if (name.length() == 0)
-				return null;
-			CtPackageReference ref = factory.Core().createPackageReference();
-			ref.setSimpleName(name);
+			boolean sharing = isSharing();
+			CtPackageReference ref = null;
+			if (sharing) {
+				ref = packageCache.get(reference);
+				if (ref != null || packageCache.containsKey(reference)) {
+					return ref;
+				}
+			}
+			String name = intern(reference.shortReadableName());
+			if (name.length() != 0) {
+				ref = factory.Core().createPackageReference();
+				ref.setSimpleName(name);
+			}
+			if (sharing) {
+				share(ref);
+				packageCache.put(reference, ref);
+			}
 			return ref;
 		}
 
-		// Map<TypeBinding, CtTypeReference<?>> bindingCache = new
-		// HashMap<TypeBinding, CtTypeReference<?>>();
+		/**
+		 * Gets the generic type of a parameterized type, which may be resolved
+		 * through the lookup environment.
+		 */
+		TypeBinding genericType(ParameterizedTypeBinding binding) {
+			synchronized (lookupLock) {
+				return binding.genericType();
+			}
+		}
+
+		/**
+		 * Tells if the references are shared (see
+		 * {@link spoon.compiler.Environment#isSharingReferences()}).
+		 */
+		private boolean isSharing() {
+			return factory.getEnvironment().isSharingReferences();
+		}
 
+		/**
+		 * Marks a cached reference as shared.
+		 */
+		private void share(CtReference reference) {
+			if (reference instanceof CtReferenceImpl) {
+				((CtReferenceImpl) reference).setShared();
+			}
+		}
+
+		/**
+		 * Tells if the reference built for the given binding can be shared
+		 * by all its occurrences: the primitive types and the
+		 * non-parameterized, named types.
+		 */
+		private boolean isShareable(TypeBinding binding) {
+			if (binding instanceof BinaryTypeBinding
+					|| binding instanceof BaseTypeBinding) {
+				return true;
+			}
+			return binding instanceof SourceTypeBinding
+					&& !(binding instanceof LocalTypeBinding)
+					&& !binding.isAnonymousType();
+		}
+
+		/**
+		 * Gets the reference to a type. If the environment shares the
+		 * references, the references to non-parameterized types are shared,
+		 * so that they must not be modified (see
+		 * {@link #createTypeReference(TypeBinding)}).
+		 */
 		@SuppressWarnings("unchecked")
 		public <T> CtTypeReference<T> getTypeReference(TypeBinding binding) {
 			if (binding == null)
 				return null;
+			if (isSharing() && isShareable(binding)) {
+				CtTypeReference<T> ref = (CtTypeReference<T>) bindingCache
+						.get(binding);
+				if (ref == null) {
+					ref = createTypeReference(binding);
+					share(ref);
+					bindingCache.put(binding, ref);
+				}
+				return ref;
+			}
+			return createTypeReference(binding);
+		}
+
+		/**
+		 * Creates a new reference to a type, which is not shared and can be
+		 * modified. The bindings are read under {@link JDTTreeBuilder#lookupLock}
+		 * since their enclosing, generic and other types may be resolved
+		 * through the lookup environment.
+		 */
+		public <T> CtTypeReference<T> createTypeReference(TypeBinding binding) {
+			if (binding == null)
+				return null;
+			synchronized (lookupLock) {
+				return buildTypeReference(binding);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> CtTypeReference<T> buildTypeReference(TypeBinding binding) {
 
 			CtTypeReference<?> ref = null;
 
 			if (binding instanceof RawTypeBinding) {
-				ref = getTypeReference(((ParameterizedTypeBinding) binding)
-						.genericType());
+				ref = createTypeReference(genericType((ParameterizedTypeBinding) binding));
 			} else if (binding instanceof ParameterizedTypeBinding) {
 				ref = factory.Core().createTypeReference();
 				if (binding.isAnonymousType()) {
 					ref.setSimpleName("");
 				} else {
-					ref.setSimpleName(new String(
+					ref.setSimpleName(intern(
 							((ParameterizedTypeBinding) binding).sourceName));
-					if (binding.enclosingType() != null) {
-						ref.setDeclaringType(getTypeReference(binding
-								.enclosingType()));
+					TypeBinding enclosingType = binding.enclosingType();
+					if (enclosingType != null) {
+						ref.setDeclaringType(getTypeReference(enclosingType));
 					} else {
 						ref.setPackage(getPackageReference(binding.getPackage()));
 					}
 				}
 
-				// bindingCache.put(binding, ref);
 				if (((ParameterizedTypeBinding) binding).arguments != null)
 					for (TypeBinding b : ((ParameterizedTypeBinding) binding).arguments) {
 						ref.addActualTypeArgument(getTypeReference(b));
 					}
 			} else if (binding instanceof BinaryTypeBinding) {
 				ref = factory.Core().createTypeReference();
-				if (binding.enclosingType() != null) {
-					ref.setDeclaringType(getTypeReference(binding
-							.enclosingType()));
+				TypeBinding enclosingType = binding.enclosingType();
+				if (enclosingType != null) {
+					ref.setDeclaringType(getTypeReference(enclosingType));
 				} else {
 					ref.setPackage(getPackageReference(binding.getPackage()));
 				}
-				ref.setSimpleName(new String(binding.sourceName()));
+				ref.setSimpleName(intern(binding.sourceName()));
 
 			} else if (binding instanceof TypeVariableBinding) {
 				boolean oldBounds = bounds;
@@ -444,7 +581,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 					ref.setSimpleName("?");
 					bounds = true;
 				} else {
-					ref.setSimpleName(new String(binding.sourceName()));
+					ref.setSimpleName(intern(binding.sourceName()));
 				}
 				TypeVariableBinding b = (TypeVariableBinding) binding;
 				if (bounds) {
@@ -463,7 +600,6 @@ public class JDTTreeBuilder extends ASTVisitor {
 				if (bounds && b.superInterfaces != null
 						&& b.superInterfaces != Binding.NO_SUPERINTERFACES) {
 					bounds = false;
-					// bindingCache.put(binding, ref);
 					for (int i = 0, length = b.superInterfaces.length; i < length; i++) {
 						TypeBinding tb = b.superInterfaces[i];
 						((CtTypeParameterReference) ref)
@@ -474,13 +610,8 @@ public class JDTTreeBuilder extends ASTVisitor {
 					bounds = false;
 
 			} else if (binding instanceof BaseTypeBinding) {
-				String name = new String(binding.sourceName());
-				ref = basestypes.get(name);
-				if (ref == null) {
-					ref = factory.Core().createTypeReference();
-					ref.setSimpleName(name);
-					basestypes.put(name, ref);
-				}
+				ref = factory.Core().createTypeReference();
+				ref.setSimpleName(intern(binding.sourceName()));
 			} else if (binding instanceof WildcardBinding) {
 				CtTypeParameterReference reference = factory.Core()
 						.createTypeParameterReference();
@@ -497,7 +628,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 				if (binding.isAnonymousType())
 					ref.setSimpleName("");
 				else {
-					ref.setSimpleName(new String(binding.sourceName()));
+					ref.setSimpleName(intern(binding.sourceName()));
 					if (((LocalTypeBinding) binding).enclosingMethod == null
 							&& binding.enclosingType() != null
 							&& binding.enclosingType() instanceof LocalTypeBinding)
@@ -509,7 +640,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 				if (binding.isAnonymousType()) {
 					ref.setSimpleName("");
 				} else {
-					ref.setSimpleName(new String(binding.sourceName()));
+					ref.setSimpleName(intern(binding.sourceName()));
 					if (binding.enclosingType() != null)
 						ref.setDeclaringType(getTypeReference(binding
 								.enclosingType()));
@@ -538,12 +669,11 @@ public class JDTTreeBuilder extends ASTVisitor {
 			} else if (binding instanceof ProblemReferenceBinding) {
 				// Spoon is able to analyze also without the classpath
 				ref = factory.Core().createTypeReference();
-				ref.setSimpleName(new String(binding.readableName()));
+				ref.setSimpleName(intern(binding.readableName()));
 			} else {
 				throw new RuntimeException("Unknown TypeBinding: "
 						+ binding.getClass() + " " + binding);
 			}
-			// bindingCache.remove(binding);
 			return (CtTypeReference<T>) ref;
 		}
 
@@ -551,7 +681,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 		public <T> CtVariableReference<T> getVariableReference(
 				MethodBinding methbin) {
 			CtFieldReference<T> ref = factory.Core().createFieldReference();
-			ref.setSimpleName(new String(methbin.selector));
+			ref.setSimpleName(intern(methbin.selector));
 			ref.setType((CtTypeReference<T>) getTypeReference(methbin.returnType));
 
 			if (methbin.declaringClass != null)
@@ -568,7 +698,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 
 			if (varbin instanceof FieldBinding) {
 				CtFieldReference<T> ref = factory.Core().createFieldReference();
-				ref.setSimpleName(new String(varbin.name));
+				ref.setSimpleName(intern(varbin.name));
 				ref.setType((CtTypeReference<T>) getTypeReference(varbin.type));
 
 				if (((FieldBinding) varbin).declaringClass != null)
@@ -584,7 +714,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 						&& ((LocalVariableBinding) varbin).declaringScope instanceof MethodScope) {
 					CtParameterReference<T> ref = factory.Core()
 							.createParameterReference();
-					ref.setSimpleName(new String(varbin.name));
+					ref.setSimpleName(intern(varbin.name));
 					ref.setType((CtTypeReference<T>) getTypeReference(varbin.type));
 					ref.setDeclaringExecutable(getExecutableReference(((AbstractMethodDeclaration) ((MethodScope) ((LocalVariableBinding) varbin).declaringScope)
 							.referenceContext()).binding));
@@ -592,11 +722,10 @@ public class JDTTreeBuilder extends ASTVisitor {
 				} else {
 					CtLocalVariableReference<T> ref = factory.Core()
 							.createLocalVariableReference();
-					ref.setSimpleName(new String(varbin.name));
+					ref.setSimpleName(intern(varbin.name));
 					CtTypeReference<T> ref2 = getTypeReference(varbin.type);
 					ref.setType(ref2);
-					ref.setDeclaration((CtLocalVariable<T>) getLocalVariableDeclaration(ref
-							.getSimpleName()));
+					ref.setDeclaration((CtLocalVariable<T>) getLocalVariableDeclaration((LocalVariableBinding) varbin));
 					return ref;
 				}
 			} else {
@@ -644,7 +773,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 	}
 
 	public static Set<ModifierKind> getModifiers(int mod) {
-		Set<ModifierKind> ret = new TreeSet<ModifierKind>();
+		Set<ModifierKind> ret = EnumSet.noneOf(ModifierKind.class);
 		if ((mod & ClassFileConstants.AccPublic) != 0)
 			ret.add(ModifierKind.PUBLIC);
 		if ((mod & ClassFileConstants.AccPrivate) != 0)
@@ -704,15 +833,105 @@ public class JDTTreeBuilder extends ASTVisitor {
 
 	Factory factory;
 
+	/**
+	 * Gets the interned string of an identifier of the compiler.
+	 */
+	String intern(char[] identifier) {
+		return factory.Name().intern(identifier);
+	}
+
 	ReferenceBuilder references = new ReferenceBuilder();
 
 	public boolean template = false;
 
+	/**
+	 * When true, the top-level types are only recorded as created types while
+	 * the tree is built, and are added to their packages later on by
+	 * {@link #registerCreatedTypes()}: the shared packages are not modified
+	 * (nor even entered) by the builder.
+	 */
+	boolean deferTypeRegistration = false;
+
+	/**
+	 * The packages of the created types whose registration is deferred.
+	 */
+	List<CtPackage> deferredPackages = new ArrayList<CtPackage>();
+
+	/**
+	 * Guards the JDT bindings that are lazily resolved through the lookup
+	 * environment, which is not thread-safe. The builder reads the bindings
+	 * beyond their resolved fields only to create the type references (see
+	 * {@link ReferenceBuilder#createTypeReference(TypeBinding)}), which hold
+	 * it.
+	 */
+	Object lookupLock = this;
+
+	/**
+	 * When not null, the bodies of the methods that have not been parsed are
+	 * not built, and are loaded by the given object on their first access.
+	 */
+	LazyMethodBodies lazyBodies;
+
 	public JDTTreeBuilder(Factory factory) {
 		super();
 		this.factory = factory;
 	}
 
+	/**
+	 * Creates the compilation unit and the packages of the given JDT unit, so
+	 * that builders that run concurrently on other units only read them.
+	 */
+	void prepare(CompilationUnitDeclaration unit) {
+		factory.CompilationUnit().create(new String(unit.getFileName()));
+		if (unit.types != null) {
+			for (TypeDeclaration typeDeclaration : unit.types) {
+				getOrCreatePackage(typeDeclaration);
+			}
+		}
+	}
+
+	/**
+	 * Adds the top-level types created by this builder to their packages and
+	 * compilation units when their registration has been deferred.
+	 */
+	void registerCreatedTypes() {
+		List<CtSimpleType<?>> types = context.getCreatedTypes();
+		for (int i = 0; i < types.size(); i++) {
+			exiter.registerType(deferredPackages.get(i), types.get(i));
+		}
+	}
+
+	/**
+	 * Builds the body of the given executable from its method declaration,
+	 * once the statements of the declaration have been parsed and resolved.
+	 */
+	void buildBody(CtExecutable<?> executable,
+			MethodDeclaration methodDeclaration, CompilationUnitDeclaration unit) {
+		context.compilationunitdeclaration = unit;
+		context.stack.push(new ASTPair(executable, methodDeclaration));
+		try {
+			CtBlock<?> b = factory.Core().createBlock();
+			context.enter(b, methodDeclaration);
+			if (methodDeclaration.statements != null) {
+				for (Statement s : methodDeclaration.statements)
+					s.traverse(this, methodDeclaration.scope);
+			}
+			context.exit(methodDeclaration);
+		} finally {
+			context.stack.clear();
+			context.compilationunitdeclaration = null;
+			context.localVariables.clear();
+		}
+	}
+
+	private CtPackage getOrCreatePackage(TypeDeclaration typeDeclaration) {
+		char[] name = typeDeclaration.binding.fPackage.shortReadableName();
+		if (name != null && name.length > 0) {
+			return factory.Package().getOrCreate(intern(name));
+		}
+		return factory.Package().getOrCreate(CtPackage.TOP_LEVEL_PACKAGE_NAME);
+	}
+
 	private void createExpression(StringLiteralConcatenation literal,
 			BlockScope scope, List<Expression> rst) {
 		if (rst.isEmpty())
@@ -781,7 +1000,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 				}
 			type = cl;
 		}
-		type.setSimpleName(new String(typeDeclaration.name));
+		type.setSimpleName(intern(typeDeclaration.name));
 		// Setting modifiers
 		type.setModifiers(getModifiers(typeDeclaration.modifiers));
 		// type.setDocComment(getJavaDoc(typeDeclaration.javadoc));
@@ -1209,6 +1428,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 			context.exit(typeDeclaration);
 		}
 		context.compilationunitdeclaration = null;
+		context.localVariables.clear();
 	}
 
 	@Override
@@ -1293,34 +1513,17 @@ public class JDTTreeBuilder extends ASTVisitor {
 		return null;
 	}
 
+	@SuppressWarnings("unchecked")
 	protected <T> CtLocalVariable<T> getLocalVariableDeclaration(
-			final String name) {
-		List<CtElement> reversedElements = new ArrayList<CtElement>();
-		for (ASTPair element : context.stack) {
-			reversedElements.add(0, element.element);
-		}
-
-		for (CtElement element : reversedElements) {
-			// TODO check if the variable is visible from here
-
-			List<CtLocalVariable<T>> var = Query.getElements(element,
-					new TypeFilter<CtLocalVariable<T>>(CtLocalVariable.class) {
-						@Override
-						public boolean matches(CtLocalVariable<T> element) {
-							return name.equals(element.getSimpleName())
-									&& super.matches(element);
-						}
-					});
-
-			if (var.size() > 0) {
-				return var.get(0);
-			}
+			LocalVariableBinding binding) {
+		CtLocalVariable<T> variable = (CtLocalVariable<T>) context.localVariables
+				.get(binding);
+		if (variable == null) {
+			logger.error("could not find declaration for local variable "
+					+ new String(binding.name) + " at "
+					+ context.stack.peek().element.getPosition());
 		}
-		// note: this happens when using the new try(vardelc) structure
-		logger.error("could not find declaration for local variable " + name
-				+ " at " + context.stack.peek().element.getPosition());
-
-		return null;
+		return variable;
 	}
 
 	UnaryOperatorKind getUnaryOperator(int op) {
@@ -1345,8 +1548,8 @@ public class JDTTreeBuilder extends ASTVisitor {
 		if (allocationExpression.type != null) {
 			if (allocationExpression.type.resolvedType instanceof ParameterizedTypeBinding) {
 				CtTypeReference<Object> res = references
-						.getTypeReference(((ParameterizedTypeBinding) allocationExpression.type.resolvedType)
-								.genericType());
+						.createTypeReference(references
+								.genericType((ParameterizedTypeBinding) allocationExpression.type.resolvedType));
 				ParameterizedTypeBinding paramType = ((ParameterizedTypeBinding) allocationExpression.type.resolvedType);
 				if (paramType.arguments != null
 						&& paramType.isBoundParameterizedType()
@@ -1400,7 +1603,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 	public boolean visit(AnnotationMethodDeclaration annotationTypeDeclaration,
 			ClassScope classScope) {
 		CtField<Object> f = factory.Core().createField();
-		f.setSimpleName(new String(annotationTypeDeclaration.selector));
+		f.setSimpleName(intern(annotationTypeDeclaration.selector));
 		f.setType(references
 				.getTypeReference(annotationTypeDeclaration.binding.returnType));
 		context.enter(f, annotationTypeDeclaration);
@@ -1422,7 +1625,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 	@Override
 	public boolean visit(Argument argument, BlockScope scope) {
 		CtParameter<Object> p = factory.Core().createParameter();
-		p.setSimpleName(new String(argument.name));
+		p.setSimpleName(intern(argument.name));
 		p.setVarArgs(argument.isVarArgs());
 		p.setModifiers(getModifiers(argument.modifiers));
 		if (argument.type != null)
@@ -1526,7 +1729,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 	public boolean visit(BreakStatement breakStatement, BlockScope scope) {
 		CtBreak b = factory.Core().createBreak();
 		if (breakStatement.label != null)
-			b.setTargetLabel(new String(breakStatement.label));
+			b.setTargetLabel(intern(breakStatement.label));
 		context.enter(b, breakStatement);
 		return true;
 	}
@@ -1636,7 +1839,8 @@ public class JDTTreeBuilder extends ASTVisitor {
 			}
 
 		// Create block
-		if (!constructorDeclaration.isAbstract()) {
+		if (!constructorDeclaration.isAbstract()
+				&& !context.compilationunitdeclaration.ignoreMethodBodies) {
 			CtBlock<?> b = factory.Core().createBlock();
 			context.enter(b, constructorDeclaration);
 		}
@@ -1657,7 +1861,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 		CtContinue c = factory.Core().createContinue();
 		context.enter(c, continueStatement);
 		if (continueStatement.label != null) {
-			c.setTargetLabel(new String(continueStatement.label));
+			c.setTargetLabel(intern(continueStatement.label));
 		}
 		return true;
 	}
@@ -1744,7 +1948,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 	@Override
 	public boolean visit(FieldDeclaration fieldDeclaration, MethodScope scope) {
 		CtField<Object> field = factory.Core().createField();
-		field.setSimpleName(new String(fieldDeclaration.name));
+		field.setSimpleName(intern(fieldDeclaration.name));
 		if (fieldDeclaration.type != null)
 			field.setType(references
 					.getTypeReference(fieldDeclaration.type.resolvedType));
@@ -1880,17 +2084,18 @@ public class JDTTreeBuilder extends ASTVisitor {
 
 	@Override
 	public boolean visit(LabeledStatement labeledStatement, BlockScope scope) {
-		context.label.push(new String(labeledStatement.label));
+		context.label.push(intern(labeledStatement.label));
 		return true;
 	}
 
 	@Override
 	public boolean visit(LocalDeclaration localDeclaration, BlockScope scope) {
 		CtLocalVariable<Object> v = factory.Core().createLocalVariable();
-		v.setSimpleName(new String(localDeclaration.name));
+		v.setSimpleName(intern(localDeclaration.name));
 		v.setType(references
 				.getTypeReference(localDeclaration.type.resolvedType));
 		v.setModifiers(getModifiers(localDeclaration.modifiers));
+		context.addLocalVariable(localDeclaration.binding, v);
 		context.enter(v, localDeclaration);
 
 		if (localDeclaration.initialization != null) {
@@ -1935,7 +2140,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 
 	@Override
 	public boolean visit(MemberValuePair pair, BlockScope scope) {
-		context.annotationValueName.push(new String(pair.name));
+		context.annotationValueName.push(intern(pair.name));
 		return true;
 	}
 
@@ -1988,7 +2193,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 	@Override
 	public boolean visit(MethodDeclaration methodDeclaration, ClassScope scope) {
 		CtMethod<Object> m = factory.Core().createMethod();
-		m.setSimpleName(new String(methodDeclaration.selector));
+		m.setSimpleName(intern(methodDeclaration.selector));
 		m.setType(references
 				.getTypeReference(methodDeclaration.returnType.resolvedType));
 		m.setModifiers(getModifiers(methodDeclaration.modifiers));
@@ -2029,9 +2234,16 @@ public class JDTTreeBuilder extends ASTVisitor {
 
 		// Create block
 		if (!methodDeclaration.isAbstract()
-				&& (methodDeclaration.modifiers & ClassFileConstants.AccNative) == 0) {
-			CtBlock<?> b = factory.Core().createBlock();
-			context.enter(b, methodDeclaration);
+				&& (methodDeclaration.modifiers & ClassFileConstants.AccNative) == 0
+				&& !context.compilationunitdeclaration.ignoreMethodBodies) {
+			if (lazyBodies != null && methodDeclaration.statements == null) {
+				// the body is parsed and built on its first access
+				((CtExecutableImpl<?>) m).setBodyLoader(lazyBodies.getLoader(
+						methodDeclaration, context.compilationunitdeclaration));
+			} else {
+				CtBlock<?> b = factory.Core().createBlock();
+				context.enter(b, methodDeclaration);
+			}
 		}
 
 		if (methodDeclaration.statements != null) {
@@ -2300,7 +2512,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 		}
 		CtLiteral<CtTypeReference<?>> l = factory.Core().createLiteral();
 		CtTypeReference<?> withoutSuper = references
-				.getTypeReference(qualifiedSuperReference.qualification.resolvedType);
+				.createTypeReference(qualifiedSuperReference.qualification.resolvedType);
 		withoutSuper.setSuperReference(true);
 		l.setValue(withoutSuper);
 		context.enter(l, qualifiedSuperReference);
@@ -2505,8 +2717,9 @@ public class JDTTreeBuilder extends ASTVisitor {
 		CtLocalVariable<Throwable> var = factory.Core()
 				.createLocalVariable();
 		context.enter(c, jdtCatch);
+		context.addLocalVariable(jdtCatch.binding, var);
 		context.enter(var, jdtCatch);
-		var.setSimpleName(new String(
+		var.setSimpleName(intern(
 				jdtCatch.name));
 		var.setType(r);
 		for (ModifierKind modifier : getModifiers(jdtCatch.modifiers)) {
@@ -2559,10 +2772,7 @@ public class JDTTreeBuilder extends ASTVisitor {
 			CompilationUnitScope scope) {
 
 		if (new String(typeDeclaration.name).equals("package-info")) {
-			CtPackage pack = factory.Package()
-					.getOrCreate(
-							new String(typeDeclaration.binding.fPackage
-									.readableName()));
+			CtPackage pack = getOrCreatePackage(typeDeclaration);
 			pack.setDocComment(this.getJavaDoc(typeDeclaration.javadoc, scope.referenceContext));
 
 			context.compilationunitdeclaration = scope.referenceContext;
@@ -2580,17 +2790,13 @@ public class JDTTreeBuilder extends ASTVisitor {
 			type.setDocComment(getJavaDoc(typeDeclaration.javadoc,
 					scope.referenceContext));
 
-			CtPackage pack = null;
-			if (typeDeclaration.binding.fPackage.shortReadableName() != null
-					&& typeDeclaration.binding.fPackage.shortReadableName().length > 0) {
-				pack = factory.Package().getOrCreate(
-						new String(typeDeclaration.binding.fPackage
-								.shortReadableName()));
+			CtPackage pack = getOrCreatePackage(typeDeclaration);
+			if (deferTypeRegistration) {
+				context.addCreatedType(type);
+				deferredPackages.add(pack);
 			} else {
-				pack = factory.Package().getOrCreate(
-						CtPackage.TOP_LEVEL_PACKAGE_NAME);
+				context.enter(pack, typeDeclaration);
 			}
-			context.enter(pack, typeDeclaration);
 			context.compilationunitdeclaration = scope.referenceContext;
 			context.enter(type, typeDeclaration);
 
@@ -0,0 +1,90 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+package spoon.support.compiler.jdt;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.MethodDeclaration;
+
+import spoon.reflect.declaration.CtExecutable;
+import spoon.reflect.factory.Factory;
+import spoon.support.reflect.declaration.BodyLoader;
+
+/**
+ * Builds the method bodies that were skipped when the model was built in lazy
+ * method bodies mode. The JDT units are kept alive by the loaders of the
+ * bodies, and the compiler that resolved them (with its lookup environment)
+ * until every body has been resolved and built once. The bodies are built one
+ * at a time, since the JDT compiler is not thread-safe.
+ */
+class LazyMethodBodies {
+
+	private JDTBatchCompiler compiler;
+
+	private final JDTTreeBuilder builder;
+
+	/**
+	 * The methods whose body has not been resolved yet.
+	 */
+	private final Set<MethodDeclaration> unresolvedMethods = new HashSet<>();
+
+	LazyMethodBodies(JDTBatchCompiler compiler, Factory factory) {
+		this.compiler = compiler;
+		this.builder = new JDTTreeBuilder(factory);
+	}
+
+	/**
+	 * Gets a loader that builds the body of the given method declaration.
+	 */
+	synchronized BodyLoader getLoader(final MethodDeclaration method,
+			final CompilationUnitDeclaration unit) {
+		unresolvedMethods.add(method);
+		return new BodyLoader() {
+			@Override
+			public void loadBody(CtExecutable<?> executable) {
+				buildBody(executable, method, unit);
+			}
+		};
+	}
+
+	synchronized void buildBody(CtExecutable<?> executable,
+			MethodDeclaration method, CompilationUnitDeclaration unit) {
+		// a cloned executable builds the body again from the resolved method,
+		// and a method whose resolution failed is resolved again
+		if (unresolvedMethods.contains(method)) {
+			compiler.resolveMethodBody(method, unit);
+			unresolvedMethods.remove(method);
+		}
+		builder.buildBody(executable, method, unit);
+		releaseIfResolved();
+	}
+
+	/**
+	 * Releases the compiler once all the bodies have been resolved and built
+	 * once (the bindings they use are resolved by then).
+	 */
+	synchronized void releaseIfResolved() {
+		if (unresolvedMethods.isEmpty() && compiler != null) {
+			compiler.releaseUnits();
+			compiler = null;
+		}
+	}
+
+}
@@ -416,21 +416,28 @@ public class ParentExiter extends CtInheritanceScanner {
 	@Override
 	public void visitCtPackage(CtPackage ctPackage) {
 		if (child instanceof CtSimpleType) {
-			if (ctPackage.getTypes().contains(child)) {
-				ctPackage.getTypes().remove(child);
-			}
-			ctPackage.getTypes().add((CtSimpleType<?>) child);
 			this.jdtTreeBuilder.context.addCreatedType((CtSimpleType<?>) child);
-			if (child.getPosition() != null
-					&& child.getPosition().getCompilationUnit() != null) {
-				child.getPosition().getCompilationUnit().getDeclaredTypes()
-						.add((CtSimpleType<?>) child);
-			}
+			registerType(ctPackage, (CtSimpleType<?>) child);
 			return;
 		}
 		super.visitCtPackage(ctPackage);
 	}
 
+	/**
+	 * Adds a top-level type to its package and to its compilation unit.
+	 */
+	void registerType(CtPackage ctPackage, CtSimpleType<?> type) {
+		if (ctPackage.getTypes().contains(type)) {
+			ctPackage.getTypes().remove(type);
+		}
+		ctPackage.addType(type);
+		if (type.getPosition() != null
+				&& type.getPosition().getCompilationUnit() != null) {
+			type.getPosition().getCompilationUnit().getDeclaredTypes()
+					.add(type);
+		}
+	}
+
 	@Override
 	public <R> void visitCtReturn(CtReturn<R> returnStatement) {
 		if (child instanceof CtExpression) {
@@ -0,0 +1,327 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+package spoon.support.compiler.jdt;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.internal.compiler.batch.ClasspathJar;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem;
+import org.eclipse.jdt.internal.compiler.env.AccessRuleSet;
+import org.eclipse.jdt.internal.compiler.env.NameEnvironmentAnswer;
+
+/**
+ * A class path name environment whose jar files are opened and indexed (their
+ * package listings are built) once per JVM, and shared by all the compilers
+ * that use them: the ones that build the model, the templates and the
+ * snippets, and the ones that compile the generated sources. A jar file is
+ * shared only with the environments that see the same file (same path, last
+ * modification time and size) under the same access rules, and the least
+ * recently used jar files are closed once {@link #MAX_SHARED_JARS} are open.
+ * The directories of the class path are scanned again by each environment,
+ * since their content may change between two compilations. Each shared jar
+ * file has its own lock, and the lookups of an environment are synchronized
+ * on the environment, so that it can be shared by compilers that run
+ * concurrently (see {@link JDTBasedSpoonCompiler#setEnvironment(org.eclipse.jdt.internal.compiler.env.INameEnvironment)}).
+ */
+public class SharedNameEnvironment extends FileSystem {
+
+	/**
+	 * The maximum number of jar files that are kept open.
+	 */
+	public static final int MAX_SHARED_JARS = 64;
+
+	/**
+	 * The opened jar files, in their access order.
+	 */
+	private static final Map<JarKey, SharedJar> jars = new LinkedHashMap<JarKey, SharedJar>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<JarKey, SharedJar> eldest) {
+			if (size() > MAX_SHARED_JARS) {
+				eldest.getValue().close();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	/**
+	 * Creates an environment on the given class path entries.
+	 */
+	public static SharedNameEnvironment create(String[] classpath,
+			String encoding) {
+		Classpath[] entries = new Classpath[classpath.length];
+		int n = 0;
+		for (String path : classpath) {
+			Classpath entry = FileSystem.getClasspath(path, encoding, null);
+			if (entry != null) {
+				entries[n++] = entry;
+			}
+		}
+		Classpath[] result = new Classpath[n];
+		System.arraycopy(entries, 0, result, 0, n);
+		return new SharedNameEnvironment(result, null);
+	}
+
+	private static Classpath[] share(Classpath[] classpath) {
+		Classpath[] result = classpath.clone();
+		for (int i = 0; i < result.length; i++) {
+			if (result[i] instanceof ClasspathJar
+					&& !(result[i] instanceof SharedJar)) {
+				SharedJar jar = share((ClasspathJar) result[i]);
+				if (jar != null) {
+					result[i].reset();
+					result[i] = jar;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the shared jar file of a class path entry, or null if the file
+	 * cannot be read.
+	 */
+	private static SharedJar share(ClasspathJar entry) {
+		File file;
+		try {
+			file = new File(entry.getPath()).getCanonicalFile();
+		} catch (IOException e) {
+			return null;
+		}
+		if (!file.isFile()) {
+			return null;
+		}
+		JarKey key = new JarKey(file, entry.accessRuleSet);
+		SharedJar stale = null;
+		SharedJar jar;
+		synchronized (jars) {
+			jar = jars.get(key);
+			if (jar == null) {
+				// the other versions of the file are not used anymore
+				for (Iterator<Map.Entry<JarKey, SharedJar>> i = jars.entrySet()
+						.iterator(); i.hasNext();) {
+					Map.Entry<JarKey, SharedJar> other = i.next();
+					if (other.getKey().isVersionOf(key)) {
+						stale = other.getValue();
+						i.remove();
+						break;
+					}
+				}
+				jar = new SharedJar(file, entry.accessRuleSet,
+						entry.destinationPath);
+				jars.put(key, jar);
+			}
+		}
+		if (stale != null) {
+			stale.close();
+		}
+		return jar;
+	}
+
+	private final Classpath[] entries;
+
+	/**
+	 * Creates an environment on the given class path entries, whose jar files
+	 * are replaced by the shared ones. The access rules of the entries are
+	 * kept: a jar file is shared only by the entries that have the same rules.
+	 */
+	public SharedNameEnvironment(Classpath[] classpath,
+			String[] initialFileNames) {
+		this(share(classpath), initialFileNames, true);
+	}
+
+	private SharedNameEnvironment(Classpath[] entries,
+			String[] initialFileNames, boolean shared) {
+		super(entries, initialFileNames);
+		this.entries = entries;
+	}
+
+	/**
+	 * Gets the entries of the class path, the jar files being the shared ones.
+	 */
+	public Classpath[] getEntries() {
+		return entries.clone();
+	}
+
+	@Override
+	public synchronized NameEnvironmentAnswer findType(char[][] compoundName) {
+		return super.findType(compoundName);
+	}
+
+	@Override
+	public synchronized NameEnvironmentAnswer findType(char[] typeName,
+			char[][] packageName) {
+		return super.findType(typeName, packageName);
+	}
+
+	@Override
+	public synchronized boolean isPackage(char[][] compoundName,
+			char[] packageName) {
+		return super.isPackage(compoundName, packageName);
+	}
+
+	/**
+	 * Resets the directories of the class path. The jar files stay open and
+	 * indexed for the next compilations.
+	 */
+	@Override
+	public synchronized void cleanup() {
+		for (Classpath entry : entries) {
+			if (!(entry instanceof SharedJar)) {
+				entry.reset();
+			}
+		}
+	}
+
+	/**
+	 * Identifies a version of a jar file seen under some access rules.
+	 */
+	private static class JarKey {
+		private final String path;
+
+		private final long lastModified;
+
+		private final long length;
+
+		private final AccessRuleSet rules;
+
+		JarKey(File file, AccessRuleSet rules) {
+			this.path = file.getPath();
+			this.lastModified = file.lastModified();
+			this.length = file.length();
+			this.rules = rules;
+		}
+
+		/**
+		 * Tells if the given key is another version of the same file under the
+		 * same access rules.
+		 */
+		boolean isVersionOf(JarKey key) {
+			return path.equals(key.path)
+					&& (rules == null ? key.rules == null : rules
+							.equals(key.rules));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof JarKey)) {
+				return false;
+			}
+			JarKey key = (JarKey) obj;
+			return isVersionOf(key) && lastModified == key.lastModified
+					&& length == key.length;
+		}
+
+		@Override
+		public int hashCode() {
+			return path.hashCode() * 31 + (int) lastModified;
+		}
+	}
+
+	/**
+	 * A jar file shared by several environments. It is closed only when it
+	 * is evicted from the shared ones, and opened again if an environment
+	 * still uses it afterwards.
+	 */
+	public static class SharedJar extends ClasspathJar {
+		SharedJar(File file, AccessRuleSet rules, String destinationPath) {
+			super(file, true, rules, destinationPath);
+		}
+
+		private void open() {
+			if (zipFile == null) {
+				try {
+					initialize();
+				} catch (IOException e) {
+					// the lookups fail as with a missing file
+				}
+			}
+		}
+
+		/**
+		 * Tells if the file is open.
+		 */
+		public synchronized boolean isOpen() {
+			return zipFile != null;
+		}
+
+		@Override
+		public synchronized void initialize() throws IOException {
+			super.initialize();
+		}
+
+		@Override
+		public synchronized NameEnvironmentAnswer findClass(char[] typeName,
+				String qualifiedPackageName, String qualifiedBinaryFileName) {
+			return findClass(typeName, qualifiedPackageName,
+					qualifiedBinaryFileName, false);
+		}
+
+		@Override
+		public synchronized NameEnvironmentAnswer findClass(char[] typeName,
+				String qualifiedPackageName, String qualifiedBinaryFileName,
+				boolean asBinaryOnly) {
+			open();
+			if (zipFile == null) {
+				return null;
+			}
+			return super.findClass(typeName, qualifiedPackageName,
+					qualifiedBinaryFileName, asBinaryOnly);
+		}
+
+		@Override
+		public synchronized char[][][] findTypeNames(String qualifiedPackageName) {
+			open();
+			if (zipFile == null) {
+				return null;
+			}
+			return super.findTypeNames(qualifiedPackageName);
+		}
+
+		@Override
+		public synchronized boolean isPackage(String qualifiedPackageName) {
+			open();
+			if (zipFile == null) {
+				return false;
+			}
+			return super.isPackage(qualifiedPackageName);
+		}
+
+		/**
+		 * Keeps the file open for the other environments.
+		 */
+		@Override
+		public void reset() {
+		}
+
+		/**
+		 * Closes the file.
+		 */
+		synchronized void close() {
+			super.reset();
+		}
+	}
+
+}
@@ -1,19 +1,58 @@
 package spoon.support.compiler.jdt;
 
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.eclipse.jdt.core.compiler.CategorizedProblem;
 import org.eclipse.jdt.core.compiler.CompilationProgress;
+import org.eclipse.jdt.internal.compiler.CompilationResult;
 import org.eclipse.jdt.internal.compiler.ICompilerRequestor;
 import org.eclipse.jdt.internal.compiler.IErrorHandlingPolicy;
 import org.eclipse.jdt.internal.compiler.IProblemFactory;
+import org.eclipse.jdt.internal.compiler.ast.AbstractMethodDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.ConstructorDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.FieldDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.Initializer;
+import org.eclipse.jdt.internal.compiler.ast.MethodDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
 import org.eclipse.jdt.internal.compiler.batch.CompilationUnit;
 import org.eclipse.jdt.internal.compiler.env.INameEnvironment;
 import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.parser.Parser;
+import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
+
+import spoon.compiler.ModelFidelity;
 
 class TreeBuilderCompiler extends
 		org.eclipse.jdt.internal.compiler.Compiler {
 
+	/**
+	 * The number of threads used to parse the method bodies of the units
+	 * before they are resolved (1 parses each unit right before its
+	 * resolution).
+	 */
+	int parseThreadCount = 1;
+
+	/**
+	 * When true, the bodies of the methods are neither parsed nor analyzed
+	 * when the units are built: they are parsed and resolved one by one by
+	 * {@link #resolveMethodBody(MethodDeclaration, CompilationUnitDeclaration)}
+	 * (the bodies of the constructors and initializers are still parsed).
+	 */
+	boolean lazyMethodBodies = false;
+
+	/**
+	 * Selects the compiler phases that are run on the units.
+	 */
+	ModelFidelity fidelity = ModelFidelity.CHECKED;
+
 	public TreeBuilderCompiler(INameEnvironment environment,
 			IErrorHandlingPolicy policy, CompilerOptions options,
 			ICompilerRequestor requestor,
@@ -35,26 +74,44 @@ class TreeBuilderCompiler extends
 		// build and record parsed units
 		beginToCompile(sourceUnits);
 
+		boolean parseBodies = fidelity != ModelFidelity.DECLARATIONS;
+		int parsedUnits = 0;
+		if (parseThreadCount > 1 && this.totalUnits > 1 && parseBodies
+				&& !lazyMethodBodies) {
+			parseMethodBodies(parseThreadCount);
+			parsedUnits = this.totalUnits;
+		}
+
 		// process all units (some more could be injected in the loop by
 		// the lookup environment)
 		for (; i < this.totalUnits; i++) {
 			unit = unitsToProcess[i];
 			// System.err.println(unit);
-			this.parser.getMethodBodies(unit);
+			if (!parseBodies) {
+				// the tree builder only builds the declarations
+				unit.ignoreMethodBodies = true;
+			} else if (lazyMethodBodies) {
+				parseConstructorAndInitializerBodies(unit);
+			} else if (i >= parsedUnits) {
+				this.parser.getMethodBodies(unit);
+			}
 
 			// fault in fields & methods
 			if (unit.scope != null)
 				unit.scope.faultInTypes();
 
-			// verify inherited methods
+			// verify inherited methods (which also flags the overriding
+			// methods, checked by the resolution of @Override)
 			if (unit.scope != null)
 				unit.scope.verifyMethods(lookupEnvironment
 						.methodVerifier());
 
 			// type checking
 			unit.resolve();
-			// flow analysis
-			unit.analyseCode();
+			// flow analysis (it would report the unparsed method bodies as
+			// missing return statements)
+			if (fidelity == ModelFidelity.CHECKED && !lazyMethodBodies)
+				unit.analyseCode();
 
 			unit.ignoreFurtherInvestigation = false;
 			requestor.acceptResult(unit.compilationResult);
@@ -62,4 +119,118 @@ class TreeBuilderCompiler extends
 
 		return this.unitsToProcess;
 	}
+
+	/**
+	 * Parses the method bodies of all the units to process concurrently. The
+	 * parser is not thread-safe, so that each thread uses its own parser and
+	 * problem reporter (problems are recorded in the compilation result of
+	 * the parsed unit anyway).
+	 */
+	private void parseMethodBodies(int threadCount) {
+		final int unitCount = this.totalUnits;
+		final AtomicInteger nextUnit = new AtomicInteger();
+		int threads = Math.min(threadCount, unitCount);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				tasks.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						Parser parser = new Parser(new ProblemReporter(
+								problemReporter.policy, options,
+								problemReporter.problemFactory),
+								options.parseLiteralExpressionsAsConstants);
+						int i;
+						while ((i = nextUnit.getAndIncrement()) < unitCount) {
+							parser.getMethodBodies(unitsToProcess[i]);
+						}
+					}
+				}));
+			}
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void setParserSource(CompilationUnitDeclaration unit) {
+		char[] contents = unit.compilationResult.compilationUnit.getContents();
+		this.parser.scanner.setSource(contents, unit.compilationResult);
+		if (this.parser.javadocParser != null
+				&& this.parser.javadocParser.checkDocComment) {
+			this.parser.javadocParser.scanner.setSource(contents);
+		}
+	}
+
+	private void parseConstructorAndInitializerBodies(
+			CompilationUnitDeclaration unit) {
+		if (unit.ignoreMethodBodies || unit.types == null) {
+			return;
+		}
+		setParserSource(unit);
+		for (TypeDeclaration type : unit.types) {
+			parseConstructorAndInitializerBodies(type, unit);
+		}
+	}
+
+	private void parseConstructorAndInitializerBodies(TypeDeclaration type,
+			CompilationUnitDeclaration unit) {
+		if (type.memberTypes != null) {
+			for (TypeDeclaration memberType : type.memberTypes) {
+				parseConstructorAndInitializerBodies(memberType, unit);
+			}
+		}
+		if (type.methods != null) {
+			for (AbstractMethodDeclaration method : type.methods) {
+				if (method instanceof ConstructorDeclaration) {
+					method.parseStatements(this.parser, unit);
+				}
+			}
+		}
+		if (type.fields != null) {
+			for (FieldDeclaration field : type.fields) {
+				if (field instanceof Initializer) {
+					((Initializer) field).parseStatements(this.parser, type,
+							unit);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parses and resolves the body of a method that was skipped when the
+	 * units were built in lazy method bodies mode.
+	 * 
+	 * @return the problems found in the body, which are not seen by the
+	 *         requestor since the result of the unit was already accepted
+	 */
+	CategorizedProblem[] resolveMethodBody(MethodDeclaration method,
+			CompilationUnitDeclaration unit) {
+		CompilationResult result = unit.compilationResult;
+		int problemCount = result.problemCount;
+		setParserSource(unit);
+		method.parseStatements(this.parser, unit);
+		method.resolveStatements();
+		CategorizedProblem[] problems = new CategorizedProblem[result.problemCount
+				- problemCount];
+		if (problems.length > 0) {
+			System.arraycopy(result.problems, problemCount, problems, 0,
+					problems.length);
+		}
+		return problems;
+	}
 }
\ No newline at end of file
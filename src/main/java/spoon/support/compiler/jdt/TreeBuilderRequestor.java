@@ -16,7 +16,7 @@ public class TreeBuilderRequestor implements ICompilerRequestor {
 
 	public void acceptResult(CompilationResult result) {
 		if (result.hasErrors()) {
-			this.jdtCompiler.probs.add(result.problems);
+			this.jdtCompiler.addProblems(result.problems);
 		}
 	}
 
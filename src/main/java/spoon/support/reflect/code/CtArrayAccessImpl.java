@@ -32,6 +32,8 @@ public class CtArrayAccessImpl<T, V extends CtExpression<?>> extends
 	}
 
 	public void setIndexExpression(CtExpression<Integer> expression) {
+		invalidateSignature();
+		setParentOf(expression);
 		this.expression = expression;
 	}
 
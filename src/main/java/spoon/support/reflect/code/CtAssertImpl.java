@@ -33,6 +33,8 @@ public class CtAssertImpl<T> extends CtStatementImpl implements CtAssert<T> {
 	CtExpression<T> value;
 
 	public void setAssertExpression(CtExpression<Boolean> asserted) {
+		invalidateSignature();
+		setParentOf(asserted);
 		this.asserted = asserted;
 	}
 
@@ -45,6 +47,8 @@ public class CtAssertImpl<T> extends CtStatementImpl implements CtAssert<T> {
 	}
 
 	public void setExpression(CtExpression<T> value) {
+		invalidateSignature();
+		setParentOf(value);
 		this.value = value;
 	}
 
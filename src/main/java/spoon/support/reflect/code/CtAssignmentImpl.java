@@ -69,26 +69,32 @@ public class CtAssignmentImpl<T, A extends T> extends CtStatementImpl implements
 	}
 
 	public void setAssigned(CtExpression<T> assigned) {
+		invalidateSignature();
+		setParentOf(assigned);
 		this.assigned = assigned;
 	}
 
 	public void setAssignment(CtExpression<A> assignment) {
+		invalidateSignature();
+		setParentOf(assignment);
 		this.assignment = assignment;
-		this.assignment.setParent(this);
 	}
 
 	public void setType(CtTypeReference<T> type) {
+		invalidateSignature();
 		this.type = type;
 	}
 
 	public void setTypeCasts(List<CtTypeReference<?>> casts) {
+		invalidateSignature();
 		this.typeCasts = casts;
 	}
 
 	@Override
 	public void addTypeCast(CtTypeReference<?> type) {
+		invalidateSignature();
 		if (typeCasts == CtElementImpl.<CtTypeReference<?>> EMPTY_LIST()) {
-			typeCasts = new ArrayList<CtTypeReference<?>>();
+			typeCasts = new ArrayList<CtTypeReference<?>>(CHILDREN_CAPACITY);
 		}
 		typeCasts.add(type);
 	}
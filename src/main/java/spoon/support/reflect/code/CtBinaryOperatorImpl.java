@@ -39,17 +39,22 @@ public class CtBinaryOperatorImpl<T> extends CtExpressionImpl<T> implements
 	}
 
 	public void setLeftHandOperand(CtExpression<?> expression) {
+		invalidateSignature();
+		setParentOf(expression);
 		leftHandOperand = expression;
 
 	}
 
 	public void setRightHandOperand(CtExpression<?> expression) {
+		invalidateSignature();
+		setParentOf(expression);
 		rightHandOperand = expression;
 	}
 
 	BinaryOperatorKind kind;
 
 	public void setKind(BinaryOperatorKind kind) {
+		invalidateSignature();
 		this.kind = kind;
 	}
 
@@ -45,7 +45,7 @@ public class CtBlockImpl<R> extends CtStatementImpl implements CtBlock<R> {
 
 	public List<CtStatement> getStatements() {
 		if (this.statements == CtElementImpl.<CtStatement> EMPTY_LIST()) {
-			this.statements = new ArrayList<CtStatement>();
+			this.statements = new ArrayList<CtStatement>(CHILDREN_CAPACITY);
 		}
 		return this.statements;
 	}
@@ -66,6 +66,7 @@ public class CtBlockImpl<R> extends CtStatementImpl implements CtBlock<R> {
 	}
 
 	public void insertBegin(CtStatementList statements) {
+		invalidateSignature();
 		if (getParentNoExceptions() != null
 				&& getParentNoExceptions() instanceof CtConstructor
 				&& getStatements().size() > 0) {
@@ -78,12 +79,15 @@ public class CtBlockImpl<R> extends CtStatementImpl implements CtBlock<R> {
 			}
 		}
 		if (this.statements == CtElementImpl.<CtStatement> EMPTY_LIST()) {
-			this.statements = new ArrayList<CtStatement>();
+			this.statements = new ArrayList<CtStatement>(CHILDREN_CAPACITY);
 		}
 		this.statements.addAll(0, statements.getStatements());
+		setParentOf(statements.getStatements());
 	}
 
 	public void insertBegin(CtStatement statement) {
+		invalidateSignature();
+		setParentOf(statement);
 		if (getParentNoExceptions() != null
 				&& getParentNoExceptions() instanceof CtConstructor
 				&& getStatements().size() > 0) {
@@ -96,19 +100,21 @@ public class CtBlockImpl<R> extends CtStatementImpl implements CtBlock<R> {
 			}
 		}
 		if (this.statements == CtElementImpl.<CtStatement> EMPTY_LIST()) {
-			this.statements = new ArrayList<CtStatement>();
+			this.statements = new ArrayList<CtStatement>(CHILDREN_CAPACITY);
 		}
 		this.statements.add(0, statement);
 	}
 
 	public void insertEnd(CtStatement statement) {
+		invalidateSignature();
 		if (this.statements == CtElementImpl.<CtStatement> EMPTY_LIST()) {
-			this.statements = new ArrayList<CtStatement>();
+			this.statements = new ArrayList<CtStatement>(CHILDREN_CAPACITY);
 		}
 		addStatement(statement);
 	}
 
 	public void insertEnd(CtStatementList statements) {
+		invalidateSignature();
 		for (CtStatement s : statements.getStatements()) {
 			insertEnd(s);
 		}
@@ -116,6 +122,7 @@ public class CtBlockImpl<R> extends CtStatementImpl implements CtBlock<R> {
 
 	public void insertAfter(Filter<? extends CtStatement> insertionPoints,
 			CtStatement statement) {
+		invalidateSignature();
 		for (CtStatement e : Query.getElements(this, insertionPoints)) {
 			e.insertAfter(statement);
 		}
@@ -123,6 +130,7 @@ public class CtBlockImpl<R> extends CtStatementImpl implements CtBlock<R> {
 
 	public void insertAfter(Filter<? extends CtStatement> insertionPoints,
 			CtStatementList statements) {
+		invalidateSignature();
 		for (CtStatement e : Query.getElements(this, insertionPoints)) {
 			e.insertAfter(statements);
 		}
@@ -130,6 +138,7 @@ public class CtBlockImpl<R> extends CtStatementImpl implements CtBlock<R> {
 
 	public void insertBefore(Filter<? extends CtStatement> insertionPoints,
 			CtStatement statement) {
+		invalidateSignature();
 		for (CtStatement e : Query.getElements(this, insertionPoints)) {
 			e.insertBefore(statement);
 		}
@@ -137,12 +146,15 @@ public class CtBlockImpl<R> extends CtStatementImpl implements CtBlock<R> {
 
 	public void insertBefore(Filter<? extends CtStatement> insertionPoints,
 			CtStatementList statements) {
+		invalidateSignature();
 		for (CtStatement e : Query.getElements(this, insertionPoints)) {
 			e.insertBefore(statements);
 		}
 	}
 
 	public void setStatements(List<CtStatement> statements) {
+		invalidateSignature();
+		setParentOf(statements);
 		this.statements = statements;
 	}
 
@@ -160,16 +172,19 @@ public class CtBlockImpl<R> extends CtStatementImpl implements CtBlock<R> {
 
 	@Override
 	public void addStatement(CtStatement statement) {
+		invalidateSignature();
+		setParentOf(statement);
 		if (this.statements == CtElementImpl.<CtStatement> EMPTY_LIST()) {
-			this.statements = new ArrayList<CtStatement>();
+			this.statements = new ArrayList<CtStatement>(CHILDREN_CAPACITY);
 		}
 		this.statements.add(statement);
 	}
 
 	@Override
 	public void removeStatement(CtStatement statement) {
+		invalidateSignature();
 		if (this.statements == CtElementImpl.<CtStatement> EMPTY_LIST()) {
-			this.statements = new ArrayList<CtStatement>();
+			return;
 		}
 		this.statements.remove(statement);
 	}
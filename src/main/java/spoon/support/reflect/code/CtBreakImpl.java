@@ -34,6 +34,7 @@ public class CtBreakImpl extends CtStatementImpl implements CtBreak {
 	}
 
 	public void setTargetLabel(String targetLabel) {
+		invalidateSignature();
 		this.targetLabel = targetLabel;
 	}
 
@@ -47,23 +47,30 @@ public class CtCaseImpl<E> extends CtStatementImpl implements CtCase<E> {
 	}
 
 	public void setCaseExpression(CtExpression<E> caseExpression) {
+		invalidateSignature();
+		setParentOf(caseExpression);
 		this.caseExpression = caseExpression;
 	}
 
 	public void setStatements(List<CtStatement> statements) {
+		invalidateSignature();
+		setParentOf(statements);
 		this.statements = statements;
 	}
 
 	@Override
 	public void addStatement(CtStatement statement) {
+		invalidateSignature();
+		setParentOf(statement);
 		if (statements == CtElementImpl.<CtStatement> EMPTY_LIST()) {
-			statements = new ArrayList<CtStatement>();
+			statements = new ArrayList<CtStatement>(CHILDREN_CAPACITY);
 		}
 		statements.add(statement);
 	}
 
 	@Override
 	public void removeStatement(CtStatement statement) {
+		invalidateSignature();
 		if (statements == CtElementImpl.<CtStatement> EMPTY_LIST()) {
 			return;
 		}
@@ -42,10 +42,14 @@ public class CtCatchImpl extends CtCodeElementImpl implements CtCatch {
 	}
 
 	public void setBody(CtBlock<?> body) {
+		invalidateSignature();
+		setParentOf(body);
 		this.body = body;
 	}
 
 	public void setParameter(CtLocalVariable<? extends Throwable> parameter) {
+		invalidateSignature();
+		setParentOf(parameter);
 		this.parameter = parameter;
 	}
 
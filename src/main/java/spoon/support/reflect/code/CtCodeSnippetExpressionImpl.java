@@ -22,6 +22,7 @@ public class CtCodeSnippetExpressionImpl<T> extends CtExpressionImpl<T> implemen
 	}
 
 	public void setValue(String value) {
+		invalidateSignature();
 		this.value = value;
 	}
 	
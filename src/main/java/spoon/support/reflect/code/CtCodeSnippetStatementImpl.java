@@ -22,6 +22,7 @@ public class CtCodeSnippetStatementImpl extends CtStatementImpl implements
 	}
 
 	public void setValue(String value) {
+		invalidateSignature();
 		this.value = value;
 	}
 
@@ -49,14 +49,20 @@ public class CtConditionalImpl<T> extends CtExpressionImpl<T> implements
 	}
 
 	public void setElseExpression(CtExpression<T> elseExpression) {
+		invalidateSignature();
+		setParentOf(elseExpression);
 		this.elseExpression = elseExpression;
 	}
 
 	public void setCondition(CtExpression<Boolean> condition) {
+		invalidateSignature();
+		setParentOf(condition);
 		this.condition = condition;
 	}
 
 	public void setThenExpression(CtExpression<T> thenExpression) {
+		invalidateSignature();
+		setParentOf(thenExpression);
 		this.thenExpression = thenExpression;
 	}
 
@@ -37,6 +37,7 @@ public class CtContinueImpl extends CtStatementImpl implements CtContinue {
 	}
 
 	public void setLabelledStatement(CtStatement labelledStatement) {
+		invalidateSignature();
 		this.labelledStatement = labelledStatement;
 	}
 	
@@ -45,6 +46,7 @@ public class CtContinueImpl extends CtStatementImpl implements CtContinue {
 	}
 
 	public void setTargetLabel(String targetLabel) {
+		invalidateSignature();
 		this.targetLabel = targetLabel;
 	}
 
@@ -35,6 +35,8 @@ public class CtDoImpl extends CtLoopImpl implements CtDo {
 	}
 
 	public void setLoopingExpression(CtExpression<Boolean> expression) {
+		invalidateSignature();
+		setParentOf(expression);
 		this.expression = expression;
 	}
 }
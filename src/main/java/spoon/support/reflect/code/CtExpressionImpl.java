@@ -50,17 +50,20 @@ public abstract class CtExpressionImpl<T> extends CtCodeElementImpl implements
 	}
 
 	public void setType(CtTypeReference<T> type) {
+		invalidateSignature();
 		this.type = type;
 	}
 
 	public void setTypeCasts(List<CtTypeReference<?>> casts) {
+		invalidateSignature();
 		this.typeCasts = casts;
 	}
 
 	@Override
 	public void addTypeCast(CtTypeReference<?> type) {
+		invalidateSignature();
 		if (typeCasts == CtElementImpl.<CtTypeReference<?>> EMPTY_LIST()) {
-			typeCasts = new ArrayList<CtTypeReference<?>>();
+			typeCasts = new ArrayList<CtTypeReference<?>>(CHILDREN_CAPACITY);
 		}
 		typeCasts.add(type);
 	}
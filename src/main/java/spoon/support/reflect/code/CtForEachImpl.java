@@ -42,10 +42,14 @@ public class CtForEachImpl extends CtLoopImpl implements CtForEach {
 	}
 
 	public void setExpression(CtExpression<?> expression) {
+		invalidateSignature();
+		setParentOf(expression);
 		this.expression = expression;
 	}
 
 	public void setVariable(CtLocalVariable<?> variable) {
+		invalidateSignature();
+		setParentOf(variable);
 		this.variable = variable;
 	}
 
@@ -52,45 +52,57 @@ public class CtForImpl extends CtLoopImpl implements CtFor {
 	}
 
 	public void setExpression(CtExpression<Boolean> expression) {
+		invalidateSignature();
+		setParentOf(expression);
 		this.expression = expression;
 	}
 
 	public void setForInit(List<CtStatement> forInit) {
+		invalidateSignature();
+		setParentOf(forInit);
 		this.forInit = forInit;
 	}
 
 	public void setForUpdate(List<CtStatement> forUpdate) {
+		invalidateSignature();
+		setParentOf(forUpdate);
 		this.forUpdate = forUpdate;
 	}
 
 	@Override
 	public boolean addForInit(CtStatement statement) {
+		invalidateSignature();
+		setParentOf(statement);
 		if (forInit == CtElementImpl.<CtStatement> EMPTY_LIST()) {
-			forInit = new ArrayList<CtStatement>();
+			forInit = new ArrayList<CtStatement>(CHILDREN_CAPACITY);
 		}
 		return forInit.add(statement);
 	}
 
 	@Override
 	public boolean removeForInit(CtStatement statement) {
+		invalidateSignature();
 		if (forInit == CtElementImpl.<CtStatement> EMPTY_LIST()) {
-			forInit = new ArrayList<CtStatement>();
+			return false;
 		}
 		return forInit.remove(statement);
 	}
 
 	@Override
 	public boolean addForUpdate(CtStatement statement) {
+		invalidateSignature();
+		setParentOf(statement);
 		if (forUpdate == CtElementImpl.<CtStatement> EMPTY_LIST()) {
-			forUpdate = new ArrayList<CtStatement>();
+			forUpdate = new ArrayList<CtStatement>(CHILDREN_CAPACITY);
 		}
 		return forUpdate.add(statement);
 	}
 
 	@Override
 	public boolean removeForUpdate(CtStatement statement) {
+		invalidateSignature();
 		if (forUpdate == CtElementImpl.<CtStatement> EMPTY_LIST()) {
-			forUpdate = new ArrayList<CtStatement>();
+			return false;
 		}
 		return forUpdate.remove(statement);
 	}
@@ -60,14 +60,20 @@ public class CtIfImpl extends CtStatementImpl implements CtIf {
 	}
 
 	public void setCondition(CtExpression<Boolean> condition) {
+		invalidateSignature();
+		setParentOf(condition);
 		this.condition = condition;
 	}
 
 	public void setElseStatement(CtStatement elseStatement) {
+		invalidateSignature();
+		setParentOf(elseStatement);
 		this.elseStatement = elseStatement;
 	}
 
 	public void setThenStatement(CtStatement thenStatement) {
+		invalidateSignature();
+		setParentOf(thenStatement);
 		this.thenStatement = thenStatement;
 	}
 
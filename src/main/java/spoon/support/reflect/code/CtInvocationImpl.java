@@ -50,6 +50,7 @@ public class CtInvocationImpl<T> extends
 	}
 
 	public void setGenericTypes(List<CtTypeReference<?>> genericTypes) {
+		invalidateSignature();
 		this.genericTypes = genericTypes;
 	}
 
@@ -59,6 +60,7 @@ public class CtInvocationImpl<T> extends
 
 	@Override
 	public void setTarget(CtExpression<?> target) {
+		invalidateSignature();
 		super.setTarget(target);
 	}
 
@@ -68,16 +70,19 @@ public class CtInvocationImpl<T> extends
 
 	@Override
 	public void addArgument(CtExpression<?> argument) {
+		invalidateSignature();
+		setParentOf(argument);
 		if (arguments == CtElementImpl.<CtExpression<?>> EMPTY_LIST()) {
-			arguments = new ArrayList<CtExpression<?>>();
+			arguments = new ArrayList<CtExpression<?>>(CHILDREN_CAPACITY);
 		}
 		arguments.add(argument);
 	}
 
 	@Override
 	public void removeArgument(CtExpression<?> argument) {
+		invalidateSignature();
 		if (arguments == CtElementImpl.<CtExpression<?>> EMPTY_LIST()) {
-			arguments = new ArrayList<CtExpression<?>>();
+			return;
 		}
 		arguments.remove(argument);
 	}
@@ -91,18 +96,22 @@ public class CtInvocationImpl<T> extends
 	}
 
 	public void insertAfter(CtStatement statement) {
+		invalidateSignature();
 		CtStatementImpl.insertAfter(this, statement);
 	}
 
 	public void insertBefore(CtStatement statement) {
+		invalidateSignature();
 		CtStatementImpl.insertBefore(this, statement);
 	}
 
 	public void insertAfter(CtStatementList statements) {
+		invalidateSignature();
 		CtStatementImpl.insertAfter(this, statements);
 	}
 
 	public void insertBefore(CtStatementList statements) {
+		invalidateSignature();
 		CtStatementImpl.insertBefore(this, statements);
 	}
 
@@ -120,14 +129,19 @@ public class CtInvocationImpl<T> extends
 	};
 
 	public void setArguments(List<CtExpression<?>> arguments) {
+		invalidateSignature();
+		setParentOf(arguments);
 		this.arguments = arguments;
 	}
 
 	public void setExecutable(CtExecutableReference<T> executable) {
+		invalidateSignature();
 		this.executable = executable;
 	}
 
 	public void setIndexExpressions(List<CtExpression<Integer>> indexExpressions) {
+		invalidateSignature();
+		setParentOf(indexExpressions);
 		this.indexExpressions = indexExpressions;
 	}
 
@@ -138,6 +152,7 @@ public class CtInvocationImpl<T> extends
 	}
 
 	public void setLabel(String label) {
+		invalidateSignature();
 		this.label = label;
 	}
 
@@ -35,6 +35,7 @@ public class CtLiteralImpl<T extends Object> extends CtExpressionImpl<T>
 	}
 
 	public void setValue(T value) {
+		invalidateSignature();
 		this.value = value;
 	}
 
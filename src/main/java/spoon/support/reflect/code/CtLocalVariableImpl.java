@@ -17,8 +17,8 @@
 
 package spoon.support.reflect.code;
 
+import java.util.EnumSet;
 import java.util.Set;
-import java.util.TreeSet;
 
 import spoon.reflect.code.CtExpression;
 import spoon.reflect.code.CtLocalVariable;
@@ -41,11 +41,13 @@ public class CtLocalVariableImpl<T> extends CtStatementImpl implements
 	CtTypeReference<T> type;
 
 	public boolean addModifier(ModifierKind modifier) {
+		invalidateSignature();
         setMutable();
         return modifiers.add(modifier);
 	}
 
 	public boolean removeModifier(ModifierKind modifier) {
+		invalidateSignature();
         setMutable();
         return modifiers.remove(modifier);
 	}
@@ -92,29 +94,39 @@ public class CtLocalVariableImpl<T> extends CtStatementImpl implements
 	}
 
 	public void setDefaultExpression(CtExpression<T> defaultExpression) {
+		invalidateSignature();
+		setParentOf(defaultExpression);
 		this.defaultExpression = defaultExpression;
-		this.defaultExpression.setParent(this);
 	}
 
 	public void setModifiers(Set<ModifierKind> modifiers) {
+		invalidateSignature();
 		this.modifiers = modifiers;
 	}
 
 	public void setSimpleName(String simpleName) {
-		this.name = simpleName;
+		invalidateSignature();
+		String oldName = this.name;
+		this.name = intern(simpleName);
+		if (oldName != null && !oldName.equals(this.name)) {
+			// the signatures of the accesses include the name
+			invalidateSignatures(getFactory());
+		}
 	}
 
 	public void setType(CtTypeReference<T> type) {
+		invalidateSignature();
 		this.type = type;
 	}
 
     private void setMutable() {
         if (modifiers == CtElementImpl.<ModifierKind> EMPTY_SET()) {
-            modifiers = new TreeSet<ModifierKind>();
+            modifiers = EnumSet.noneOf(ModifierKind.class);
         }
     }
 
 	public void setVisibility(ModifierKind visibility) {
+		invalidateSignature();
         setMutable();
 		getModifiers().remove(ModifierKind.PUBLIC);
 		getModifiers().remove(ModifierKind.PROTECTED);
@@ -40,6 +40,8 @@ public abstract class CtLoopImpl extends CtStatementImpl implements CtLoop {
 	}
 
 	public void setBody(CtStatement body) {
+		invalidateSignature();
+		setParentOf(body);
 		this.body = body;
 	}
 }
@@ -47,41 +47,51 @@ public class CtNewArrayImpl<T> extends CtExpressionImpl<T> implements
 
 	public void setDimensionExpressions(
 			List<CtExpression<Integer>> dimensionExpressions) {
+		invalidateSignature();
+		setParentOf(dimensionExpressions);
 		this.dimensionExpressions = dimensionExpressions;
 	}
 
 	@Override
 	public boolean addDimensionExpression(CtExpression<Integer> dimension) {
+		invalidateSignature();
+		setParentOf(dimension);
 		if (dimensionExpressions == CtElementImpl
 				.<CtExpression<Integer>> EMPTY_LIST()) {
-			dimensionExpressions = new ArrayList<CtExpression<Integer>>();
+			dimensionExpressions = new ArrayList<CtExpression<Integer>>(CHILDREN_CAPACITY);
 		}
 		return dimensionExpressions.add(dimension);
 	}
 
 	@Override
 	public boolean removeDimensionExpression(CtExpression<Integer> dimension) {
+		invalidateSignature();
 		if (dimensionExpressions == CtElementImpl
 				.<CtExpression<Integer>> EMPTY_LIST()) {
-			dimensionExpressions = new ArrayList<CtExpression<Integer>>();
+			return false;
 		}
 		return dimensionExpressions.remove(dimension);
 	}
 
 	public void setElements(List<CtExpression<?>> expression) {
+		invalidateSignature();
+		setParentOf(expression);
 		this.expressions = expression;
 	}
 
 	@Override
 	public boolean addElement(CtExpression<?> expression) {
+		invalidateSignature();
+		setParentOf(expression);
 		if (expressions == CtElementImpl.<CtExpression<?>> EMPTY_LIST()) {
-			this.expressions = new ArrayList<CtExpression<?>>();
+			this.expressions = new ArrayList<CtExpression<?>>(CHILDREN_CAPACITY);
 		}
 		return expressions.add(expression);
 	}
 
 	@Override
 	public boolean removeElement(CtExpression<?> expression) {
+		invalidateSignature();
 		if (expressions == CtElementImpl.<CtExpression<?>> EMPTY_LIST()) {
 			return false;
 		}
@@ -68,21 +68,25 @@ public class CtNewClassImpl<T> extends
 
 	@Override
 	public void insertAfter(CtStatement statement) {
+		invalidateSignature();
 		CtStatementImpl.insertAfter(this, statement);
 	}
 
 	@Override
 	public void insertBefore(CtStatement statement) {
+		invalidateSignature();
 		CtStatementImpl.insertBefore(this, statement);
 	}
 
 	@Override
 	public void insertAfter(CtStatementList statements) {
+		invalidateSignature();
 		CtStatementImpl.insertAfter(this, statements);
 	}
 
 	@Override
 	public void insertBefore(CtStatementList statements) {
+		invalidateSignature();
 		CtStatementImpl.insertBefore(this, statements);
 	}
 
@@ -97,37 +101,46 @@ public class CtNewClassImpl<T> extends
 
 	@Override
 	public void setAnonymousClass(CtClass<?> annonymousClass) {
+		invalidateSignature();
+		setParentOf(annonymousClass);
 		this.annonymousClass = annonymousClass;
 	}
 
 	@Override
 	public void setArguments(List<CtExpression<?>> arguments) {
+		invalidateSignature();
+		setParentOf(arguments);
 		this.arguments = arguments;
 	}
 	
 	@Override
 	public void addArgument(CtExpression<?> argument) {
+		invalidateSignature();
+		setParentOf(argument);
 		if (arguments == CtElementImpl.<CtExpression<?>> EMPTY_LIST()) {
-			arguments = new ArrayList<CtExpression<?>>();
+			arguments = new ArrayList<CtExpression<?>>(CHILDREN_CAPACITY);
 		}
 		arguments.add(argument);
 	}
 
 	@Override
 	public void removeArgument(CtExpression<?> argument) {
+		invalidateSignature();
 		if (arguments == CtElementImpl.<CtExpression<?>> EMPTY_LIST()) {
-			arguments = new ArrayList<CtExpression<?>>();
+			return;
 		}
 		arguments.remove(argument);
 	}
 
 	@Override
 	public void setExecutable(CtExecutableReference<T> executable) {
+		invalidateSignature();
 		this.executable = executable;
 	}
 
 	@Override
 	public void setLabel(String label) {
+		invalidateSignature();
 		this.label = label;
 	}
 
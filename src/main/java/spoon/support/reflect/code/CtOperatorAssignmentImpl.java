@@ -37,6 +37,7 @@ public class CtOperatorAssignmentImpl<T, A extends T> extends
 	}
 
 	public void setKind(BinaryOperatorKind kind) {
+		invalidateSignature();
 		this.kind = kind;
 	}
 
@@ -33,6 +33,8 @@ public class CtReturnImpl<R> extends CtStatementImpl implements CtReturn<R> {
 	}
 
 	public void setReturnedExpression(CtExpression<R> expression) {
+		invalidateSignature();
+		setParentOf(expression);
 		this.returnedExpression = expression;
 	}
 
@@ -34,6 +34,7 @@ public abstract class CtStatementImpl extends CtCodeElementImpl implements
 
 	public static void insertAfter(CtStatement target, CtStatement statement)
 			throws ParentNotInitializedException {
+		invalidateSignatures(target.getFactory());
 		CtStatementList sts = target.getFactory().Core()
 				.createStatementList();
 		sts.addStatement(statement);
@@ -49,6 +50,7 @@ public abstract class CtStatementImpl extends CtCodeElementImpl implements
 
 	public static void insertAfter(CtStatement target,
 			CtStatementList statements) throws ParentNotInitializedException {
+		invalidateSignatures(target.getFactory());
 		CtElement e = target.getParent();
 		if (e instanceof CtExecutable) {
 			throw new RuntimeException(
@@ -65,11 +67,13 @@ public abstract class CtStatementImpl extends CtCodeElementImpl implements
 		for (int j = statements.getStatements().size() - 1; j >= 0; j--) {
 			CtStatement s = statements.getStatements().get(j);
 			parentStatementList.getStatements().add(i, s);
+			s.setParent(parentStatementList);
 		}
 	}
 
 	public static void insertBefore(CtStatement target, CtStatement statement)
 			throws ParentNotInitializedException {
+		invalidateSignatures(target.getFactory());
 		CtStatementList sts = target.getFactory().Core()
 				.createStatementList();
 		sts.addStatement(statement);
@@ -78,6 +82,7 @@ public abstract class CtStatementImpl extends CtCodeElementImpl implements
 
 	public static void insertBefore(CtStatement target,
 			CtStatementList statementsToBeInserted) throws ParentNotInitializedException {
+		invalidateSignatures(target.getFactory());
 		CtElement targetParent = target.getParent();
 		if (targetParent instanceof CtExecutable) {
 			throw new RuntimeException(
@@ -123,6 +128,7 @@ public abstract class CtStatementImpl extends CtCodeElementImpl implements
             for (int j = statementsToBeInserted.getStatements().size() - 1; j >= 0; j--) {
                 CtStatement s = statementsToBeInserted.getStatements().get(j);
                 ((CtSwitch<?>) targetParent).getCases().add(i, (CtCase)s);
+                s.setParent(targetParent);
             }
             return;
         } else if (targetParent instanceof CtLoop) {
@@ -133,7 +139,7 @@ public abstract class CtStatementImpl extends CtCodeElementImpl implements
                 return;
 			} else {
 				CtBlock<?> block = target.getFactory().Core().createBlock();
-				block.getStatements().add(stat);
+				block.addStatement(stat);
 				((CtLoop) targetParent).setBody(block);
 				parentBlock = block;
 			}
@@ -148,6 +154,7 @@ public abstract class CtStatementImpl extends CtCodeElementImpl implements
             for (int j = statementsToBeInserted.getStatements().size() - 1; j >= 0; j--) {
                 CtStatement s = statementsToBeInserted.getStatements().get(j);
                 ((CtCase<?>) targetParent).getStatements().add(i, s);
+                s.setParent(targetParent);
             }
             return;
         } else {
@@ -167,26 +174,31 @@ public abstract class CtStatementImpl extends CtCodeElementImpl implements
 		}
 		for (CtStatement s : statementsToBeInserted) {
 			parentBlock.getStatements().add(indexOfTargetElement++, s);
+			s.setParent(parentBlock);
 		}
 	}
 
 	public void insertBefore(CtStatement statement)
 			throws ParentNotInitializedException {
+		invalidateSignature();
 		insertBefore(this, statement);
 	}
 
 	public void insertBefore(CtStatementList statements)
 			throws ParentNotInitializedException {
+		invalidateSignature();
 		insertBefore(this, statements);
 	}
 
 	public void insertAfter(CtStatement statement)
 			throws ParentNotInitializedException {
+		invalidateSignature();
 		insertAfter(this, statement);
 	}
 
 	public void insertAfter(CtStatementList statements)
 			throws ParentNotInitializedException {
+		invalidateSignature();
 		insertAfter(this, statements);
 	}
 
@@ -206,6 +218,7 @@ public abstract class CtStatementImpl extends CtCodeElementImpl implements
 	}
 
 	public void setLabel(String label) {
+		invalidateSignature();
 		this.label = label;
 	}
 
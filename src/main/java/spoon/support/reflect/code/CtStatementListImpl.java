@@ -43,6 +43,8 @@ public class CtStatementListImpl<R> extends CtCodeElementImpl implements
 	}
 
 	public void setStatements(List<CtStatement> statements) {
+		invalidateSignature();
+		setParentOf(statements);
 		this.statements = statements;
 	}
 
@@ -63,16 +65,19 @@ public class CtStatementListImpl<R> extends CtCodeElementImpl implements
 
 	@Override
 	public void addStatement(CtStatement statement) {
+		invalidateSignature();
+		setParentOf(statement);
 		if (this.statements == CtElementImpl.<CtStatement> EMPTY_LIST()) {
-			this.statements = new ArrayList<CtStatement>();
+			this.statements = new ArrayList<CtStatement>(CHILDREN_CAPACITY);
 		}
 		this.statements.add(statement);
 	}
 
 	@Override
 	public void removeStatement(CtStatement statement) {
+		invalidateSignature();
 		if (this.statements == CtElementImpl.<CtStatement> EMPTY_LIST()) {
-			this.statements = new ArrayList<CtStatement>();
+			return;
 		}
 		this.statements.remove(statement);
 	}
@@ -46,23 +46,30 @@ public class CtSwitchImpl<S> extends CtStatementImpl implements CtSwitch<S> {
 	}
 
 	public void setCases(List<CtCase<? super S>> cases) {
+		invalidateSignature();
+		setParentOf(cases);
 		this.cases = cases;
 	}
 
 	public void setSelector(CtExpression<S> selector) {
+		invalidateSignature();
+		setParentOf(selector);
 		this.expression = selector;
 	}
 
 	@Override
 	public boolean addCase(CtCase<? super S> c) {
+		invalidateSignature();
+		setParentOf(c);
 		if (cases == CtElementImpl.<CtCase<? super S>> EMPTY_LIST()) {
-			cases = new ArrayList<>();
+			cases = new ArrayList<>(CHILDREN_CAPACITY);
 		}
 		return cases.add(c);
 	}
 
 	@Override
 	public boolean removeCase(CtCase<? super S> c) {
+		invalidateSignature();
 		if (cases == CtElementImpl.<CtCase<? super S>> EMPTY_LIST()) {
 			return false;
 		}
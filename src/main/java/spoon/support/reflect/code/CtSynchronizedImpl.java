@@ -43,10 +43,14 @@ public class CtSynchronizedImpl extends CtStatementImpl implements
 	}
 
 	public void setBlock(CtBlock<?> block) {
+		invalidateSignature();
+		setParentOf(block);
 		this.block = block;
 	}
 
 	public void setExpression(CtExpression<?> expression) {
+		invalidateSignature();
+		setParentOf(expression);
 		this.expression = expression;
 	}
 
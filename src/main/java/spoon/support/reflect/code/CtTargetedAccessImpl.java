@@ -45,10 +45,13 @@ public class CtTargetedAccessImpl<T> extends CtVariableAccessImpl<T> implements
 
 	@Override
 	public void setVariable(CtVariableReference<T> variable) {
+		invalidateSignature();
 		super.setVariable(variable);
 	}
 
 	public void setTarget(CtExpression<?> target) {
+		invalidateSignature();
+		setParentOf(target);
 		this.target = target;
 	}
 
@@ -31,6 +31,8 @@ public abstract class CtTargetedExpressionImpl<E, T extends CtExpression<?>>
 	}
 
 	public void setTarget(T target) {
+		invalidateSignature();
+		setParentOf(target);
 		this.target = target;
 	}
 
@@ -34,6 +34,7 @@ public class CtThisAccessImpl<T> extends CtExpressionImpl<T> implements
 
 	@Override
 	public void setQualified(boolean qualified) {
+		invalidateSignature();
 		this.qualified = qualified;
 	}
 
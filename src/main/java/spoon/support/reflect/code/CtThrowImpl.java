@@ -33,8 +33,9 @@ public class CtThrowImpl extends CtStatementImpl implements CtThrow {
 	}
 
 	public void setThrownExpression(CtExpression<? extends Throwable> expression) {
+		invalidateSignature();
+		setParentOf(expression);
 		this.throwExpression = expression;
-		throwExpression.setParent(this);
 	}
 
 	public void accept(CtVisitor visitor) {
@@ -41,14 +41,18 @@ public class CtTryImpl extends CtStatementImpl implements CtTry {
 
 	public void setResources(
 			List<CtLocalVariable<? extends AutoCloseable>> resources) {
+		invalidateSignature();
+		setParentOf(resources);
 		this.resources = resources;
 	}
 
 	@Override
 	public boolean addResource(CtLocalVariable<? extends AutoCloseable> resource) {
+		invalidateSignature();
+		setParentOf(resource);
 		if (resources == CtElementImpl
 				.<CtLocalVariable<? extends AutoCloseable>> EMPTY_LIST()) {
-			resources = new ArrayList<>();
+			resources = new ArrayList<>(CHILDREN_CAPACITY);
 		}
 		return resources.add(resource);
 	}
@@ -56,9 +60,10 @@ public class CtTryImpl extends CtStatementImpl implements CtTry {
 	@Override
 	public boolean removeResource(
 			CtLocalVariable<? extends AutoCloseable> resource) {
+		invalidateSignature();
 		if (resources == CtElementImpl
 				.<CtLocalVariable<? extends AutoCloseable>> EMPTY_LIST()) {
-			resources = new ArrayList<>();
+			return false;
 		}
 		return resources.remove(resource);
 	}
@@ -68,21 +73,26 @@ public class CtTryImpl extends CtStatementImpl implements CtTry {
 	}
 
 	public void setCatchers(List<CtCatch> catchers) {
+		invalidateSignature();
+		setParentOf(catchers);
 		this.catchers = catchers;
 	}
 
 	@Override
 	public boolean addCatcher(CtCatch catcher) {
+		invalidateSignature();
+		setParentOf(catcher);
 		if (catchers == CtElementImpl.<CtCatch> EMPTY_LIST()) {
-			catchers = new ArrayList<>();
+			catchers = new ArrayList<>(CHILDREN_CAPACITY);
 		}
 		return catchers.add(catcher);
 	}
 
 	@Override
 	public boolean removeCatcher(CtCatch catcher) {
+		invalidateSignature();
 		if (catchers == CtElementImpl.<CtCatch> EMPTY_LIST()) {
-			catchers = new ArrayList<>();
+			return false;
 		}
 		return catchers.remove(catcher);
 	}
@@ -98,6 +108,8 @@ public class CtTryImpl extends CtStatementImpl implements CtTry {
 	}
 
 	public void setFinalizer(CtBlock<?> finalizer) {
+		invalidateSignature();
+		setParentOf(finalizer);
 		this.finalizer = finalizer;
 	}
 
@@ -108,6 +120,8 @@ public class CtTryImpl extends CtStatementImpl implements CtTry {
 	}
 
 	public void setBody(CtBlock<?> body) {
+		invalidateSignature();
+		setParentOf(body);
 		this.body = body;
 	}
 
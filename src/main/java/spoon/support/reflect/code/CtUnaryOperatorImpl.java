@@ -52,18 +52,22 @@ public class CtUnaryOperatorImpl<T> extends CtExpressionImpl<T> implements
 	}
 
 	public void insertAfter(CtStatement statement) {
+		invalidateSignature();
 		CtStatementImpl.insertAfter(this, statement);
 	}
 
 	public void insertBefore(CtStatement statement) {
+		invalidateSignature();
 		CtStatementImpl.insertBefore(this, statement);
 	}
 
 	public void insertAfter(CtStatementList statements) {
+		invalidateSignature();
 		CtStatementImpl.insertAfter(this, statements);
 	}
 
 	public void insertBefore(CtStatementList statements) {
+		invalidateSignature();
 		CtStatementImpl.insertBefore(this, statements);
 	}
 
@@ -76,14 +80,18 @@ public class CtUnaryOperatorImpl<T> extends CtExpressionImpl<T> implements
 	}
 
 	public void setOperand(CtExpression<T> expression) {
+		invalidateSignature();
+		setParentOf(expression);
 		this.operand = expression;
 	}
 
 	public void setKind(UnaryOperatorKind kind) {
+		invalidateSignature();
 		this.kind = kind;
 	}
 
 	public void setLabel(String label) {
+		invalidateSignature();
 		this.label = label;
 	}
 
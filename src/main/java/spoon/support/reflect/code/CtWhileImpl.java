@@ -35,6 +35,8 @@ public class CtWhileImpl extends CtLoopImpl implements CtWhile {
 	}
 
 	public void setLoopingExpression(CtExpression<Boolean> expression) {
+		invalidateSignature();
+		setParentOf(expression);
 		this.expression = expression;
 	}
 
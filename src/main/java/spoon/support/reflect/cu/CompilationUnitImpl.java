@@ -51,6 +51,20 @@ public class CompilationUnitImpl implements CompilationUnit, FactoryAccessor {
 		this.file = file;
 	}
 
+	int[] lineSeparatorPositions;
+
+	/**
+	 * Gets the positions of the line separators of this unit, which are
+	 * shared by the packed positions of its elements.
+	 */
+	public int[] getLineSeparatorPositions() {
+		return lineSeparatorPositions;
+	}
+
+	public void setLineSeparatorPositions(int[] lineSeparatorPositions) {
+		this.lineSeparatorPositions = lineSeparatorPositions;
+	}
+
 	List<SourceCodeFragment> fragments;
 
 	public void addSourceCodeFragment(SourceCodeFragment fragment) {
@@ -103,6 +103,13 @@ public class SourcePositionImpl implements SourcePosition, Serializable {
 		this.lineSeparatorPositions = lineSeparatorPositions;
 	}
 
+	/**
+	 * Gets the positions of the line separators of the source file.
+	 */
+	public int[] getLineSeparatorPositions() {
+		return lineSeparatorPositions;
+	}
+
 	public int getColumn() {
 		return searchColumnNumber(lineSeparatorPositions, sourceStart);
 	}
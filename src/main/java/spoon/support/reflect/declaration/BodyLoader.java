@@ -0,0 +1,35 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+package spoon.support.reflect.declaration;
+
+import spoon.reflect.declaration.CtExecutable;
+
+/**
+ * Builds the body of an executable whose body was not built with the rest of
+ * the model (see {@link spoon.compiler.Environment#isLazyMethodBodies()}).
+ */
+public interface BodyLoader {
+
+	/**
+	 * Builds the body of the given executable and sets it with
+	 * {@link CtExecutable#setBody(spoon.reflect.code.CtBlock)}. It is called
+	 * at most once per executable, on the first access to its body.
+	 */
+	void loadBody(CtExecutable<?> executable);
+
+}
@@ -325,10 +325,12 @@ public class CtAnnotationImpl<A extends Annotation> extends CtElementImpl
 	@SuppressWarnings("unchecked")
 	public void setAnnotationType(
 			CtTypeReference<? extends Annotation> annotationType) {
+		invalidateSignature();
 		this.annotationType = (CtTypeReference<A>) annotationType;
 	}
 
 	public void setElementValues(Map<String, Object> values) {
+		invalidateSignature();
 		for (Entry<String, Object> e : values.entrySet()) {
 			this.elementValues.put(e.getKey(), e.getValue());
 		}
@@ -17,8 +17,8 @@
 
 package spoon.support.reflect.declaration;
 
+import java.util.EnumSet;
 import java.util.Set;
-import java.util.TreeSet;
 
 import spoon.reflect.code.CtBlock;
 import spoon.reflect.declaration.CtAnonymousExecutable;
@@ -39,15 +39,17 @@ public class CtAnonymousExecutableImpl extends CtElementImpl implements
 	}
 
 	public boolean addModifier(ModifierKind modifier) {
+		invalidateSignature();
 		if (modifiers == CtElementImpl.<ModifierKind> EMPTY_SET()) {
-			modifiers = new TreeSet<ModifierKind>();
+			modifiers = EnumSet.noneOf(ModifierKind.class);
 		}
 		return modifiers.add(modifier);
 	}
 
 	public boolean removeModifier(ModifierKind modifier) {
+		invalidateSignature();
 		if (modifiers == CtElementImpl.<ModifierKind> EMPTY_SET()) {
-			modifiers = new TreeSet<ModifierKind>();
+			modifiers = EnumSet.noneOf(ModifierKind.class);
 		}
 		return modifiers.remove(modifier);
 	}
@@ -79,16 +81,20 @@ public class CtAnonymousExecutableImpl extends CtElementImpl implements
 	}
 
 	public void setBody(CtBlock<?> block) {
+		invalidateSignature();
+		setParentOf(block);
 		body = block;
 	}
 
 	public void setModifiers(Set<ModifierKind> modifiers) {
+		invalidateSignature();
 		this.modifiers = modifiers;
 	}
 
 	public void setVisibility(ModifierKind visibility) {
+		invalidateSignature();
 		if (modifiers == CtElementImpl.<ModifierKind> EMPTY_SET()) {
-			modifiers = new TreeSet<ModifierKind>();
+			modifiers = EnumSet.noneOf(ModifierKind.class);
 		}
 		getModifiers().remove(ModifierKind.PUBLIC);
 		getModifiers().remove(ModifierKind.PROTECTED);
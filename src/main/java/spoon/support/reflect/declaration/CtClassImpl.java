@@ -91,17 +91,20 @@ public class CtClassImpl<T extends Object> extends CtTypeImpl<T> implements
 	}
 
 	public boolean addAnonymousExecutable(CtAnonymousExecutable e) {
+		invalidateSignature();
+		setParentOf(e);
 		if (anonymousExecutables == CtElementImpl
 				.<CtAnonymousExecutable> EMPTY_LIST()) {
-			anonymousExecutables = new ArrayList<CtAnonymousExecutable>();
+			anonymousExecutables = new ArrayList<CtAnonymousExecutable>(CHILDREN_CAPACITY);
 		}
 		return anonymousExecutables.add(e);
 	}
 
 	public boolean removeAnonymousExecutable(CtAnonymousExecutable e) {
+		invalidateSignature();
 		if (anonymousExecutables == CtElementImpl
 				.<CtAnonymousExecutable> EMPTY_LIST()) {
-			anonymousExecutables = new ArrayList<CtAnonymousExecutable>();
+			return false;
 		}
 		return anonymousExecutables.remove(e);
 	}
@@ -111,27 +114,33 @@ public class CtClassImpl<T extends Object> extends CtTypeImpl<T> implements
 	}
 
 	public void setAnonymousExecutables(List<CtAnonymousExecutable> e) {
+		invalidateSignature();
+		setParentOf(e);
 		anonymousExecutables = e;
 	}
 
 	public void setConstructors(Set<CtConstructor<T>> constructors) {
+		invalidateSignature();
+		setParentOf(constructors);
 		this.constructors = constructors;
 	}
 
 	@Override
 	public void addConstructor(CtConstructor<T> constructor) {
+		invalidateSignature();
 		if (constructors == CtElementImpl.<CtConstructor<T>> EMPTY_SET()) {
 			constructors = new TreeSet<CtConstructor<T>>();
 		}
 		// this needs to be done because of the set that needs the constructor's
 		// signature : we should use lists!!!
 		// TODO: CHANGE SETS TO LIST TO AVOID HAVING TO DO THIS
-		constructor.setParent(this);
+		setParentOf(constructor);
 		constructors.add(constructor);
 	}
 
 	@Override
 	public void removeConstructor(CtConstructor<T> constructor) {
+		invalidateSignature();
 		if (constructors == CtElementImpl.<CtConstructor<T>> EMPTY_SET()) {
 			constructors = new TreeSet<CtConstructor<T>>();
 		}
@@ -139,7 +148,9 @@ public class CtClassImpl<T extends Object> extends CtTypeImpl<T> implements
 	}
 
 	public void setSuperclass(CtTypeReference<?> superClass) {
+		invalidateSignature();
 		this.superClass = superClass;
+		supertypesChanged();
 	}
 
 	public boolean isSubtypeOf(CtTypeReference<?> type) {
@@ -155,20 +166,24 @@ public class CtClassImpl<T extends Object> extends CtTypeImpl<T> implements
 	}
 
 	public void insertAfter(CtStatement statement) {
+		invalidateSignature();
 		spoon.support.reflect.code.CtStatementImpl.insertAfter(this, statement);
 	}
 
 	public void insertAfter(CtStatementList statements) {
+		invalidateSignature();
 		spoon.support.reflect.code.CtStatementImpl
 				.insertAfter(this, statements);
 	}
 
 	public void insertBefore(CtStatement statement) {
+		invalidateSignature();
 		spoon.support.reflect.code.CtStatementImpl
 				.insertBefore(this, statement);
 	}
 
 	public void insertBefore(CtStatementList statements) {
+		invalidateSignature();
 		spoon.support.reflect.code.CtStatementImpl.insertBefore(this,
 				statements);
 	}
@@ -178,6 +193,7 @@ public class CtClassImpl<T extends Object> extends CtTypeImpl<T> implements
 	}
 
 	public void setLabel(String label) {
+		invalidateSignature();
 		throw new UnsupportedOperationException(
 				"cannot set a label on a class declaration");
 	}
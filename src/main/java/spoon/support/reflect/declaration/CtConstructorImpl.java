@@ -56,6 +56,7 @@ public class CtConstructorImpl<T> extends CtExecutableImpl<T> implements
 	}
 
 	public void setType(CtTypeReference<T> type) {
+		invalidateSignature();
 	}
 
 }
@@ -19,7 +19,6 @@ package spoon.support.reflect.declaration;
 
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -37,6 +36,7 @@ import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtNamedElement;
 import spoon.reflect.declaration.ParentNotInitializedException;
 import spoon.reflect.factory.Factory;
+import spoon.reflect.factory.MetadataFactory;
 import spoon.reflect.reference.CtReference;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.visitor.CtScanner;
@@ -46,7 +46,11 @@ import spoon.reflect.visitor.ModelConsistencyChecker;
 import spoon.reflect.visitor.Query;
 import spoon.reflect.visitor.ReferenceFilter;
 import spoon.reflect.visitor.filter.AnnotationFilter;
-import spoon.support.util.RtHelper;
+import spoon.support.reflect.cu.CompilationUnitImpl;
+import spoon.support.reflect.cu.SourcePositionImpl;
+import spoon.support.util.Metamodel;
+import spoon.support.util.Metamodel.Role;
+import spoon.support.util.Stamped;
 import spoon.support.visitor.SignaturePrinter;
 import spoon.support.visitor.TypeReferenceScanner;
 
@@ -68,6 +72,13 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 	private static final Set<Object> EMPTY_SET = Collections
 			.unmodifiableSet(new TreeSet<Object>());
 
+	/**
+	 * The initial capacity of the lists of children. The elements share the
+	 * empty lists until a first child is added, and most lists then hold a
+	 * single child, so that they start with the smallest array.
+	 */
+	public static final int CHILDREN_CAPACITY = 1;
+
 	@SuppressWarnings("unchecked")
 	public static <T> List<T> EMPTY_LIST() {
 		return (List<T>) EMPTY_LIST;
@@ -87,18 +98,127 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 
 	transient Factory factory;
 
+	/**
+	 * The cached signature of this element, with the generation of the
+	 * signatures of the factory for which it was computed (null if
+	 * invalidated).
+	 */
+	transient volatile Stamped<String> signature;
+
 	public String getSignature() {
+		if (factory == null) {
+			return computeSignature();
+		}
+		long generation = factory.Metadata().getSignatureGeneration();
+		Stamped<String> cached = signature;
+		if (!Stamped.isValid(cached, generation)) {
+			cached = new Stamped<>(generation, computeSignature());
+			signature = cached;
+		}
+		return cached.getValue();
+	}
+
+	private String computeSignature() {
 		SignaturePrinter pr = new SignaturePrinter();
 		pr.scan(this);
 		return pr.getSignature();
 	}
 
+	/**
+	 * Invalidates the cached signatures of this element and of its parents,
+	 * whose signatures may include the one of this element. It is called by
+	 * the methods that modify the element (the changes made directly to the
+	 * collections returned by the getters are not tracked).
+	 */
+	protected void invalidateSignature() {
+		CtElement e = this;
+		while (e instanceof CtElementImpl) {
+			((CtElementImpl) e).signature = null;
+			e = ((CtElementImpl) e).parent;
+		}
+	}
+
+	/**
+	 * Invalidates the cached signatures of all the elements. It is called by
+	 * the changes that may affect the signatures of elements that are not
+	 * parents of the changed element: renaming or moving an element, or
+	 * changing a reference.
+	 * 
+	 * @param factory
+	 *            the factory of the changed element or reference
+	 */
+	public static void invalidateSignatures(Factory factory) {
+		if (factory != null) {
+			factory.Metadata().invalidateSignatures();
+		}
+	}
+
+	/**
+	 * Invalidates the results cached for the current generation of the model
+	 * of the given factory (see {@link MetadataFactory#invalidateModel()}).
+	 */
+	public static void invalidateModel(Factory factory) {
+		if (factory != null) {
+			factory.Metadata().invalidateModel();
+		}
+	}
+
+	/**
+	 * Invalidates the results cached for the current generation of the model
+	 * if this element is part of it. It is called by the changes that the
+	 * declaration lookups depend on, such as naming an element or changing
+	 * the parameters of an executable (adding or removing an indexed element
+	 * is handled by its name index), and not by the other setters.
+	 */
+	protected void invalidateModel() {
+		if (parent != null) {
+			invalidateModel(factory);
+		}
+	}
+
+	/**
+	 * Invalidates the cached qualified names of all the types, packages and
+	 * type references of the given factory (see
+	 * {@link MetadataFactory#invalidateQualifiedNames()}).
+	 */
+	public static void invalidateQualifiedNames(Factory factory) {
+		if (factory != null) {
+			factory.Metadata().invalidateQualifiedNames();
+		}
+	}
+
 	public Factory getFactory() {
 		return factory;
 	}
 
 	public void setFactory(Factory factory) {
 		this.factory = factory;
+		if (id == 0 && factory != null) {
+			id = factory.Metadata().nextId();
+		}
+	}
+
+	/**
+	 * The identifier of this element in its factory.
+	 */
+	int id;
+
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Gives a new identifier to this element (used when it is cloned).
+	 */
+	public void resetId() {
+		id = factory == null ? 0 : factory.Metadata().nextId();
+	}
+
+	/**
+	 * Interns a name in the name table of the factory of this element.
+	 */
+	protected String intern(String name) {
+		return factory == null ? name : factory.Name().intern(name);
 	}
 
 	List<CtAnnotation<? extends Annotation>> annotations = EMPTY_LIST();
@@ -107,7 +227,17 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 
 	CtElement parent;
 
-	SourcePosition position;
+	/**
+	 * The position of this element. To save memory, a position in a
+	 * {@link CompilationUnitImpl} is not kept as an object: this field then
+	 * holds the compilation unit and the source range is packed in
+	 * {@link #sourceRange} (the lines are given by the unit's line table),
+	 * until the position is first asked for. Otherwise, this field holds the
+	 * {@link SourcePosition} itself.
+	 */
+	Object position;
+
+	long sourceRange;
 
 	public CtElementImpl() {
 		super();
@@ -201,6 +331,7 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 
 	@Override
 	public void setRootElement(boolean rootElement) {
+		invalidateSignatures(factory);
 		if (rootElement) {
 			parent = ROOT_ELEMENT;
 		} else {
@@ -229,7 +360,7 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 
 	public SourcePosition getPosition() {
 		if (position != null) {
-			return position;
+			return getOwnPosition();
 		}
 		if (isParentInitialized() && !isRootElement()) {
 			return getParentNoExceptions().getPosition();
@@ -239,9 +370,7 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 
 	@Override
 	public int hashCode() {
-		SignaturePrinter pr = new SignaturePrinter();
-		pr.scan(this);
-		return pr.getSignature().hashCode();
+		return getSignature().hashCode();
 	}
 
 	public void replace(CtElement element) {
@@ -249,6 +378,7 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 		// ElementReplacer<CtElement>(
 		// this, element);
 		// getParent().accept(translator);
+		invalidateSignature();
 		try {
 			replaceIn(this, element, getParent());
 		} catch (CtUncomparableException e1) {
@@ -259,12 +389,9 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 	}
 
 	private <T extends FactoryAccessor> void replaceIn(Object toReplace,
-			T replacement, Object parent) throws IllegalArgumentException,
-			IllegalAccessException {
-
-		for (Field f : RtHelper.getAllFields(parent.getClass())) {
-			f.setAccessible(true);
-			Object tmp = f.get(parent);
+			T replacement, Object parent) {
+		for (Role role : Metamodel.getElementRoles(parent.getClass())) {
+			Object tmp = role.get(parent);
 
 			if (tmp != null) {
 				if (tmp instanceof List) {
@@ -290,7 +417,7 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 						}
 					}
 				} else if (compare(tmp, toReplace)) {
-					f.set(parent, getReplacement(replacement, parent));
+					role.set(parent, getReplacement(replacement, parent));
 				}
 			}
 		}
@@ -320,12 +447,16 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 
 	public void setAnnotations(
 			List<CtAnnotation<? extends Annotation>> annotations) {
+		invalidateSignature();
+		setParentOf(annotations);
 		this.annotations = annotations;
 	}
 
 	public boolean addAnnotation(CtAnnotation<? extends Annotation> annotation) {
+		invalidateSignature();
+		setParentOf(annotation);
 		if ((List<?>) this.annotations == (List<?>) EMPTY_LIST()) {
-			this.annotations = new ArrayList<>();
+			this.annotations = new ArrayList<>(CHILDREN_CAPACITY);
 		}
 		if (!this.annotations.contains(annotation)) {
 			return this.annotations.add(annotation);
@@ -336,6 +467,7 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 
 	public boolean removeAnnotation(
 			CtAnnotation<? extends Annotation> annotation) {
+		invalidateSignature();
 		return this.annotations.remove(annotation);
 	}
 
@@ -345,9 +477,74 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 
 	public void setParent(CtElement parentElement) {
 		this.parent = parentElement;
+		invalidateSignature();
+	}
+
+	/**
+	 * Sets this element as the parent of the given child, if not null. The
+	 * setters and adders of the model call it so that the parents are kept
+	 * consistent without scanning the model (see
+	 * {@link #updateAllParentsBelow()}).
+	 */
+	protected void setParentOf(CtElement child) {
+		if (child != null) {
+			child.setParent(this);
+		}
+	}
+
+	/**
+	 * Sets this element as the parent of the given children.
+	 */
+	protected void setParentOf(Collection<? extends CtElement> children) {
+		if (children != null) {
+			for (CtElement child : children) {
+				child.setParent(this);
+			}
+		}
+	}
+
+	/**
+	 * Gets the position of this element, without looking at its parents. A
+	 * packed position is materialized once, and then kept in place of the
+	 * compilation unit.
+	 */
+	SourcePosition getOwnPosition() {
+		Object p = position;
+		if (p instanceof CompilationUnitImpl) {
+			CompilationUnitImpl cu = (CompilationUnitImpl) p;
+			p = new SourcePositionImpl(cu, (int) (sourceRange >> 32),
+					(int) sourceRange, cu.getLineSeparatorPositions());
+			position = p;
+		}
+		return (SourcePosition) p;
+	}
+
+	/**
+	 * Gives this element the own position of another element, without
+	 * looking at its parents (used when it is copied).
+	 */
+	public void copyPosition(CtElementImpl element) {
+		this.position = element.position;
+		this.sourceRange = element.sourceRange;
 	}
 
 	public void setPosition(SourcePosition position) {
+		if (position instanceof SourcePositionImpl
+				&& position.getCompilationUnit() instanceof CompilationUnitImpl) {
+			CompilationUnitImpl cu = (CompilationUnitImpl) position
+					.getCompilationUnit();
+			int[] lines = ((SourcePositionImpl) position)
+					.getLineSeparatorPositions();
+			if (cu.getLineSeparatorPositions() == null) {
+				cu.setLineSeparatorPositions(lines);
+			}
+			if (cu.getLineSeparatorPositions() == lines) {
+				this.position = cu;
+				this.sourceRange = ((long) position.getSourceStart() << 32)
+						| (position.getSourceEnd() & 0xFFFFFFFFL);
+				return;
+			}
+		}
 		this.position = position;
 	}
 
@@ -383,6 +580,7 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 	}
 
 	public void setImplicit(boolean implicit) {
+		invalidateSignature();
 		this.implicit = implicit;
 	}
 
@@ -40,6 +40,11 @@ public abstract class CtExecutableImpl<R> extends CtNamedElementImpl implements
 
 	CtBlock<?> body;
 
+	/**
+	 * The loader of the body, until the body is built or set.
+	 */
+	transient volatile BodyLoader bodyLoader;
+
 	List<CtTypeReference<?>> formalTypeParameters = EMPTY_LIST();
 
 	List<CtParameter<?>> parameters = EMPTY_LIST();
@@ -51,17 +56,23 @@ public abstract class CtExecutableImpl<R> extends CtNamedElementImpl implements
 	}
 
 	public boolean addParameter(CtParameter<?> parameter) {
+		invalidateSignature();
+		invalidateModel();
+		setParentOf(parameter);
 		if (parameters == CtElementImpl.<CtParameter<?>> EMPTY_LIST()) {
-			parameters = new ArrayList<CtParameter<?>>();
+			parameters = new ArrayList<CtParameter<?>>(CHILDREN_CAPACITY);
 		}
 		return parameters.add(parameter);
 	}
 
 	public boolean removeParameter(CtParameter<?> parameter) {
+		invalidateSignature();
+		invalidateModel();
 		return parameters.remove(parameter);
 	}
 
 	public boolean addThrownType(CtTypeReference<? extends Throwable> throwType) {
+		invalidateSignature();
 		if (thrownTypes == CtElementImpl
 				.<CtTypeReference<? extends Throwable>> EMPTY_SET()) {
 			thrownTypes = new TreeSet<CtTypeReference<? extends Throwable>>();
@@ -71,25 +82,37 @@ public abstract class CtExecutableImpl<R> extends CtNamedElementImpl implements
 
 	public boolean removeThrownType(
 			CtTypeReference<? extends Throwable> throwType) {
+		invalidateSignature();
 		return thrownTypes.remove(throwType);
 	}
 
 	public boolean addFormalTypeParameter(
 			CtTypeReference<?> formalTypeParameter) {
+		invalidateSignature();
 		if (formalTypeParameters == CtElementImpl
 				.<CtTypeReference<?>> EMPTY_LIST()) {
-			formalTypeParameters = new ArrayList<CtTypeReference<?>>();
+			formalTypeParameters = new ArrayList<CtTypeReference<?>>(CHILDREN_CAPACITY);
 		}
 		return formalTypeParameters.add(formalTypeParameter);
 	}
 
 	public boolean removeFormalTypeParameter(
 			CtTypeReference<?> formalTypeParameter) {
+		invalidateSignature();
 		return formalTypeParameters.remove(formalTypeParameter);
 	}
 
 	@SuppressWarnings("unchecked")
 	public <B extends R> CtBlock<B> getBody() {
+		BodyLoader loader = bodyLoader;
+		if (loader != null) {
+			synchronized (loader) {
+				if (bodyLoader == loader) {
+					loader.loadBody(this);
+					bodyLoader = null;
+				}
+			}
+		}
 		return (CtBlock<B>) body;
 	}
 
@@ -106,20 +129,44 @@ public abstract class CtExecutableImpl<R> extends CtNamedElementImpl implements
 	}
 
 	public <B extends R> void setBody(CtBlock<B> body) {
+		invalidateSignature();
+		setParentOf(body);
+		bodyLoader = null;
 		this.body = body;
 	}
 
+	/**
+	 * Gets the loader of the body of this executable, or null if the body is
+	 * already built.
+	 */
+	public BodyLoader getBodyLoader() {
+		return bodyLoader;
+	}
+
+	/**
+	 * Defers the construction of the body of this executable to its first
+	 * access.
+	 */
+	public void setBodyLoader(BodyLoader bodyLoader) {
+		this.bodyLoader = bodyLoader;
+	}
+
 	public void setFormalTypeParameters(
 			List<CtTypeReference<?>> formalTypeParameters) {
+		invalidateSignature();
 		this.formalTypeParameters = formalTypeParameters;
 	}
 
 	public void setParameters(List<CtParameter<?>> parameters) {
+		invalidateSignature();
+		invalidateModel();
+		setParentOf(parameters);
 		this.parameters = parameters;
 	}
 
 	public void setThrownTypes(
 			Set<CtTypeReference<? extends Throwable>> thrownTypes) {
+		invalidateSignature();
 		this.thrownTypes = thrownTypes;
 	}
 
@@ -62,10 +62,13 @@ public class CtFieldImpl<T> extends CtNamedElementImpl implements CtField<T> {
 	}
 
 	public void setDefaultExpression(CtExpression<T> defaultExpression) {
+		invalidateSignature();
+		setParentOf(defaultExpression);
 		this.defaultExpression = defaultExpression;
 	}
 
 	public void setType(CtTypeReference<T> type) {
+		invalidateSignature();
 		this.type = type;
 	}
 
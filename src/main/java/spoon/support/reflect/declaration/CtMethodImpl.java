@@ -45,6 +45,7 @@ public class CtMethodImpl<T> extends CtExecutableImpl<T> implements CtMethod<T>
 	}
 
 	public void setType(CtTypeReference<T> type) {
+		invalidateSignature();
 		this.returnType = type;
 	}
 
@@ -17,12 +17,18 @@
 
 package spoon.support.reflect.declaration;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
+import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtNamedElement;
+import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtSimpleType;
 import spoon.reflect.declaration.ModifierKind;
 import spoon.reflect.reference.CtReference;
+import spoon.support.util.NameIndex;
 
 public abstract class CtNamedElementImpl extends CtElementImpl implements
 		CtNamedElement {
@@ -33,18 +39,26 @@ public abstract class CtNamedElementImpl extends CtElementImpl implements
 
 	String simpleName;
 
+	/**
+	 * The name indexes of the member tables that contain this element: null,
+	 * one index or a list of indexes.
+	 */
+	private Object nameIndexes;
+
 	public Set<ModifierKind> getModifiers() {
 		return modifiers;
 	}
 
 	public boolean addModifier(ModifierKind modifier) {
+		invalidateSignature();
 		if (modifiers == CtElementImpl.<ModifierKind> EMPTY_SET()) {
-			this.modifiers = new TreeSet<ModifierKind>();
+			this.modifiers = EnumSet.noneOf(ModifierKind.class);
 		}
 		return modifiers.add(modifier);
 	}
 
 	public boolean removeModifier(ModifierKind modifier) {
+		invalidateSignature();
 		return modifiers.remove(modifier);
 	}
 
@@ -71,16 +85,120 @@ public abstract class CtNamedElementImpl extends CtElementImpl implements
 	}
 
 	public void setModifiers(Set<ModifierKind> modifiers) {
+		invalidateSignature();
 		this.modifiers = modifiers;
 	}
 
 	public void setSimpleName(String simpleName) {
-		this.simpleName = simpleName;
+		invalidateSignature();
+		String oldName = this.simpleName;
+		this.simpleName = intern(simpleName);
+		if (oldName != null && !oldName.equals(this.simpleName)) {
+			// the signatures of the referrers may include the name (such as
+			// the accesses to a local variable)
+			invalidateSignatures(factory);
+		} else if (oldName == null && this.simpleName != null) {
+			invalidateModel();
+		}
+		Object indexes = nameIndexes;
+		if (indexes instanceof NameIndex) {
+			((NameIndex<?>) indexes).rename(this, oldName);
+		} else if (indexes != null) {
+			@SuppressWarnings("unchecked")
+			List<NameIndex<?>> l = (List<NameIndex<?>>) indexes;
+			for (NameIndex<?> index : new ArrayList<>(l)) {
+				index.rename(this, oldName);
+			}
+		}
+	}
+
+	/**
+	 * Registers a name index that contains this element, so that it is
+	 * updated when this element is renamed, whatever its parent is.
+	 */
+	@SuppressWarnings("unchecked")
+	public void addNameIndex(NameIndex<?> index) {
+		if (nameIndexes == null) {
+			nameIndexes = index;
+		} else if (nameIndexes instanceof NameIndex) {
+			List<NameIndex<?>> l = new ArrayList<>(2);
+			l.add((NameIndex<?>) nameIndexes);
+			l.add(index);
+			nameIndexes = l;
+		} else {
+			((List<NameIndex<?>>) nameIndexes).add(index);
+		}
+	}
+
+	/**
+	 * Unregisters a name index that does not contain this element anymore.
+	 */
+	@SuppressWarnings("unchecked")
+	public void removeNameIndex(NameIndex<?> index) {
+		if (nameIndexes == index) {
+			nameIndexes = null;
+		} else if (nameIndexes instanceof List) {
+			List<NameIndex<?>> l = (List<NameIndex<?>>) nameIndexes;
+			for (int i = 0; i < l.size(); i++) {
+				if (l.get(i) == index) {
+					l.remove(i);
+					break;
+				}
+			}
+			if (l.size() == 1) {
+				nameIndexes = l.get(0);
+			}
+		}
+	}
+
+	/**
+	 * Tells if this package or type is in the index of the qualified names of
+	 * the factory.
+	 */
+	boolean isIndexed() {
+		if (factory == null) {
+			return false;
+		}
+		if (!(this instanceof CtPackage)) {
+			// only the member types of packages are indexed, and the
+			// qualified names of the others may not be computable yet
+			CtElement e = parent;
+			while (e instanceof CtSimpleType && e instanceof CtElementImpl) {
+				e = ((CtElementImpl) e).parent;
+			}
+			if (!(e instanceof CtPackage)) {
+				return false;
+			}
+		}
+		return factory.Package().isIndexed(this);
+	}
+
+	/**
+	 * Adds a new member of this package or type to the index of the
+	 * qualified names of the factory, if this element is indexed.
+	 */
+	void indexMember(CtNamedElement member) {
+		if (isIndexed()) {
+			factory.Package().index(member);
+		}
+	}
+
+	/**
+	 * Removes a member of this package or type from the index of the
+	 * qualified names of the factory, unless it has moved to another
+	 * container.
+	 */
+	void unindexMember(CtNamedElement member) {
+		if (factory != null && member.isParentInitialized()
+				&& member.getParent() == this) {
+			factory.Package().unindex(member);
+		}
 	}
 
 	public void setVisibility(ModifierKind visibility) {
+		invalidateSignature();
 		if (modifiers == CtElementImpl.<ModifierKind> EMPTY_SET()) {
-			this.modifiers = new TreeSet<ModifierKind>();
+			this.modifiers = EnumSet.noneOf(ModifierKind.class);
 		}
 		getModifiers().remove(ModifierKind.PUBLIC);
 		getModifiers().remove(ModifierKind.PROTECTED);
@@ -18,13 +18,16 @@
 package spoon.support.reflect.declaration;
 
 import java.util.Set;
-import java.util.TreeSet;
 
 import spoon.reflect.cu.SourcePosition;
+import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.declaration.CtSimpleType;
 import spoon.reflect.reference.CtPackageReference;
 import spoon.reflect.visitor.CtVisitor;
+import spoon.support.util.NameIndex;
+import spoon.support.util.NamedElementSet;
+import spoon.support.util.Stamped;
 
 /**
  * The implementation for {@link spoon.reflect.declaration.CtPackage}.
@@ -34,22 +37,60 @@ import spoon.reflect.visitor.CtVisitor;
 public class CtPackageImpl extends CtNamedElementImpl implements CtPackage {
 	private static final long serialVersionUID = 1L;
 
-	Set<CtPackage> packs = new TreeSet<CtPackage>();
+	Set<CtPackage> packs = new NamedElementSet<CtPackage>();
 
-	Set<CtSimpleType<?>> types = new TreeSet<CtSimpleType<?>>();
+	Set<CtSimpleType<?>> types = new NamedElementSet<CtSimpleType<?>>();
 
 	public CtPackageImpl() {
 		super();
 	}
 
 	public boolean addPackage(CtPackage pack) {
-		return packs.add(pack);
+		invalidateSignature();
+		setParentOf(pack);
+		boolean added = packs.add(pack);
+		indexMember(pack);
+		return added;
 	}
 
 	public boolean removePackage(CtPackage pack) {
+		invalidateSignature();
+		unindexMember(pack);
 		return packs.remove(pack);
 	}
 
+	@Override
+	public void setSimpleName(String simpleName) {
+		boolean indexed = isIndexed();
+		if (indexed) {
+			factory.Package().unindex(this);
+		}
+		if (this.simpleName != null && !this.simpleName.equals(simpleName)) {
+			// the qualified names of the nested elements change
+			invalidateSignatures(factory);
+			invalidateQualifiedNames(factory);
+		}
+		qualifiedName = null;
+		super.setSimpleName(simpleName);
+		if (indexed) {
+			factory.Package().index(this);
+		}
+	}
+
+	@Override
+	public void setParent(CtElement parentElement) {
+		if (parent != parentElement) {
+			if (isIndexed()) {
+				// indexed again when added to its new container
+				factory.Package().unindex(this);
+			}
+			// the qualified names of the nested elements change
+			invalidateSignatures(factory);
+			invalidateQualifiedNames(factory);
+		}
+		super.setParent(parentElement);
+	}
+
 	public void accept(CtVisitor v) {
 		v.visitCtPackage(this);
 	}
@@ -62,18 +103,33 @@ public class CtPackageImpl extends CtNamedElementImpl implements CtPackage {
 	}
 
 	public CtPackage getPackage(String name) {
-		for (CtPackage p : packs) {
-			if (p.getSimpleName().equals(name))
-				return p;
-		}
-		return null;
+		return NameIndex.first(packs, name);
 	}
 
 	public Set<CtPackage> getPackages() {
 		return packs;
 	}
 
+	/**
+	 * The cached qualified name of this package, with the generation of the
+	 * qualified names for which it was computed.
+	 */
+	transient volatile Stamped<String> qualifiedName;
+
 	public String getQualifiedName() {
+		if (factory == null) {
+			return computeQualifiedName();
+		}
+		long generation = factory.Metadata().getNameGeneration();
+		Stamped<String> cached = qualifiedName;
+		if (!Stamped.isValid(cached, generation)) {
+			cached = new Stamped<>(generation, intern(computeQualifiedName()));
+			qualifiedName = cached;
+		}
+		return cached.getValue();
+	}
+
+	private String computeQualifiedName() {
 		if (getDeclaringPackage() == null)
 			return getSimpleName();
 		return getDeclaringPackage().getQualifiedName() + "." + getSimpleName();
@@ -81,12 +137,7 @@ public class CtPackageImpl extends CtNamedElementImpl implements CtPackage {
 
 	@SuppressWarnings("unchecked")
 	public <T extends CtSimpleType<?>> T getType(String simpleName) {
-		for (CtSimpleType<?> t : types) {
-			if (t.getSimpleName().equals(simpleName)) {
-				return (T) t;
-			}
-		}
-		return null;
+		return (T) NameIndex.first(types, simpleName);
 	}
 
 	public Set<CtSimpleType<?>> getTypes() {
@@ -94,11 +145,27 @@ public class CtPackageImpl extends CtNamedElementImpl implements CtPackage {
 	}
 
 	public void setPackages(Set<CtPackage> packs) {
+		invalidateSignature();
+		for (CtPackage pack : this.packs) {
+			unindexMember(pack);
+		}
+		setParentOf(packs);
 		this.packs = packs;
+		for (CtPackage pack : packs) {
+			indexMember(pack);
+		}
 	}
 
 	public void setTypes(Set<CtSimpleType<?>> types) {
+		invalidateSignature();
+		for (CtSimpleType<?> type : this.types) {
+			unindexMember(type);
+		}
 		this.types = types;
+		setParentOf(types);
+		for (CtSimpleType<?> type : types) {
+			indexMember(type);
+		}
 	}
 
 	@Override
@@ -108,11 +175,16 @@ public class CtPackageImpl extends CtNamedElementImpl implements CtPackage {
 
 	@Override
 	public void addType(CtSimpleType<?> type) {
+		invalidateSignature();
+		setParentOf(type);
 		types.add(type);
+		indexMember(type);
 	}
 
 	@Override
 	public void removeType(CtSimpleType<?> type) {
+		invalidateSignature();
+		unindexMember(type);
 		types.remove(type);
 	}
 
@@ -127,6 +199,6 @@ public class CtPackageImpl extends CtNamedElementImpl implements CtPackage {
 		 * if it exists. The parent of a package is another package which
 		 * needs to have an own package-info file.
 		 */
-		return this.position;
+		return getOwnPosition();
 	}
 }
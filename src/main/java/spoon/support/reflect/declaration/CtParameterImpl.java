@@ -67,10 +67,15 @@ public class CtParameterImpl<T> extends CtNamedElementImpl implements
 	}
 
 	public void setDefaultExpression(CtExpression<T> defaultExpression) {
+		invalidateSignature();
+		setParentOf(defaultExpression);
 		this.defaultExpression = defaultExpression;
 	}
 
 	public void setType(CtTypeReference<T> type) {
+		invalidateSignature();
+		// the executables are looked up by the types of their parameters
+		invalidateModel();
 		this.type = type;
 	}
 
@@ -79,6 +84,7 @@ public class CtParameterImpl<T> extends CtNamedElementImpl implements
 	}
 
 	public void setVarArgs(boolean varArgs) {
+		invalidateSignature();
 		this.varArgs = varArgs;
 	}
 
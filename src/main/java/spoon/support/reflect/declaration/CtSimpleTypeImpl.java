@@ -18,11 +18,9 @@
 package spoon.support.reflect.declaration;
 
 import java.lang.annotation.Annotation;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
 import spoon.reflect.declaration.CtAnnotationType;
 import spoon.reflect.declaration.CtElement;
@@ -35,6 +33,10 @@ import spoon.reflect.visitor.CtScanner;
 import spoon.reflect.visitor.Query;
 import spoon.reflect.visitor.filter.ReferenceTypeFilter;
 import spoon.support.compiler.SnippetCompilationHelper;
+import spoon.support.util.NameIndex;
+import spoon.support.util.NamedElementList;
+import spoon.support.util.NamedElementSet;
+import spoon.support.util.Stamped;
 
 public abstract class CtSimpleTypeImpl<T> extends CtNamedElementImpl implements
 		CtSimpleType<T> {
@@ -42,6 +44,8 @@ public abstract class CtSimpleTypeImpl<T> extends CtNamedElementImpl implements
 	private static final long serialVersionUID = 1L;
 
 	public <F> boolean addField(CtField<F> field) {
+		invalidateSignature();
+		setParentOf(field);
 		if (!this.fields.contains(field)) {
 			return this.fields.add(field);
 		}
@@ -51,14 +55,21 @@ public abstract class CtSimpleTypeImpl<T> extends CtNamedElementImpl implements
 	}
 
 	public <F> boolean removeField(CtField<F> field) {
+		invalidateSignature();
 		return this.fields.remove(field);
 	}
 
 	public <N> boolean addNestedType(CtSimpleType<N> nestedType) {
-		return this.nestedTypes.add(nestedType);
+		invalidateSignature();
+		setParentOf(nestedType);
+		boolean added = this.nestedTypes.add(nestedType);
+		indexMember(nestedType);
+		return added;
 	}
 
 	public <N> boolean removeNestedType(CtSimpleType<N> nestedType) {
+		invalidateSignature();
+		unindexMember(nestedType);
 		return this.nestedTypes.remove(nestedType);
 	}
 
@@ -81,9 +92,9 @@ public abstract class CtSimpleTypeImpl<T> extends CtNamedElementImpl implements
 		return typeRefs;
 	}
 
-	private List<CtField<?>> fields = new ArrayList<CtField<?>>();
+	private List<CtField<?>> fields = new NamedElementList<CtField<?>>();
 
-	Set<CtSimpleType<?>> nestedTypes = new TreeSet<CtSimpleType<?>>();
+	Set<CtSimpleType<?>> nestedTypes = new NamedElementSet<CtSimpleType<?>>();
 
 	public Class<T> getActualClass() {
 		return getFactory().Type().createReference(this).getActualClass();
@@ -97,12 +108,7 @@ public abstract class CtSimpleTypeImpl<T> extends CtNamedElementImpl implements
 	}
 
 	public CtField<?> getField(String name) {
-		for (CtField<?> f : fields) {
-			if (f.getSimpleName().equals(name)) {
-				return f;
-			}
-		}
-		return null;
+		return NameIndex.first(fields, name);
 	}
 
 	public List<CtField<?>> getFields() {
@@ -111,6 +117,11 @@ public abstract class CtSimpleTypeImpl<T> extends CtNamedElementImpl implements
 
 	@SuppressWarnings("unchecked")
 	public <N extends CtSimpleType<?>> N getNestedType(final String name) {
+		CtSimpleType<?> nestedType = NameIndex.first(nestedTypes, name);
+		if (nestedType != null) {
+			return (N) nestedType;
+		}
+		// local types are not members: they are searched in the executables
 		class NestedTypeScanner extends CtScanner {
 			CtSimpleType<?> type;
 
@@ -182,7 +193,43 @@ public abstract class CtSimpleTypeImpl<T> extends CtNamedElementImpl implements
 		}
 	}
 
+	/**
+	 * The cached qualified name of this type, with the generation of the
+	 * qualified names for which it was computed.
+	 */
+	transient volatile Stamped<String> qualifiedName;
+
 	public String getQualifiedName() {
+		if (factory == null || !isNameCacheable()) {
+			return intern(computeQualifiedName());
+		}
+		long generation = factory.Metadata().getNameGeneration();
+		Stamped<String> cached = qualifiedName;
+		if (!Stamped.isValid(cached, generation)) {
+			cached = new Stamped<>(generation, intern(computeQualifiedName()));
+			qualifiedName = cached;
+		}
+		return cached.getValue();
+	}
+
+	/**
+	 * Tells if the qualified name of this type only depends on the types and
+	 * the package that contain it, so that it can be cached until one of them
+	 * is renamed or moved (the names of the local and anonymous types also
+	 * depend on the code that contains them).
+	 */
+	private boolean isNameCacheable() {
+		CtElement e = parent;
+		while (e instanceof CtSimpleType && e instanceof CtElementImpl) {
+			e = ((CtElementImpl) e).parent;
+		}
+		return e instanceof CtPackage;
+	}
+
+	/**
+	 * Computes the qualified name of this type.
+	 */
+	String computeQualifiedName() {
 		if ((getPackage() != null)
 				&& !getPackage().getSimpleName().equals(
 						CtPackage.TOP_LEVEL_PACKAGE_NAME)) {
@@ -201,25 +248,99 @@ public abstract class CtSimpleTypeImpl<T> extends CtNamedElementImpl implements
 	}
 
 	public void setFields(List<CtField<?>> fields) {
+		invalidateSignature();
+		setParentOf(fields);
 		this.fields = fields;
 	}
 
 	public void setNestedTypes(Set<CtSimpleType<?>> nestedTypes) {
+		invalidateSignature();
+		for (CtSimpleType<?> nestedType : this.nestedTypes) {
+			unindexMember(nestedType);
+		}
+		setParentOf(nestedTypes);
 		this.nestedTypes = nestedTypes;
+		for (CtSimpleType<?> nestedType : nestedTypes) {
+			indexMember(nestedType);
+		}
+	}
+
+	/**
+	 * Drops the supertypes of this type and of its subtypes from the type
+	 * hierarchy of the factory, when the supertypes of this type change.
+	 */
+	void supertypesChanged() {
+		if (factory == null) {
+			return;
+		}
+		// the qualified name is only computed for the member types attached
+		// to a package: the others are being built (such as the anonymous
+		// classes, whose supertypes are set before they are attached) or
+		// are local types
+		boolean member = true;
+		CtElement e = parent;
+		while (e instanceof CtElementImpl) {
+			if (e instanceof CtPackage) {
+				if (member) {
+					factory.Type().getHierarchy().typeChanged(getQualifiedName());
+				} else {
+					factory.Type().getHierarchy().clear();
+				}
+				return;
+			}
+			if (!(e instanceof CtSimpleType)) {
+				member = false;
+			}
+			e = ((CtElementImpl) e).parent;
+		}
 	}
 
 	public void compileAndReplaceSnippets() {
 		SnippetCompilationHelper.compileAndReplaceSnippetsIn(this);
 	}
 
+	@Override
+	public void setSimpleName(String simpleName) {
+		boolean indexed = isIndexed();
+		if (indexed) {
+			factory.Package().unindex(this);
+		}
+		if (this.simpleName != null && !this.simpleName.equals(simpleName)) {
+			// the qualified names of the nested types change
+			invalidateSignatures(factory);
+			invalidateQualifiedNames(factory);
+		}
+		qualifiedName = null;
+		super.setSimpleName(simpleName);
+		if (indexed) {
+			factory.Package().index(this);
+		}
+	}
+
 	@Override
 	public void setParent(CtElement parentElement) {
+		if (parent != parentElement) {
+			if (isIndexed()) {
+				// indexed again when added to its new container
+				factory.Package().unindex(this);
+			}
+			// the qualified names of the nested types change (no name is
+			// cached below a detached type, see isNameCacheable)
+			invalidateSignatures(factory);
+			if (parent != null) {
+				invalidateQualifiedNames(factory);
+			}
+			qualifiedName = null;
+		}
 		super.setParent(parentElement);
 		if (parentElement instanceof CtPackage) {
 			CtPackage pack = (CtPackage) parentElement;
 			Set<CtSimpleType<?>> types = pack.getTypes();
 			// TODO: define addType()
 			types.add(this);
+			if (pack instanceof CtNamedElementImpl) {
+				((CtNamedElementImpl) pack).indexMember(this);
+			}
 			//pack.setTypes(types);
 		}
 	}
@@ -28,6 +28,8 @@ import spoon.reflect.declaration.CtAnnotation;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.reference.CtTypeReference;
+import spoon.support.util.NameIndex;
+import spoon.support.util.NamedElementSet;
 
 /**
  * The implementation for {@link spoon.reflect.declaration.CtType}.
@@ -48,20 +50,26 @@ public abstract class CtTypeImpl<T> extends CtSimpleTypeImpl<T> implements
 	}
 
 	public <M> boolean addMethod(CtMethod<M> method) {
+		invalidateSignature();
+		setParentOf(method);
 		if (methods == CtElementImpl.<CtMethod<?>> EMPTY_SET()) {
-			methods = new TreeSet<CtMethod<?>>();
+			methods = new NamedElementSet<CtMethod<?>>();
 		}
 		return methods.add(method);
 	}
 
 	public <S> boolean addSuperInterface(CtTypeReference<S> interfac) {
+		invalidateSignature();
 		if (interfaces == CtElementImpl.<CtTypeReference<?>> EMPTY_SET()) {
 			interfaces = new TreeSet<CtTypeReference<?>>();
 		}
-		return interfaces.add(interfac);
+		boolean added = interfaces.add(interfac);
+		supertypesChanged();
+		return added;
 	}
 
 	public <M> boolean removeMethod(CtMethod<M> method) {
+		invalidateSignature();
 		if (methods.contains(method)) {
 			return methods.remove(method);
 		} else {
@@ -70,23 +78,28 @@ public abstract class CtTypeImpl<T> extends CtSimpleTypeImpl<T> implements
 	}
 
 	public <S> boolean removeSuperInterface(CtTypeReference<S> interfac) {
+		invalidateSignature();
 		if (interfaces.contains(interfac)) {
-			return interfaces.remove(interfac);
+			boolean removed = interfaces.remove(interfac);
+			supertypesChanged();
+			return removed;
 		} else {
 			return false;
 		}
 	}
 
 	public boolean addFormalTypeParameter(CtTypeReference<?> formalTypeParameter) {
+		invalidateSignature();
 		if (formalTypeParameters == CtElementImpl
 				.<CtTypeReference<?>> EMPTY_LIST()) {
-			formalTypeParameters = new ArrayList<CtTypeReference<?>>();
+			formalTypeParameters = new ArrayList<CtTypeReference<?>>(CHILDREN_CAPACITY);
 		}
 		return formalTypeParameters.add(formalTypeParameter);
 	}
 
 	public boolean removeFormalTypeParameter(
 			CtTypeReference<?> formalTypeParameter) {
+		invalidateSignature();
 		if (formalTypeParameters.contains(formalTypeParameter)) {
 			return formalTypeParameters.remove(formalTypeParameter);
 		} else {
@@ -101,24 +114,22 @@ public abstract class CtTypeImpl<T> extends CtSimpleTypeImpl<T> implements
 	@SuppressWarnings("unchecked")
 	public <R> CtMethod<R> getMethod(CtTypeReference<R> returnType,
 			String name, CtTypeReference<?>... parameterTypes) {
-		for (CtMethod<?> mm : methods) {
+		for (CtMethod<?> mm : NameIndex.get(methods, name)) {
 			CtMethod<R> m = (CtMethod<R>) mm;
-			if (m.getSimpleName().equals(name)) {
-				if (!m.getType().equals(returnType)) {
-					continue;
-				}
-				boolean cont = m.getParameters().size() == parameterTypes.length;
-				for (int i = 0; cont && (i < m.getParameters().size())
-						&& (i < parameterTypes.length); i++) {
-					if (!m.getParameters().get(i).getType().getQualifiedName()
-							.equals(parameterTypes[i].getQualifiedName())) {
-						cont = false;
-					}
-				}
-				if (cont) {
-					return m;
+			if (!m.getType().equals(returnType)) {
+				continue;
+			}
+			boolean cont = m.getParameters().size() == parameterTypes.length;
+			for (int i = 0; cont && (i < m.getParameters().size())
+					&& (i < parameterTypes.length); i++) {
+				if (!m.getParameters().get(i).getType().getQualifiedName()
+						.equals(parameterTypes[i].getQualifiedName())) {
+					cont = false;
 				}
 			}
+			if (cont) {
+				return m;
+			}
 		}
 		return null;
 	}
@@ -126,23 +137,21 @@ public abstract class CtTypeImpl<T> extends CtSimpleTypeImpl<T> implements
 	@SuppressWarnings("unchecked")
 	public <R> CtMethod<R> getMethod(String name,
 			CtTypeReference<?>... parameterTypes) {
-		for (CtMethod<?> m : methods) {
-			if (m.getSimpleName().equals(name)) {
-				boolean cont = m.getParameters().size() == parameterTypes.length;
-				for (int i = 0; cont && (i < m.getParameters().size())
-						&& (i < parameterTypes.length); i++) {
-					// String
-					// s1=m.getParameters().get(i).getType().getQualifiedName();
-					// String s2=parameterTypes[i].getQualifiedName();
-					if (!m.getParameters().get(i).getType()
-							.equals(parameterTypes[i])) {
-						cont = false;
-					}
-				}
-				if (cont) {
-					return (CtMethod<R>) m;
+		for (CtMethod<?> m : NameIndex.get(methods, name)) {
+			boolean cont = m.getParameters().size() == parameterTypes.length;
+			for (int i = 0; cont && (i < m.getParameters().size())
+					&& (i < parameterTypes.length); i++) {
+				// String
+				// s1=m.getParameters().get(i).getType().getQualifiedName();
+				// String s2=parameterTypes[i].getQualifiedName();
+				if (!m.getParameters().get(i).getType()
+						.equals(parameterTypes[i])) {
+					cont = false;
 				}
 			}
+			if (cont) {
+				return (CtMethod<R>) m;
+			}
 		}
 		return null;
 	}
@@ -168,19 +177,13 @@ public abstract class CtTypeImpl<T> extends CtSimpleTypeImpl<T> implements
 
 	@Override
 	public List<CtMethod<?>> getMethodsByName(String name) {
-		List<CtMethod<?>> result = new ArrayList<>();
-		for (CtMethod<?> m : methods) {
-			if (name.equals(m.getSimpleName())) {
-				result.add(m);
-			}
-		}
-		return result;
+		return NameIndex.get(methods, name);
 	}
 
 	@Override
-	public String getQualifiedName() {
+	String computeQualifiedName() {
 		if (isTopLevel()) {
-			return super.getQualifiedName();
+			return super.computeQualifiedName();
 		}
 		if (getDeclaringType() != null) {
 			return getDeclaringType().getQualifiedName() + INNERTTYPE_SEPARATOR
@@ -195,15 +198,20 @@ public abstract class CtTypeImpl<T> extends CtSimpleTypeImpl<T> implements
 
 	public void setFormalTypeParameters(
 			List<CtTypeReference<?>> formalTypeParameters) {
+		invalidateSignature();
 		this.formalTypeParameters = formalTypeParameters;
 	}
 
 	public void setMethods(Set<CtMethod<?>> methods) {
+		invalidateSignature();
+		setParentOf(methods);
 		this.methods = methods;
 	}
 
 	public void setSuperInterfaces(Set<CtTypeReference<?>> interfaces) {
+		invalidateSignature();
 		this.interfaces = interfaces;
+		supertypesChanged();
 	}
 
 }
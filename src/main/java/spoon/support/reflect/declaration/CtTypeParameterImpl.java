@@ -42,14 +42,16 @@ public class CtTypeParameterImpl extends CtElementImpl implements
 	}
 
 	public boolean addBound(CtTypeReference<?> bound) {
+		invalidateSignature();
 		if (bounds == CtElementImpl.<CtTypeReference<?>> EMPTY_LIST()) {
-			bounds = new ArrayList<CtTypeReference<?>>();
+			bounds = new ArrayList<CtTypeReference<?>>(CHILDREN_CAPACITY);
 		}
 		return this.bounds.add(bound);
 	}
 	public boolean removeBound(CtTypeReference<?> bound) {
+		invalidateSignature();
 		if (bounds == CtElementImpl.<CtTypeReference<?>> EMPTY_LIST()) {
-			bounds = new ArrayList<CtTypeReference<?>>();
+			return false;
 		}
 		return this.bounds.remove(bound);
 	}
@@ -67,11 +69,13 @@ public class CtTypeParameterImpl extends CtElementImpl implements
 	}
 
 	public void setBounds(List<CtTypeReference<?>> bounds) {
+		invalidateSignature();
 		this.bounds = bounds;
 	}
 
 	public void setName(String name) {
-		this.name = name;
+		invalidateSignature();
+		this.name = intern(name);
 	}
 
 }
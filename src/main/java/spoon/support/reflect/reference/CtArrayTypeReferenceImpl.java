@@ -22,6 +22,7 @@ import java.lang.reflect.Array;
 import spoon.reflect.reference.CtArrayTypeReference;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.visitor.CtVisitor;
+import spoon.support.reflect.declaration.CtElementImpl;
 
 public class CtArrayTypeReferenceImpl<T> extends CtTypeReferenceImpl<T>
 		implements CtArrayTypeReference<T> {
@@ -34,10 +35,14 @@ public class CtArrayTypeReferenceImpl<T> extends CtTypeReferenceImpl<T>
 	}
 
 	public CtTypeReference<?> getComponentType() {
+		// the signatures of an array type are the ones of its component type
+		observe();
 		return componentType;
 	}
 
 	public void setComponentType(CtTypeReference<?> componentType) {
+		checkModifiable();
+		invalidateSignatures();
 		this.componentType = componentType;
 	}
 
@@ -46,6 +51,11 @@ public class CtArrayTypeReferenceImpl<T> extends CtTypeReferenceImpl<T>
 		return Array.class.getSimpleName();
 	}
 
+	@Override
+	protected String computeKey() {
+		return getKey(getComponentType()) + "[]";
+	}
+
 	@Override
 	public void accept(CtVisitor visitor) {
 		visitor.visitCtArrayTypeReference(this);
@@ -22,9 +22,9 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
 import spoon.Launcher;
 import spoon.reflect.declaration.CtClass;
@@ -57,12 +57,37 @@ public class CtExecutableReferenceImpl<T> extends CtReferenceImpl implements
 		super();
 	}
 
+	@Override
+	protected String computeKey() {
+		StringBuilder sb = new StringBuilder();
+		if (getType() != null) {
+			sb.append(getType().getQualifiedName());
+		}
+		sb.append(' ');
+		if (getDeclaringType() != null) {
+			sb.append(getDeclaringType().getQualifiedName());
+		}
+		sb.append(CtExecutable.EXECUTABLE_SEPARATOR);
+		sb.append(getSimpleName());
+		sb.append('(');
+		boolean first = true;
+		for (CtTypeReference<?> ref : getParameterTypes()) {
+			if (!first) {
+				sb.append(',');
+			}
+			sb.append(getKey(ref));
+			first = false;
+		}
+		sb.append(')');
+		return sb.toString();
+	}
+
 	public void accept(CtVisitor visitor) {
 		visitor.visitCtExecutableReference(this);
 	}
 
 	public List<CtTypeReference<?>> getActualTypeArguments() {
-		return actualTypeArguments;
+		return view(actualTypeArguments);
 	}
 
 	public boolean isConstructor() {
@@ -131,6 +156,11 @@ public class CtExecutableReferenceImpl<T> extends CtReferenceImpl implements
 
 	@SuppressWarnings("unchecked")
 	public CtExecutable<T> getDeclaration() {
+		return (CtExecutable<T>) getCachedDeclaration();
+	}
+
+	@Override
+	protected CtExecutable<?> findDeclaration() {
 		CtType<?> typeDecl = (CtType<?>) getDeclaringType().getDeclaration();
 		if (typeDecl == null) {
 			return null;
@@ -141,14 +171,13 @@ public class CtExecutableReferenceImpl<T> extends CtReferenceImpl implements
 		if ((ret == null) && (typeDecl instanceof CtClass)
 				&& (getSimpleName().equals("<init>"))) {
 			try {
-				return (CtExecutable<T>) ((CtClass<?>) typeDecl)
-						.getConstructor(parametersTypes
-								.toArray(new CtTypeReference<?>[0]));
+				return ((CtClass<?>) typeDecl).getConstructor(parametersTypes
+						.toArray(new CtTypeReference<?>[0]));
 			} catch (ClassCastException e) {
 				Launcher.logger.error(e.getMessage(), e);
 			}
 		}
-		return (CtExecutable<T>) ret;
+		return ret;
 	}
 
 	public CtTypeReference<?> getDeclaringType() {
@@ -156,7 +185,7 @@ public class CtExecutableReferenceImpl<T> extends CtReferenceImpl implements
 	}
 
 	public List<CtTypeReference<?>> getParameterTypes() {
-		return parametersTypes;
+		return view(parametersTypes);
 	}
 
 	public CtTypeReference<T> getType() {
@@ -207,18 +236,26 @@ public class CtExecutableReferenceImpl<T> extends CtReferenceImpl implements
 
 	public void setActualTypeArguments(
 			List<CtTypeReference<?>> actualTypeArguments) {
+		checkModifiable();
+		invalidateSignatures();
 		this.actualTypeArguments = actualTypeArguments;
 	}
 
 	public void setDeclaringType(CtTypeReference<?> declaringType) {
+		checkModifiable();
+		invalidateSignatures();
 		this.declaringType = declaringType;
 	}
 
 	public void setParameterTypes(List<CtTypeReference<?>> parameterTypes) {
+		checkModifiable();
+		invalidateSignatures();
 		this.parametersTypes = parameterTypes;
 	}
 
 	public void setType(CtTypeReference<T> type) {
+		checkModifiable();
+		invalidateSignatures();
 		this.type = type;
 	}
 
@@ -323,6 +360,8 @@ public class CtExecutableReferenceImpl<T> extends CtReferenceImpl implements
 	}
 
 	public void setStatic(boolean b) {
+		checkModifiable();
+		invalidateSignatures();
 		this.stat = b;
 	}
 
@@ -351,7 +390,7 @@ public class CtExecutableReferenceImpl<T> extends CtReferenceImpl implements
 		if (c != null) {
 			return RtHelper.getModifiers(c.getModifiers());
 		}
-		return new TreeSet<ModifierKind>();
+		return EnumSet.noneOf(ModifierKind.class);
 	}
 
 	public CtExecutableReference<?> getOverridingExecutable() {
@@ -386,6 +425,8 @@ public class CtExecutableReferenceImpl<T> extends CtReferenceImpl implements
 
 	@Override
 	public boolean addParameterType(CtTypeReference<?> type) {
+		checkModifiable();
+		invalidateSignatures();
 		if (parametersTypes == CtElementImpl.<CtTypeReference<?>> EMPTY_LIST()) {
 			parametersTypes = new ArrayList<>();
 		}
@@ -394,6 +435,8 @@ public class CtExecutableReferenceImpl<T> extends CtReferenceImpl implements
 
 	@Override
 	public boolean removeParameterType(CtTypeReference<?> type) {
+		checkModifiable();
+		invalidateSignatures();
 		if (parametersTypes == CtElementImpl.<CtTypeReference<?>> EMPTY_LIST()) {
 			return false;
 		}
@@ -402,6 +445,8 @@ public class CtExecutableReferenceImpl<T> extends CtReferenceImpl implements
 
 	@Override
 	public boolean addActualTypeArgument(CtTypeReference<?> actualTypeArgument) {
+		checkModifiable();
+		invalidateSignatures();
 		if (actualTypeArguments == CtElementImpl
 				.<CtTypeReference<?>> EMPTY_LIST()) {
 			actualTypeArguments = new ArrayList<>();
@@ -412,6 +457,8 @@ public class CtExecutableReferenceImpl<T> extends CtReferenceImpl implements
 	@Override
 	public boolean removeActualTypeArgument(
 			CtTypeReference<?> actualTypeArgument) {
+		checkModifiable();
+		invalidateSignatures();
 		if (actualTypeArguments == CtElementImpl
 				.<CtTypeReference<?>> EMPTY_LIST()) {
 			return false;
@@ -19,8 +19,8 @@ package spoon.support.reflect.reference;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Member;
+import java.util.EnumSet;
 import java.util.Set;
-import java.util.TreeSet;
 
 import spoon.Launcher;
 import spoon.reflect.declaration.CtField;
@@ -30,6 +30,7 @@ import spoon.reflect.declaration.ModifierKind;
 import spoon.reflect.reference.CtFieldReference;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.visitor.CtVisitor;
+import spoon.support.reflect.declaration.CtElementImpl;
 import spoon.support.util.RtHelper;
 
 public class CtFieldReferenceImpl<T> extends CtVariableReferenceImpl<T>
@@ -46,6 +47,21 @@ public class CtFieldReferenceImpl<T> extends CtVariableReferenceImpl<T>
 		super();
 	}
 
+	@Override
+	protected String computeKey() {
+		StringBuilder sb = new StringBuilder();
+		if (getType() != null) {
+			sb.append(getType().getQualifiedName());
+		}
+		sb.append(' ');
+		if (getDeclaringType() != null) {
+			sb.append(getDeclaringType().getQualifiedName());
+		}
+		sb.append(CtField.FIELD_SEPARATOR);
+		sb.append(getSimpleName());
+		return sb.toString();
+	}
+
 	public void accept(CtVisitor visitor) {
 		visitor.visitCtFieldReference(this);
 	}
@@ -126,9 +142,14 @@ public class CtFieldReferenceImpl<T> extends CtVariableReferenceImpl<T>
 
 	@SuppressWarnings("unchecked")
 	public CtField<T> getDeclaration() {
+		return (CtField<T>) getCachedDeclaration();
+	}
+
+	@Override
+	protected CtField<?> findDeclaration() {
 		CtSimpleType<?> type = declaringType.getDeclaration();
 		if ((declaringType != null) && (type != null)) {
-			return (CtField<T>) type.getField(getSimpleName());
+			return type.getField(getSimpleName());
 		}
 		return null;
 	}
@@ -153,14 +174,20 @@ public class CtFieldReferenceImpl<T> extends CtVariableReferenceImpl<T>
 	}
 
 	public void setDeclaringType(CtTypeReference<?> declaringType) {
+		checkModifiable();
+		invalidateSignatures();
 		this.declaringType = declaringType;
 	}
 
 	public void setFinal(boolean b) {
+		checkModifiable();
+		invalidateSignatures();
 		fina = b;
 	}
 
 	public void setStatic(boolean stat) {
+		checkModifiable();
+		invalidateSignatures();
 		this.stat = stat;
 	}
 
@@ -174,7 +201,7 @@ public class CtFieldReferenceImpl<T> extends CtVariableReferenceImpl<T>
 		if (m != null) {
 			return RtHelper.getModifiers(m.getModifiers());
 		}
-		return new TreeSet<ModifierKind>();
+		return EnumSet.noneOf(ModifierKind.class);
 	}
 
 }
@@ -22,6 +22,7 @@ import java.lang.reflect.AnnotatedElement;
 import spoon.reflect.code.CtLocalVariable;
 import spoon.reflect.reference.CtLocalVariableReference;
 import spoon.reflect.visitor.CtVisitor;
+import spoon.support.reflect.declaration.CtElementImpl;
 
 public class CtLocalVariableReferenceImpl<T> extends CtVariableReferenceImpl<T>
 		implements CtLocalVariableReference<T> {
@@ -33,6 +34,20 @@ public class CtLocalVariableReferenceImpl<T> extends CtVariableReferenceImpl<T>
 		super();
 	}
 
+	/**
+	 * Gets the signature of the declaration, which is cached by the
+	 * declaration itself.
+	 */
+	@Override
+	protected String getKey() {
+		return computeKey();
+	}
+
+	@Override
+	protected String computeKey() {
+		return getDeclaration() == null ? "" : getDeclaration().getSignature();
+	}
+
 	public void accept(CtVisitor visitor) {
 		visitor.visitCtLocalVariableReference(this);
 	}
@@ -42,6 +57,8 @@ public class CtLocalVariableReferenceImpl<T> extends CtVariableReferenceImpl<T>
 	}
 
 	public void setDeclaration(CtLocalVariable<T> declaration) {
+		checkModifiable();
+		invalidateSignatures();
 		this.declaration = declaration;
 	}
 
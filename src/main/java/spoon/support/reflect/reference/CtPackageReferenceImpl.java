@@ -35,6 +35,11 @@ public class CtPackageReferenceImpl extends CtReferenceImpl implements
 		return getFactory().Package().get(getSimpleName());
 	}
 
+	@Override
+	protected String computeKey() {
+		return getSimpleName();
+	}
+
 	public void accept(CtVisitor visitor) {
 		visitor.visitCtPackageReference(this);
 	}
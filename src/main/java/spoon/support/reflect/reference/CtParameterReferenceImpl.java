@@ -25,6 +25,7 @@ import spoon.reflect.declaration.CtParameter;
 import spoon.reflect.reference.CtExecutableReference;
 import spoon.reflect.reference.CtParameterReference;
 import spoon.reflect.visitor.CtVisitor;
+import spoon.support.reflect.declaration.CtElementImpl;
 
 public class CtParameterReferenceImpl<T> extends CtVariableReferenceImpl<T>
 		implements CtParameterReference<T> {
@@ -38,13 +39,18 @@ public class CtParameterReferenceImpl<T> extends CtVariableReferenceImpl<T>
 
 	@SuppressWarnings("unchecked")
 	public CtParameter<T> getDeclaration() {
+		return (CtParameter<T>) getCachedDeclaration();
+	}
+
+	@Override
+	protected CtParameter<?> findDeclaration() {
 		CtExecutable<?> exec = executable.getDeclaration();
 		if (exec == null)
 			return null;
 		List<CtParameter<?>> params = exec.getParameters();
 		for (CtParameter<?> p : params) {
 			if (this.getSimpleName().equals(p.getSimpleName())) {
-				return (CtParameter<T>) p;
+				return p;
 			}
 		}
 		throw new IllegalStateException(
@@ -56,9 +62,16 @@ public class CtParameterReferenceImpl<T> extends CtVariableReferenceImpl<T>
 	}
 
 	public void setDeclaringExecutable(CtExecutableReference<?> executable) {
+		checkModifiable();
+		invalidateSignatures();
 		this.executable = executable;
 	}
 
+	@Override
+	protected String computeKey() {
+		return getSimpleName();
+	}
+
 	public void accept(CtVisitor visitor) {
 		visitor.visitCtParameterReference(this);
 	}
@@ -22,6 +22,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,8 @@ import spoon.reflect.factory.Factory;
 import spoon.reflect.reference.CtReference;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.visitor.DefaultJavaPrettyPrinter;
+import spoon.support.reflect.declaration.CtElementImpl;
+import spoon.support.util.Stamped;
 import spoon.support.visitor.SignaturePrinter;
 
 public abstract class CtReferenceImpl implements CtReference, Serializable {
@@ -43,22 +46,138 @@ public abstract class CtReferenceImpl implements CtReference, Serializable {
 
 	transient Factory factory;
 
+	/**
+	 * Tells if this reference is shared, and thus cannot be modified.
+	 */
+	boolean shared;
+
+	/**
+	 * Tells if this reference has been read, and thus may be part of the
+	 * cached signatures and keys. The changes made to a reference while it
+	 * is built do not invalidate them.
+	 */
+	transient boolean observed;
+
 	public CtReferenceImpl() {
 		super();
 	}
 
-	public int compareTo(CtReference o) {
+	/**
+	 * Records that this reference has been read.
+	 */
+	void observe() {
+		if (!observed) {
+			observed = true;
+		}
+	}
+
+	/**
+	 * Invalidates the cached signatures of the factory if this reference has
+	 * been read (see {@link CtElementImpl#invalidateSignatures(Factory)}).
+	 * It is called by the methods that modify the reference.
+	 */
+	protected void invalidateSignatures() {
+		if (observed) {
+			CtElementImpl.invalidateSignatures(factory);
+		}
+	}
+
+	/**
+	 * Invalidates the cached qualified names of the factory if this reference
+	 * has been read (see
+	 * {@link CtElementImpl#invalidateQualifiedNames(Factory)}). A reference
+	 * that has never been read cannot be part of a cached name.
+	 */
+	protected void invalidateQualifiedNames() {
+		if (observed) {
+			CtElementImpl.invalidateQualifiedNames(factory);
+		}
+	}
+
+	public boolean isShared() {
+		return shared;
+	}
+
+	/**
+	 * Marks this reference as shared. It cannot be modified anymore, but its
+	 * clones can.
+	 */
+	public void setShared() {
+		shared = true;
+	}
+
+	/**
+	 * Checks that this reference can be modified.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if this reference is shared
+	 */
+	protected void checkModifiable() {
+		if (shared) {
+			throw new UnsupportedOperationException("shared reference "
+					+ getSimpleName()
+					+ " cannot be modified: replace it with a clone");
+		}
+	}
+
+	/**
+	 * Gets a read-only view of the given list if this reference is shared.
+	 */
+	<T> List<T> view(List<T> list) {
+		return shared ? Collections.unmodifiableList(list) : list;
+	}
+
+	/**
+	 * The cached key of this reference, with the generation of the
+	 * signatures for which it was computed.
+	 */
+	transient volatile Stamped<String> key;
+
+	/**
+	 * Gets the key that identifies this reference for equality, hashing and
+	 * ordering. It is the signature of the reference, as printed by
+	 * {@link SignaturePrinter}, and it is cached until the model changes.
+	 */
+	protected String getKey() {
+		if (factory == null) {
+			return computeKey();
+		}
+		long generation = factory.Metadata().getSignatureGeneration();
+		Stamped<String> cached = key;
+		if (!Stamped.isValid(cached, generation)) {
+			cached = new Stamped<>(generation, computeKey());
+			key = cached;
+		}
+		return cached.getValue();
+	}
+
+	/**
+	 * Computes the key of this reference, without printing it.
+	 */
+	protected abstract String computeKey();
+
+	/**
+	 * Gets the key of the given reference (an empty string for null).
+	 */
+	static String getKey(CtReference reference) {
+		if (reference == null) {
+			return "";
+		}
+		if (reference instanceof CtReferenceImpl) {
+			return ((CtReferenceImpl) reference).getKey();
+		}
 		SignaturePrinter pr = new SignaturePrinter();
-		pr.scan(this);
-		String current = pr.getSignature();
-		pr.reset();
-		pr.scan(o);
-		return current.compareTo(pr.getSignature());
+		pr.scan(reference);
+		return pr.getSignature();
+	}
+
+	public int compareTo(CtReference o) {
+		return getKey().compareTo(getKey(o));
 	}
 
 	@Override
 	public int hashCode() {
-		return toString().hashCode();
+		return getKey().hashCode();
 	}
 
 	@Override
@@ -68,6 +187,38 @@ public abstract class CtReferenceImpl implements CtReference, Serializable {
 		return false;
 	}
 
+	/**
+	 * The cached declaration of this reference (possibly null), with the
+	 * generation of the model for which it was found.
+	 */
+	transient volatile Stamped<CtElement> cachedDeclaration;
+
+	/**
+	 * Gets the declaration of this reference, which is found by
+	 * {@link #findDeclaration()} and cached until the model of the factory
+	 * changes.
+	 */
+	CtElement getCachedDeclaration() {
+		if (factory == null) {
+			return findDeclaration();
+		}
+		long generation = factory.Metadata().getModelGeneration();
+		Stamped<CtElement> cached = cachedDeclaration;
+		if (!Stamped.isValid(cached, generation)) {
+			cached = new Stamped<>(generation, findDeclaration());
+			cachedDeclaration = cached;
+		}
+		return cached.getValue();
+	}
+
+	/**
+	 * Searches the declaration of this reference in the model (for the
+	 * references that use {@link #getCachedDeclaration()}).
+	 */
+	protected CtElement findDeclaration() {
+		return null;
+	}
+
 	abstract protected AnnotatedElement getActualAnnotatedElement();
 
 	public <A extends Annotation> A getAnnotation(Class<A> annotationType) {
@@ -128,13 +279,24 @@ public abstract class CtReferenceImpl implements CtReference, Serializable {
 	}
 
 	public String getSimpleName() {
+		observe();
 		return simplename;
 	}
 
 	public void setSimpleName(String simplename) {
+		checkModifiable();
+		invalidateSignatures();
+		invalidateQualifiedNames();
 		if (simplename.contains("?"))
 			throw new RuntimeException("argl");
-		this.simplename = simplename;
+		this.simplename = intern(simplename);
+	}
+
+	/**
+	 * Interns a name in the name table of the factory of this reference.
+	 */
+	String intern(String name) {
+		return factory == null ? name : factory.Name().intern(name);
 	}
 
 	@Override
@@ -50,7 +50,7 @@ public class CtTypeParameterReferenceImpl extends CtTypeReferenceImpl<Object>
 	}
 
 	public List<CtTypeReference<?>> getBounds() {
-		return bounds;
+		return view(bounds);
 	}
 
 	public boolean isUpper() {
@@ -58,10 +58,14 @@ public class CtTypeParameterReferenceImpl extends CtTypeReferenceImpl<Object>
 	}
 
 	public void setBounds(List<CtTypeReference<?>> bounds) {
+		checkModifiable();
+		invalidateSignatures();
 		this.bounds = bounds;
 	}
 
 	public void setUpper(boolean upper) {
+		checkModifiable();
+		invalidateSignatures();
 		this.upper = upper;
 	}
 
@@ -82,7 +86,10 @@ public class CtTypeParameterReferenceImpl extends CtTypeReferenceImpl<Object>
 
 	@Override
 	public void setSimpleName(String simplename) {
-		this.simplename = simplename;
+		checkModifiable();
+		invalidateSignatures();
+		invalidateQualifiedNames();
+		this.simplename = intern(simplename);
 	}
 
 	@Override
@@ -99,6 +106,8 @@ public class CtTypeParameterReferenceImpl extends CtTypeReferenceImpl<Object>
 
 	@Override
 	public boolean addActualTypeArgument(CtTypeReference<?> actualTypeArgument) {
+		checkModifiable();
+		invalidateSignatures();
 		if (actualTypeArguments == CtElementImpl
 				.<CtTypeReference<?>> EMPTY_LIST()) {
 			actualTypeArguments = new ArrayList<>();
@@ -109,6 +118,8 @@ public class CtTypeParameterReferenceImpl extends CtTypeReferenceImpl<Object>
 	@Override
 	public boolean removeActualTypeArgument(
 			CtTypeReference<?> actualTypeArgument) {
+		checkModifiable();
+		invalidateSignatures();
 		if (actualTypeArguments == CtElementImpl
 				.<CtTypeReference<?>> EMPTY_LIST()) {
 			return false;
@@ -118,6 +129,8 @@ public class CtTypeParameterReferenceImpl extends CtTypeReferenceImpl<Object>
 
 	@Override
 	public boolean addBound(CtTypeReference<?> bound) {
+		checkModifiable();
+		invalidateSignatures();
 		if (bounds == CtElementImpl.<CtTypeReference<?>> EMPTY_LIST()) {
 			bounds = new ArrayList<>();
 		}
@@ -126,6 +139,8 @@ public class CtTypeParameterReferenceImpl extends CtTypeReferenceImpl<Object>
 
 	@Override
 	public boolean removeBound(CtTypeReference<?> bound) {
+		checkModifiable();
+		invalidateSignatures();
 		if (bounds == CtElementImpl.<CtTypeReference<?>> EMPTY_LIST()) {
 			return false;
 		}
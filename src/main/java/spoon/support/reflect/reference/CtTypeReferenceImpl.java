@@ -17,23 +17,21 @@
 
 package spoon.support.reflect.reference;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
-import spoon.Launcher;
 import spoon.SpoonException;
 import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtConstructor;
@@ -50,14 +48,23 @@ import spoon.reflect.reference.CtFieldReference;
 import spoon.reflect.reference.CtPackageReference;
 import spoon.reflect.reference.CtTypeParameterReference;
 import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.reference.PrimitiveKind;
 import spoon.reflect.visitor.CtVisitor;
 import spoon.support.reflect.declaration.CtElementImpl;
 import spoon.support.util.RtHelper;
+import spoon.support.util.Stamped;
 
 public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements
 		CtTypeReference<T> {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * The qualified names of the supertypes of the array types.
+	 */
+	private static final Set<String> ARRAY_SUPERTYPES = new HashSet<String>(
+			Arrays.asList(Object.class.getName(), Cloneable.class.getName(),
+					Serializable.class.getName()));
+
 	List<CtTypeReference<?>> actualTypeArguments = CtElementImpl.EMPTY_LIST();
 
 	CtTypeReference<?> declaringType;
@@ -70,67 +77,39 @@ public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements
 		super();
 	}
 
+	@Override
+	protected String computeKey() {
+		return getQualifiedName();
+	}
+
 	public void accept(CtVisitor visitor) {
 		visitor.visitCtTypeReference(this);
 	}
 
 	public CtTypeReference<?> box() {
-		if (!isPrimitive()) {
+		PrimitiveKind kind = getPrimitiveKind();
+		if (kind == null) {
 			return this;
 		}
-		if (getSimpleName().equals("int")) {
-			return factory.Type().createReference(Integer.class);
-		}
-		if (getSimpleName().equals("float")) {
-			return factory.Type().createReference(Float.class);
-		}
-		if (getSimpleName().equals("long")) {
-			return factory.Type().createReference(Long.class);
-		}
-		if (getSimpleName().equals("char")) {
-			return factory.Type().createReference(Character.class);
-		}
-		if (getSimpleName().equals("double")) {
-			return factory.Type().createReference(Double.class);
-		}
-		if (getSimpleName().equals("boolean")) {
-			return factory.Type().createReference(Boolean.class);
-		}
-		if (getSimpleName().equals("short")) {
-			return factory.Type().createReference(Short.class);
-		}
-		if (getSimpleName().equals("byte")) {
-			return factory.Type().createReference(Byte.class);
-		}
-		if (getSimpleName().equals("void")) {
-			return factory.Type().createReference(Void.class);
+		return canonical(factory.Type().getBoxReference(kind));
+	}
+
+	/**
+	 * Gets the given canonical reference if the environment shares the
+	 * references, or a copy of it that can be modified otherwise.
+	 */
+	private CtTypeReference<?> canonical(CtTypeReference<?> reference) {
+		if (factory.getEnvironment().isSharingReferences()) {
+			return reference;
 		}
-		return this;
+		return factory.Core().clone(reference);
 	}
 
 	@SuppressWarnings("unchecked")
 	public Class<T> getActualClass() {
-		if (isPrimitive()) {
-			String simpleN = getSimpleName();
-			if (simpleN.equals("boolean")) {
-				return (Class<T>) boolean.class;
-			} else if (simpleN.equals("byte")) {
-				return (Class<T>) byte.class;
-			} else if (simpleN.equals("double")) {
-				return (Class<T>) double.class;
-			} else if (simpleN.equals("int")) {
-				return (Class<T>) int.class;
-			} else if (simpleN.equals("short")) {
-				return (Class<T>) short.class;
-			} else if (simpleN.equals("char")) {
-				return (Class<T>) char.class;
-			} else if (simpleN.equals("long")) {
-				return (Class<T>) long.class;
-			} else if (simpleN.equals("float")) {
-				return (Class<T>) float.class;
-			} else if (simpleN.equals("void")) {
-				return (Class<T>) void.class;
-			}
+		PrimitiveKind kind = getPrimitiveKind();
+		if (kind != null) {
+			return (Class<T>) kind.getPrimitiveClass();
 		}
 		return findClass();
 	}
@@ -140,43 +119,23 @@ public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements
 	 * Firstly, it tries to find the class in {@link Thread.currentThread().getContextClassLoader()}.
 	 * If it is not found, then the source class path is inspected to try to find the
 	 * binary definition of the target class. If still missing, a RuntimeException is thrown.
+	 * The classes are loaded and cached by the environment (see
+	 * {@link spoon.compiler.Environment#loadClass(String)}).
 	 */
 	@SuppressWarnings("unchecked")
 	protected Class<T> findClass() {
-		URLClassLoader loader = new URLClassLoader(classpath(), Thread.currentThread().getContextClassLoader());
 		try {
-			return (Class<T>) loader.loadClass(getQualifiedName());
+			return (Class<T>) getFactory().getEnvironment().loadClass(
+					getQualifiedName());
 		} catch (ClassNotFoundException cnfe) {
 			throw new SpoonException("cannot load class: "
 					+ getQualifiedName() + " with class loader "
 					+ Thread.currentThread().getContextClassLoader(), cnfe);
-		} finally {
-			try {
-				loader.close();
-			}
-			catch (IOException ioe) {}
-		}
-	}
-	
-	/**
-	 * Creates a URL class path from {@link Environment.getSourceClasspath()} 
-	 */
-	protected URL[] classpath() {
-		String[] classpath = getFactory().getEnvironment().getSourceClasspath();
-		int length = (classpath == null) ? 0 : classpath.length;
-		URL[] urls = new URL[length];
-		for (int i = 0; i < length; i += 1) {
-			try {
-				urls[i] = new File(classpath[i]).toURI().toURL();
-			} catch (MalformedURLException e) {
-				throw new IllegalStateException("Invalid classpath: " + classpath, e);
-			}
 		}
-		return urls;
 	}
 
 	public List<CtTypeReference<?>> getActualTypeArguments() {
-		return actualTypeArguments;
+		return view(actualTypeArguments);
 	}
 
 	@Override
@@ -207,9 +166,13 @@ public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements
 	
 	@SuppressWarnings("unchecked")
 	public CtSimpleType<T> getDeclaration() {
+		return (CtSimpleType<T>) getCachedDeclaration();
+	}
+
+	@Override
+	protected CtSimpleType<?> findDeclaration() {
 		if (!isPrimitive() && (getQualifiedName().length() > 0)) {
-			return (CtSimpleType<T>) getFactory().Type()
-					.get(getQualifiedName());
+			return getFactory().Type().get(getQualifiedName());
 		}
 		return null;
 	}
@@ -222,7 +185,24 @@ public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements
 		return pack;
 	}
 
+	/**
+	 * The cached qualified name of this reference, with the generation of the
+	 * qualified names for which it was computed.
+	 */
+	transient volatile Stamped<String> qualifiedName;
+
 	public String getQualifiedName() {
+		long generation = factory == null ? 0 : factory.Metadata()
+				.getNameGeneration();
+		Stamped<String> cached = qualifiedName;
+		if (generation == 0 || !Stamped.isValid(cached, generation)) {
+			cached = new Stamped<>(generation, intern(computeQualifiedName()));
+			qualifiedName = cached;
+		}
+		return cached.getValue();
+	}
+
+	private String computeQualifiedName() {
 		if (getDeclaringType() != null) {
 			return getDeclaringType().getQualifiedName()
 					+ CtSimpleType.INNERTTYPE_SEPARATOR + getSimpleName();
@@ -244,15 +224,31 @@ public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements
 	}
 
 	public boolean isPrimitive() {
-		return (getSimpleName().equals("boolean")
-				|| getSimpleName().equals("byte")
-				|| getSimpleName().equals("double")
-				|| getSimpleName().equals("int")
-				|| getSimpleName().equals("short")
-				|| getSimpleName().equals("char")
-				|| getSimpleName().equals("long")
-				|| getSimpleName().equals("float") || getSimpleName().equals(
-				"void"));
+		return getPrimitiveKind() != null;
+	}
+
+	/**
+	 * Gets the primitive type of this reference, or null if it does not
+	 * refer to a primitive type. It is given by the simple name, without
+	 * computing the qualified name.
+	 */
+	PrimitiveKind getPrimitiveKind() {
+		if (getDeclaringType() != null) {
+			return null;
+		}
+		return PrimitiveKind.ofPrimitive(getSimpleName());
+	}
+
+	/**
+	 * Gets the primitive type boxed by this reference, or null if it does not
+	 * refer to a boxing type.
+	 */
+	PrimitiveKind getBoxedKind() {
+		if (getDeclaringType() != null || getPackage() == null) {
+			return null;
+		}
+		return PrimitiveKind.ofBox(getPackage().getSimpleName(),
+				getSimpleName());
 	}
 
 	public boolean isSubtypeOf(CtTypeReference<?> type) {
@@ -266,121 +262,49 @@ public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements
 		if (isPrimitive() || type.isPrimitive()) {
 			return equals(type);
 		}
-		CtSimpleType<?> superTypeDecl = type.getDeclaration();
-		CtSimpleType<?> subTypeDecl = getDeclaration();
-		if ((subTypeDecl == null) && (superTypeDecl == null)) {
-			try {
-				if (((this instanceof CtArrayTypeReference) && (type instanceof CtArrayTypeReference))) {
-					return ((CtArrayTypeReference<?>) this).getComponentType()
-							.isSubtypeOf(
-									((CtArrayTypeReference<?>) type)
-											.getComponentType());
-				}
-				Class<?> actualSubType = getActualClass();
-				Class<?> actualSuperType = type.getActualClass();
-				return actualSuperType.isAssignableFrom(actualSubType);
-			} catch (Exception e) {
-				Launcher.logger.error("cannot determine runtime types for '"
-						+ this + "' (" + getActualClass() + ") and '" + type
-						+ "' (" + type.getActualClass() + ")", e);
-				return false;
+		if (this instanceof CtArrayTypeReference) {
+			if (type instanceof CtArrayTypeReference) {
+				return ((CtArrayTypeReference<?>) this).getComponentType()
+						.isSubtypeOf(
+								((CtArrayTypeReference<?>) type)
+										.getComponentType());
 			}
+			return ARRAY_SUPERTYPES.contains(type.getQualifiedName());
 		}
-		if (getQualifiedName().equals(type.getQualifiedName())) {
-			return true;
-		}
-		if (subTypeDecl != null) {
-			if (subTypeDecl instanceof CtType) {
-				for (CtTypeReference<?> ref : ((CtType<?>) subTypeDecl)
-						.getSuperInterfaces()) {
-					if (ref.isSubtypeOf(type)) {
-						return true;
-					}
-				}
-				if (subTypeDecl instanceof CtClass) {
-					if (getFactory().Type().OBJECT.equals(type)) {
-						return true;
-					}
-					if (((CtClass<?>) subTypeDecl).getSuperclass() != null) {
-						if (((CtClass<?>) subTypeDecl).getSuperclass().equals(
-								type)) {
-							return true;
-						}
-						return ((CtClass<?>) subTypeDecl).getSuperclass()
-								.isSubtypeOf(type);
-					}
-				}
-			}
+		if (type instanceof CtArrayTypeReference) {
 			return false;
-		} else {
-			try {
-				Class<?> actualSubType = getActualClass();
-				for (Class<?> c : actualSubType.getInterfaces()) {
-					if (getFactory().Type().createReference(c)
-							.isSubtypeOf(type)) {
-						return true;
-					}
-				}
-				CtTypeReference<?> superType = getFactory().Type()
-						.createReference(actualSubType.getSuperclass());
-				if (superType.equals(type)) {
-					return true;
-				} else {
-					return superType.isSubtypeOf(type);
-				}
-			} catch (Exception e) {
-				Launcher.logger.error("cannot determine runtime types for '"
-						+ this + "' and '" + type + "'", e);
-				return false;
-			}
 		}
+		return getFactory().Type().getHierarchy()
+				.isSubtype(getQualifiedName(), type.getQualifiedName());
 	}
 
 	public void setActualTypeArguments(
 			List<CtTypeReference<?>> actualTypeArguments) {
+		checkModifiable();
+		invalidateSignatures();
 		this.actualTypeArguments = actualTypeArguments;
 	}
 
 	public void setDeclaringType(CtTypeReference<?> declaringType) {
+		checkModifiable();
+		invalidateSignatures();
+		invalidateQualifiedNames();
 		this.declaringType = declaringType;
 	}
 
 	public void setPackage(CtPackageReference pack) {
+		checkModifiable();
+		invalidateSignatures();
+		invalidateQualifiedNames();
 		this.pack = pack;
 	}
 
 	public CtTypeReference<?> unbox() {
-		if (!isPrimitive()) {
+		PrimitiveKind kind = getBoxedKind();
+		if (kind == null) {
 			return this;
 		}
-		if (getActualClass() == Integer.class) {
-			return factory.Type().createReference(int.class);
-		}
-		if (getActualClass() == Float.class) {
-			return factory.Type().createReference(float.class);
-		}
-		if (getActualClass() == Long.class) {
-			return factory.Type().createReference(long.class);
-		}
-		if (getActualClass() == Character.class) {
-			return factory.Type().createReference(char.class);
-		}
-		if (getActualClass() == Double.class) {
-			return factory.Type().createReference(double.class);
-		}
-		if (getActualClass() == Boolean.class) {
-			return factory.Type().createReference(boolean.class);
-		}
-		if (getActualClass() == Short.class) {
-			return factory.Type().createReference(short.class);
-		}
-		if (getActualClass() == Byte.class) {
-			return factory.Type().createReference(byte.class);
-		}
-		if (getActualClass() == Void.class) {
-			return factory.Type().createReference(void.class);
-		}
-		return this;
+		return canonical(factory.Type().getPrimitiveReference(kind));
 	}
 
 	public Collection<CtFieldReference<?>> getDeclaredFields() {
@@ -530,7 +454,7 @@ public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements
 		if (c != null) {
 			return RtHelper.getModifiers(c.getModifiers());
 		}
-		return new TreeSet<ModifierKind>();
+		return EnumSet.noneOf(ModifierKind.class);
 	}
 
 	public CtTypeReference<?> getSuperclass() {
@@ -582,11 +506,15 @@ public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements
 	}
 
 	public void setSuperReference(boolean b) {
+		checkModifiable();
+		invalidateSignatures();
 		isSuperReference = b;
 	}
 
 	@Override
 	public boolean addActualTypeArgument(CtTypeReference<?> actualTypeArgument) {
+		checkModifiable();
+		invalidateSignatures();
 		if (actualTypeArguments == CtElementImpl
 				.<CtTypeReference<?>> EMPTY_LIST()) {
 			actualTypeArguments = new ArrayList<>();
@@ -597,6 +525,8 @@ public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements
 	@Override
 	public boolean removeActualTypeArgument(
 			CtTypeReference<?> actualTypeArgument) {
+		checkModifiable();
+		invalidateSignatures();
 		if (actualTypeArguments == CtElementImpl
 				.<CtTypeReference<?>> EMPTY_LIST()) {
 			return false;
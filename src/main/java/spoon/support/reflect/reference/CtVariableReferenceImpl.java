@@ -17,13 +17,14 @@
 
 package spoon.support.reflect.reference;
 
+import java.util.EnumSet;
 import java.util.Set;
-import java.util.TreeSet;
 
 import spoon.reflect.declaration.CtVariable;
 import spoon.reflect.declaration.ModifierKind;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.reference.CtVariableReference;
+import spoon.support.reflect.declaration.CtElementImpl;
 
 public abstract class CtVariableReferenceImpl<T> extends CtReferenceImpl
 		implements CtVariableReference<T> {
@@ -40,6 +41,8 @@ public abstract class CtVariableReferenceImpl<T> extends CtReferenceImpl
 	}
 
 	public void setType(CtTypeReference<T> type) {
+		checkModifiable();
+		invalidateSignatures();
 		this.type = type;
 	}
 
@@ -58,7 +61,7 @@ public abstract class CtVariableReferenceImpl<T> extends CtReferenceImpl
 		if (v != null) {
 			return v.getModifiers();
 		}
-		return new TreeSet<ModifierKind>();
+		return EnumSet.noneOf(ModifierKind.class);
 	}
 
 }
@@ -304,16 +304,22 @@ public class SubstitutionVisitor extends CtScanner {
 								.createVariableAccesses(l);
 						CtAbstractInvocation<?> inv = (CtAbstractInvocation<?>) targetedAccess
 								.getParent();
-						int i = inv.getArguments().indexOf(targetedAccess);
-						inv.getArguments().remove(i);
-						inv.getExecutable().getParameterTypes().remove(i);
+						// the lists are replaced through the setters, which
+						// invalidate the cached signatures and declarations
+						List<CtExpression<?>> args = new ArrayList<CtExpression<?>>(
+								inv.getArguments());
+						List<CtTypeReference<?>> types = new ArrayList<CtTypeReference<?>>(
+								inv.getExecutable().getParameterTypes());
+						int i = args.indexOf(targetedAccess);
+						args.remove(i);
+						types.remove(i);
 						for (CtExpression<?> va : vas) {
-							va.setParent(targetedAccess.getParent());
-							inv.getArguments().add(i, va);
-							inv.getExecutable().getParameterTypes()
-									.add(i, va.getType());
+							args.add(i, va);
+							types.add(i, va.getType());
 							i++;
 						}
+						inv.setArguments(args);
+						inv.getExecutable().setParameterTypes(types);
 					} else if ((value != null) && value.getClass().isArray()) {
 						toReplace.replace(f.Code().createLiteralArray(
 								(Object[]) value));
@@ -496,7 +502,8 @@ public class SubstitutionVisitor extends CtScanner {
 				} else if (o instanceof CtTypeReference) {
 					t = (CtTypeReference<?>) o;
 					reference
-							.setActualTypeArguments(t.getActualTypeArguments());
+							.setActualTypeArguments(new ArrayList<CtTypeReference<?>>(
+									t.getActualTypeArguments()));
 				} else {
 					throw new RuntimeException(
 							"unsupported reference substitution: "
@@ -538,16 +545,22 @@ public class SubstitutionVisitor extends CtScanner {
 								.createVariableAccesses(l);
 						CtAbstractInvocation<?> inv = (CtAbstractInvocation<?>) variableAccess
 								.getParent();
-						int i = inv.getArguments().indexOf(variableAccess);
-						inv.getArguments().remove(i);
-						inv.getExecutable().getParameterTypes().remove(i);
+						// the lists are replaced through the setters, which
+						// invalidate the cached signatures and declarations
+						List<CtExpression<?>> args = new ArrayList<CtExpression<?>>(
+								inv.getArguments());
+						List<CtTypeReference<?>> types = new ArrayList<CtTypeReference<?>>(
+								inv.getExecutable().getParameterTypes());
+						int i = args.indexOf(variableAccess);
+						args.remove(i);
+						types.remove(i);
 						for (CtExpression<?> va : vas) {
-							va.setParent(variableAccess.getParent());
-							inv.getArguments().add(i, va);
-							inv.getExecutable().getParameterTypes()
-									.add(i, va.getType());
+							args.add(i, va);
+							types.add(i, va.getType());
 							i++;
 						}
+						inv.setArguments(args);
+						inv.getExecutable().setParameterTypes(types);
 						// inv.getArguments().remove(variableAccess);
 						throw new SkipException(variableAccess);
 					}
@@ -569,7 +582,8 @@ public class SubstitutionVisitor extends CtScanner {
 				} else if (o instanceof CtTypeReference) {
 					t = (CtTypeReference<T>) o;
 					reference
-							.setActualTypeArguments(t.getActualTypeArguments());
+							.setActualTypeArguments(new ArrayList<CtTypeReference<?>>(
+									t.getActualTypeArguments()));
 				} else {
 					throw new RuntimeException(
 							"unsupported reference substitution");
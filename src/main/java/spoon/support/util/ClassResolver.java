@@ -0,0 +1,137 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+
+package spoon.support.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class loads classes by their qualified names from a class path, with
+ * a single class loader, and caches them by name. The names that cannot be
+ * found are cached too, so that they are not looked up again.
+ */
+public class ClassResolver implements Closeable {
+
+	private static final Object MISSING = new Object();
+
+	private final String[] classpath;
+
+	private final ClassLoader parent;
+
+	private final ConcurrentMap<String, Object> classes = new ConcurrentHashMap<>();
+
+	private volatile ClassLoader loader;
+
+	/**
+	 * Creates a resolver.
+	 * 
+	 * @param classpath
+	 *            the class path (may be null)
+	 * @param parent
+	 *            the class loader to look into before the class path
+	 */
+	public ClassResolver(String[] classpath, ClassLoader parent) {
+		this.classpath = classpath;
+		this.parent = parent;
+	}
+
+	/**
+	 * Gets the class loader the classes are looked into before the class
+	 * path.
+	 */
+	public ClassLoader getParent() {
+		return parent;
+	}
+
+	/**
+	 * Gets the class loader of the class path, which is created on the first
+	 * use.
+	 */
+	public ClassLoader getClassLoader() {
+		ClassLoader l = loader;
+		if (l == null) {
+			synchronized (this) {
+				l = loader;
+				if (l == null) {
+					int length = (classpath == null) ? 0 : classpath.length;
+					URL[] urls = new URL[length];
+					for (int i = 0; i < length; i++) {
+						try {
+							urls[i] = new File(classpath[i]).toURI().toURL();
+						} catch (MalformedURLException e) {
+							throw new IllegalStateException("Invalid classpath: "
+									+ classpath[i], e);
+						}
+					}
+					l = length == 0 ? parent : new URLClassLoader(urls, parent);
+					loader = l;
+				}
+			}
+		}
+		return l;
+	}
+
+	/**
+	 * Closes the class loader of the class path, if it has been created. The
+	 * classes it has loaded remain usable, but they cannot load the classes
+	 * and resources of the class path they have not loaded yet.
+	 */
+	@Override
+	public void close() throws IOException {
+		ClassLoader l;
+		synchronized (this) {
+			l = loader;
+			loader = null;
+		}
+		classes.clear();
+		if (l instanceof URLClassLoader && l != parent) {
+			((URLClassLoader) l).close();
+		}
+	}
+
+	/**
+	 * Loads a class.
+	 * 
+	 * @throws ClassNotFoundException
+	 *             if the class cannot be found (now or before)
+	 */
+	public Class<?> loadClass(String qualifiedName)
+			throws ClassNotFoundException {
+		Object c = classes.get(qualifiedName);
+		if (c == null) {
+			try {
+				c = Class.forName(qualifiedName, false, getClassLoader());
+			} catch (ClassNotFoundException e) {
+				c = MISSING;
+			}
+			classes.putIfAbsent(qualifiedName, c);
+		}
+		if (c == MISSING) {
+			throw new ClassNotFoundException(qualifiedName);
+		}
+		return (Class<?>) c;
+	}
+
+}
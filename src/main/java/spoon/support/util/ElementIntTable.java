@@ -0,0 +1,93 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+
+package spoon.support.util;
+
+import java.util.Arrays;
+
+import spoon.reflect.declaration.CtElement;
+
+/**
+ * A side table that associates <code>int</code> values to elements, stored
+ * unboxed in an array indexed by the element identifiers (see
+ * {@link CtElement#getId()}). Tables are created by
+ * {@link spoon.reflect.factory.MetadataFactory}.
+ */
+public class ElementIntTable {
+
+	private int[] values;
+
+	private final int defaultValue;
+
+	/**
+	 * Creates a table.
+	 * 
+	 * @param capacity
+	 *            the expected largest identifier
+	 * @param defaultValue
+	 *            the value of the elements that have no entry
+	 */
+	public ElementIntTable(int capacity, int defaultValue) {
+		this.defaultValue = defaultValue;
+		values = new int[Math.max(capacity + 1, 16)];
+		if (defaultValue != 0) {
+			Arrays.fill(values, defaultValue);
+		}
+	}
+
+	/**
+	 * Gets the value of the given element, or the default value.
+	 */
+	public int get(CtElement element) {
+		int id = element.getId();
+		return id < values.length ? values[id] : defaultValue;
+	}
+
+	/**
+	 * Sets the value of the given element.
+	 */
+	public void put(CtElement element, int value) {
+		int id = ElementTable.checkId(element);
+		if (id >= values.length) {
+			int length = values.length;
+			values = Arrays.copyOf(values, Math.max(id + 1, length * 2));
+			if (defaultValue != 0) {
+				Arrays.fill(values, length, values.length, defaultValue);
+			}
+		}
+		values[id] = value;
+	}
+
+	/**
+	 * Adds the given amount to the value of the given element and returns
+	 * the new value.
+	 */
+	public int add(CtElement element, int amount) {
+		int value = get(element) + amount;
+		put(element, value);
+		return value;
+	}
+
+	/**
+	 * Resets the values of all the elements to the default value.
+	 */
+	public void clear() {
+		Arrays.fill(values, defaultValue);
+	}
+
+}
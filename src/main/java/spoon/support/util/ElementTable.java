@@ -0,0 +1,193 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+
+package spoon.support.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+import spoon.reflect.declaration.CtElement;
+
+/**
+ * A side table that associates values to elements, stored in an array
+ * indexed by the element identifiers (see {@link CtElement#getId()}). Unlike
+ * a map keyed by the elements, it neither hashes nor retains the elements.
+ * In weak mode, the entries of the elements that have been garbage collected
+ * are removed. Tables are created by
+ * {@link spoon.reflect.factory.MetadataFactory}.
+ */
+public class ElementTable<V> {
+
+	private Object[] values;
+
+	private Key[] keys;
+
+	private ReferenceQueue<CtElement> queue;
+
+	private int size;
+
+	/**
+	 * Creates a table.
+	 * 
+	 * @param capacity
+	 *            the expected largest identifier
+	 * @param weak
+	 *            tells if the entries of the collected elements are removed
+	 */
+	public ElementTable(int capacity, boolean weak) {
+		values = new Object[Math.max(capacity + 1, 16)];
+		if (weak) {
+			keys = new Key[values.length];
+			queue = new ReferenceQueue<>();
+		}
+	}
+
+	/**
+	 * Gets the value associated to the given element, or null.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(CtElement element) {
+		expunge();
+		int id = element.getId();
+		return id < values.length ? (V) values[id] : null;
+	}
+
+	/**
+	 * Tells if a value is associated to the given element.
+	 */
+	public boolean containsKey(CtElement element) {
+		return get(element) != null;
+	}
+
+	/**
+	 * Associates a value to the given element.
+	 * 
+	 * @return the previous value, or null
+	 */
+	public V put(CtElement element, V value) {
+		if (value == null) {
+			return remove(element);
+		}
+		expunge();
+		int id = checkId(element);
+		ensureCapacity(id);
+		@SuppressWarnings("unchecked")
+		V old = (V) values[id];
+		values[id] = value;
+		if (old == null) {
+			size++;
+		}
+		if (keys != null && old == null) {
+			keys[id] = new Key(element, id, queue);
+		}
+		return old;
+	}
+
+	/**
+	 * Removes the value associated to the given element.
+	 * 
+	 * @return the removed value, or null
+	 */
+	public V remove(CtElement element) {
+		expunge();
+		int id = element.getId();
+		if (id >= values.length) {
+			return null;
+		}
+		@SuppressWarnings("unchecked")
+		V old = (V) values[id];
+		clear(id);
+		return old;
+	}
+
+	/**
+	 * Gets the number of entries of this table.
+	 */
+	public int size() {
+		expunge();
+		return size;
+	}
+
+	/**
+	 * Removes all the entries of this table.
+	 */
+	public void clear() {
+		Arrays.fill(values, null);
+		if (keys != null) {
+			Arrays.fill(keys, null);
+			while (queue.poll() != null) {
+				// drop the pending references
+			}
+		}
+		size = 0;
+	}
+
+	private void clear(int id) {
+		if (values[id] != null) {
+			values[id] = null;
+			size--;
+		}
+		if (keys != null) {
+			keys[id] = null;
+		}
+	}
+
+	private void ensureCapacity(int id) {
+		if (id >= values.length) {
+			int length = Math.max(id + 1, values.length * 2);
+			values = Arrays.copyOf(values, length);
+			if (keys != null) {
+				keys = Arrays.copyOf(keys, length);
+			}
+		}
+	}
+
+	private void expunge() {
+		if (queue == null) {
+			return;
+		}
+		Object r;
+		while ((r = queue.poll()) != null) {
+			Key key = (Key) r;
+			// the slot may have been reused by a later put
+			if (keys[key.id] == key) {
+				clear(key.id);
+			}
+		}
+	}
+
+	static int checkId(CtElement element) {
+		int id = element.getId();
+		if (id <= 0) {
+			throw new IllegalArgumentException("element has no identifier: "
+					+ element.getClass().getSimpleName());
+		}
+		return id;
+	}
+
+	private static class Key extends WeakReference<CtElement> {
+		final int id;
+
+		Key(CtElement element, int id, ReferenceQueue<CtElement> queue) {
+			super(element, queue);
+			this.id = id;
+		}
+	}
+
+}
@@ -0,0 +1,320 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+package spoon.support.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import spoon.SpoonException;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.reference.CtReference;
+
+/**
+ * The metamodel of the implementation classes of the elements and
+ * references: the roles (the properties that hold the children, the
+ * references and the values) of each class. The roles of a class are
+ * computed from its fields on the first request, with their accessors found
+ * and made accessible once, so that the generic operations on the model
+ * ({@link CtElement#replace(CtElement)}, the template matching) do not walk
+ * and unlock the class hierarchy on each call. The roles are read and
+ * written through the getters and setters of the elements where they exist,
+ * so that these operations see the same model as the direct calls.
+ */
+public class Metamodel {
+
+	/**
+	 * The kinds of roles, given by the declared type of the property.
+	 */
+	public enum Kind {
+		/** A child element. */
+		ELEMENT,
+		/** A reference. */
+		REFERENCE,
+		/** A list of children or references. */
+		LIST,
+		/** A set or another collection of children or references. */
+		COLLECTION,
+		/** A map (such as the values of an annotation). */
+		MAP,
+		/** Any other value (name, modifiers, literal value...). */
+		VALUE
+	}
+
+	/**
+	 * A role of an element class.
+	 */
+	public static final class Role {
+		private final Field field;
+
+		private final Kind kind;
+
+		/**
+		 * The public getter of this role, if any.
+		 */
+		private final Method getter;
+
+		/**
+		 * The public setter of this role, if any.
+		 */
+		private final Method setter;
+
+		Role(Class<?> c, Field field) {
+			this.field = field;
+			field.setAccessible(true);
+			getter = getGetter(c, field);
+			setter = getSetter(c, field);
+			Class<?> type = field.getType();
+			if (CtElement.class.isAssignableFrom(type)) {
+				kind = Kind.ELEMENT;
+			} else if (CtReference.class.isAssignableFrom(type)) {
+				kind = Kind.REFERENCE;
+			} else if (List.class.isAssignableFrom(type)) {
+				kind = Kind.LIST;
+			} else if (Collection.class.isAssignableFrom(type)) {
+				kind = Kind.COLLECTION;
+			} else if (Map.class.isAssignableFrom(type)) {
+				kind = Kind.MAP;
+			} else {
+				kind = Kind.VALUE;
+			}
+		}
+
+		/**
+		 * Gets the name of this role.
+		 */
+		public String getName() {
+			return field.getName();
+		}
+
+		/**
+		 * Gets the kind of this role.
+		 */
+		public Kind getKind() {
+			return kind;
+		}
+
+		/**
+		 * Tells if this role may hold elements or references (directly or in
+		 * a collection). The other roles hold plain values, except the
+		 * {@link Kind#VALUE} roles whose declared type is not final (such as
+		 * the value of a literal), which are also included.
+		 */
+		public boolean mayHoldElements() {
+			return kind != Kind.VALUE || !isPlainValue(field.getType());
+		}
+
+		/**
+		 * Gets the value of this role in the given element. The single values
+		 * are read with the getter of the role, if any, so that they are
+		 * built as with a direct call (such as the lazily built bodies). The
+		 * collections are read directly, since their getters may return
+		 * read-only views, whereas {@link CtElement#replace(CtElement)}
+		 * updates them in place.
+		 */
+		public Object get(Object element) {
+			try {
+				if (getter == null || kind == Kind.LIST
+						|| kind == Kind.COLLECTION || kind == Kind.MAP) {
+					return field.get(element);
+				}
+				return getter.invoke(element);
+			} catch (IllegalAccessException e) {
+				throw new SpoonException(e);
+			} catch (InvocationTargetException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new SpoonException(e.getCause());
+			}
+		}
+
+		/**
+		 * Sets the value of this role in the given element with its setter, so
+		 * that the parent and the cached signatures and names are maintained
+		 * as with a direct call. The roles that have no setter are assigned
+		 * directly.
+		 */
+		public void set(Object element, Object value) {
+			try {
+				if (setter == null) {
+					field.set(element, value);
+				} else {
+					setter.invoke(element, value);
+				}
+			} catch (IllegalAccessException e) {
+				throw new SpoonException(e);
+			} catch (InvocationTargetException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new SpoonException(e.getCause());
+			}
+		}
+
+		@Override
+		public String toString() {
+			return field.getDeclaringClass().getSimpleName() + "."
+					+ getName() + " (" + kind + ")";
+		}
+	}
+
+	/**
+	 * The fields that are not roles: the parent and the bookkeeping of the
+	 * elements (the static and transient fields are not roles either).
+	 */
+	private static final Set<String> NOT_ROLES = new HashSet<>(Arrays.asList(
+			"parent", "factory", "position", "sourceRange", "id",
+			"nameIndexes"));
+
+	/**
+	 * The setters whose name is not given by the name of their field, indexed
+	 * by the simple name of the class that declares the field and the name of
+	 * the field.
+	 */
+	private static final Map<String, String> SETTERS = new HashMap<>();
+
+	static {
+		SETTERS.put("CtArrayAccessImpl.expression", "setIndexExpression");
+		SETTERS.put("CtAssertImpl.asserted", "setAssertExpression");
+		SETTERS.put("CtAssertImpl.value", "setExpression");
+		SETTERS.put("CtDoImpl.expression", "setLoopingExpression");
+		SETTERS.put("CtNewClassImpl.annonymousClass", "setAnonymousClass");
+		SETTERS.put("CtSwitchImpl.expression", "setSelector");
+		SETTERS.put("CtThrowImpl.throwExpression", "setThrownExpression");
+		SETTERS.put("CtWhileImpl.expression", "setLoopingExpression");
+		SETTERS.put("CtClassImpl.superClass", "setSuperclass");
+		SETTERS.put("CtMethodImpl.returnType", "setType");
+		SETTERS.put("CtParameterReferenceImpl.executable",
+				"setDeclaringExecutable");
+		SETTERS.put("CtTypeReferenceImpl.pack", "setPackage");
+	}
+
+	private static final ConcurrentMap<Class<?>, Role[]> roles = new ConcurrentHashMap<>();
+
+	private static final ConcurrentMap<Class<?>, Role[]> elementRoles = new ConcurrentHashMap<>();
+
+	private Metamodel() {
+	}
+
+	/**
+	 * Gets all the roles of the given element or reference class.
+	 */
+	public static Role[] getRoles(Class<?> c) {
+		Role[] r = roles.get(c);
+		if (r == null) {
+			List<Role> l = new ArrayList<>();
+			for (Field f : RtHelper.getAllFields(c)) {
+				if (!Modifier.isStatic(f.getModifiers())
+						&& !Modifier.isTransient(f.getModifiers())
+						&& !NOT_ROLES.contains(f.getName())) {
+					l.add(new Role(c, f));
+				}
+			}
+			r = l.toArray(new Role[l.size()]);
+			roles.putIfAbsent(c, r);
+		}
+		return r;
+	}
+
+	/**
+	 * Gets the roles of the given class that may hold elements or
+	 * references (see {@link Role#mayHoldElements()}).
+	 */
+	public static Role[] getElementRoles(Class<?> c) {
+		Role[] r = elementRoles.get(c);
+		if (r == null) {
+			List<Role> l = new ArrayList<>();
+			for (Role role : getRoles(c)) {
+				if (role.mayHoldElements()) {
+					l.add(role);
+				}
+			}
+			r = l.toArray(new Role[l.size()]);
+			elementRoles.putIfAbsent(c, r);
+		}
+		return r;
+	}
+
+	/**
+	 * Gets the public getter of a field (get or is followed by the name of
+	 * the setter, see {@link #getSetter(Class, Field)}), or null if the class
+	 * has none.
+	 */
+	private static Method getGetter(Class<?> c, Field field) {
+		String name = getAccessorName(field);
+		for (Method m : c.getMethods()) {
+			if ((m.getName().equals("get" + name) || m.getName().equals(
+					"is" + name))
+					&& m.getParameterTypes().length == 0
+					&& (m.getReturnType().isAssignableFrom(field.getType()) || field
+							.getType().isAssignableFrom(m.getReturnType()))) {
+				return m;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the public setter of a field (set followed by the capitalized name
+	 * of the field, unless it is given by {@link #SETTERS}), or null if the
+	 * class has none.
+	 */
+	private static Method getSetter(Class<?> c, Field field) {
+		String name = "set" + getAccessorName(field);
+		for (Method m : c.getMethods()) {
+			if (m.getName().equals(name)
+					&& m.getParameterTypes().length == 1
+					&& m.getParameterTypes()[0].isAssignableFrom(field
+							.getType())) {
+				return m;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the name of the accessors of a field, without their prefix.
+	 */
+	private static String getAccessorName(Field field) {
+		String name = SETTERS.get(field.getDeclaringClass().getSimpleName()
+				+ "." + field.getName());
+		if (name != null) {
+			return name.substring(3);
+		}
+		return Character.toUpperCase(field.getName().charAt(0))
+				+ field.getName().substring(1);
+	}
+
+	private static boolean isPlainValue(Class<?> type) {
+		return type.isPrimitive() || type.isEnum() || type == String.class
+				|| Modifier.isFinal(type.getModifiers());
+	}
+
+}
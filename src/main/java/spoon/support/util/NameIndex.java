@@ -0,0 +1,224 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+package spoon.support.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import spoon.reflect.declaration.CtNamedElement;
+import spoon.support.reflect.declaration.CtElementImpl;
+import spoon.support.reflect.declaration.CtNamedElementImpl;
+
+/**
+ * An index of named elements by their simple names, used by the member
+ * tables of types and packages ({@link NamedElementSet} and
+ * {@link NamedElementList}). The indexed elements know their indexes, which
+ * are updated when they are renamed. Since the member tables can be modified
+ * directly, the changes of an index invalidate the model of the factory of
+ * the element (see {@link spoon.reflect.factory.MetadataFactory}).
+ */
+public class NameIndex<E extends CtNamedElement> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Map<String, List<E>> index = new HashMap<>();
+
+	void add(E element) {
+		List<E> l = index.get(element.getSimpleName());
+		if (l == null) {
+			l = new ArrayList<>(1);
+			index.put(element.getSimpleName(), l);
+		}
+		l.add(element);
+		if (element instanceof CtNamedElementImpl) {
+			((CtNamedElementImpl) element).addNameIndex(this);
+		}
+		CtElementImpl.invalidateModel(element.getFactory());
+	}
+
+	/**
+	 * Removes the given element (compared by identity) from this index.
+	 */
+	void remove(E element) {
+		if (!remove(element.getSimpleName(), element)) {
+			// the element was renamed behind the index's back
+			for (String name : new ArrayList<>(index.keySet())) {
+				if (remove(name, element)) {
+					return;
+				}
+			}
+		}
+	}
+
+	private boolean remove(String name, E element) {
+		List<E> l = index.get(name);
+		if (l == null) {
+			return false;
+		}
+		for (Iterator<E> it = l.iterator(); it.hasNext();) {
+			if (it.next() == element) {
+				it.remove();
+				if (l.isEmpty()) {
+					index.remove(name);
+				}
+				if (element instanceof CtNamedElementImpl) {
+					((CtNamedElementImpl) element).removeNameIndex(this);
+				}
+				CtElementImpl.invalidateModel(element.getFactory());
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the indexed element that is the same as or equal to the given
+	 * object, or null if none.
+	 */
+	E find(Object o) {
+		if (!(o instanceof CtNamedElement)) {
+			return null;
+		}
+		List<E> l = index.get(((CtNamedElement) o).getSimpleName());
+		if (l == null) {
+			return null;
+		}
+		for (E e : l) {
+			if (e == o) {
+				return e;
+			}
+		}
+		for (E e : l) {
+			if (e.equals(o)) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the first indexed element with the given simple name.
+	 */
+	E first(String name) {
+		List<E> l = index.get(name);
+		if (l != null) {
+			for (E e : l) {
+				if (sameName(name, e)) {
+					return e;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets all the indexed elements with the given simple name.
+	 */
+	List<E> get(String name) {
+		List<E> l = index.get(name);
+		if (l == null) {
+			return new ArrayList<>(0);
+		}
+		List<E> result = new ArrayList<>(l.size());
+		for (E e : l) {
+			if (sameName(name, e)) {
+				result.add(e);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Moves an element of this index that has been renamed to its new name.
+	 */
+	@SuppressWarnings("unchecked")
+	public void rename(CtNamedElement element, String oldName) {
+		if (sameName(oldName, element)) {
+			return;
+		}
+		if (remove(oldName, (E) element)) {
+			add((E) element);
+		}
+	}
+
+	private static boolean sameName(String name, CtNamedElement e) {
+		return name == null ? e.getSimpleName() == null : name.equals(e
+				.getSimpleName());
+	}
+
+	void clear() {
+		for (List<E> l : index.values()) {
+			for (E e : l) {
+				if (e instanceof CtNamedElementImpl) {
+					((CtNamedElementImpl) e).removeNameIndex(this);
+				}
+				CtElementImpl.invalidateModel(e.getFactory());
+			}
+		}
+		index.clear();
+	}
+
+	/**
+	 * Gets the elements with the given simple name in a collection, using
+	 * its index if it is a member table.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E extends CtNamedElement> List<E> get(Collection<E> c,
+			String name) {
+		if (c instanceof NamedElementSet) {
+			return ((NamedElementSet<E>) c).get(name);
+		}
+		if (c instanceof NamedElementList) {
+			return ((NamedElementList<E>) c).get(name);
+		}
+		List<E> result = new ArrayList<>();
+		for (E e : c) {
+			if (sameName(name, e)) {
+				result.add(e);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the first element with the given simple name in a collection,
+	 * using its index if it is a member table.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E extends CtNamedElement> E first(Collection<E> c,
+			String name) {
+		if (c instanceof NamedElementSet) {
+			return ((NamedElementSet<E>) c).first(name);
+		}
+		if (c instanceof NamedElementList) {
+			return ((NamedElementList<E>) c).first(name);
+		}
+		for (E e : c) {
+			if (sameName(name, e)) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+package spoon.support.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import spoon.reflect.declaration.CtNamedElement;
+
+/**
+ * A list of named elements, indexed by simple name. The elements renamed
+ * with {@link CtNamedElement#setSimpleName(String)} are re-indexed. The
+ * index is rebuilt when the list is modified by an operation that bypasses
+ * the overridden ones (such as the bulk operations of Java 8), which is
+ * detected with the modification count of the list.
+ */
+public class NamedElementList<E extends CtNamedElement> extends ArrayList<E> {
+
+	private static final long serialVersionUID = 1L;
+
+	private NameIndex<E> index = new NameIndex<>();
+
+	private transient int indexedModCount;
+
+	public NamedElementList() {
+		super();
+	}
+
+	public NamedElementList(Collection<? extends E> c) {
+		this();
+		addAll(c);
+	}
+
+	private NameIndex<E> index() {
+		if (indexedModCount != modCount) {
+			index.clear();
+			for (int i = 0; i < size(); i++) {
+				index.add(get(i));
+			}
+			indexedModCount = modCount;
+		}
+		return index;
+	}
+
+	@Override
+	public boolean add(E element) {
+		NameIndex<E> index = index();
+		super.add(element);
+		index.add(element);
+		indexedModCount = modCount;
+		return true;
+	}
+
+	@Override
+	public void add(int i, E element) {
+		NameIndex<E> index = index();
+		super.add(i, element);
+		index.add(element);
+		indexedModCount = modCount;
+	}
+
+	@Override
+	public E set(int i, E element) {
+		NameIndex<E> index = index();
+		E old = super.set(i, element);
+		index.remove(old);
+		index.add(element);
+		return old;
+	}
+
+	@Override
+	public E remove(int i) {
+		NameIndex<E> index = index();
+		E old = super.remove(i);
+		index.remove(old);
+		indexedModCount = modCount;
+		return old;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int i = indexOf(o);
+		if (i < 0) {
+			return false;
+		}
+		remove(i);
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		index.clear();
+		indexedModCount = modCount;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return index().find(o) != null;
+	}
+
+	/**
+	 * Gets the elements with the given simple name, in insertion order.
+	 */
+	public List<E> get(String name) {
+		return index().get(name);
+	}
+
+	/**
+	 * Gets the first element with the given simple name, or null if none.
+	 */
+	public E first(String name) {
+		return index().first(name);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public NamedElementList<E> clone() {
+		NamedElementList<E> clone = (NamedElementList<E>) super.clone();
+		clone.index = new NameIndex<>();
+		clone.indexedModCount = clone.modCount - 1;
+		return clone;
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+package spoon.support.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import spoon.reflect.declaration.CtNamedElement;
+
+/**
+ * An insertion-ordered set of named elements, indexed by simple name. As with
+ * the sorted sets it replaces, two equal elements (same signature) cannot be
+ * both contained, but only the elements with the same name are compared, so
+ * that adding an element does not need to compute its signature in general.
+ * The elements renamed with {@link CtNamedElement#setSimpleName(String)} are
+ * re-indexed. It extends {@link LinkedHashSet} (whose own storage stays
+ * empty) rather than {@link java.util.AbstractSet} so that it can be compiled
+ * against the default methods of Java 8 by older compilers, such as the one
+ * of Spoon. Hence, all the methods that read the storage of
+ * {@link LinkedHashSet} directly (as {@link #toArray()} does in recent JDKs)
+ * are overridden, and its spliterator goes through {@link #iterator()}.
+ */
+public class NamedElementSet<E extends CtNamedElement> extends
+		LinkedHashSet<E> implements Serializable, Cloneable {
+
+	private static final long serialVersionUID = 1L;
+
+	private ArrayList<E> elements = new ArrayList<>();
+
+	private NameIndex<E> index = new NameIndex<>();
+
+	public NamedElementSet() {
+		super(0);
+	}
+
+	public NamedElementSet(Collection<? extends E> c) {
+		this();
+		addAll(c);
+	}
+
+	@Override
+	public boolean add(E e) {
+		if (index.find(e) != null) {
+			return false;
+		}
+		elements.add(e);
+		index.add(e);
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return index.find(o) != null;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		E e = index.find(o);
+		if (e == null) {
+			return false;
+		}
+		removeElement(e);
+		index.remove(e);
+		return true;
+	}
+
+	private void removeElement(E e) {
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			if (elements.get(i) == e) {
+				elements.remove(i);
+				return;
+			}
+		}
+	}
+
+	@Override
+	public void clear() {
+		elements.clear();
+		index.clear();
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		final Iterator<E> it = elements.iterator();
+		return new Iterator<E>() {
+			E last;
+
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			public E next() {
+				return last = it.next();
+			}
+
+			public void remove() {
+				it.remove();
+				index.remove(last);
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return elements.isEmpty();
+	}
+
+	@Override
+	public Object[] toArray() {
+		return elements.toArray();
+	}
+
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return elements.toArray(a);
+	}
+
+	/**
+	 * Gets the elements with the given simple name, in insertion order.
+	 */
+	public List<E> get(String name) {
+		return index.get(name);
+	}
+
+	/**
+	 * Gets the first element with the given simple name, or null if none.
+	 */
+	public E first(String name) {
+		return index.first(name);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public NamedElementSet<E> clone() {
+		NamedElementSet<E> clone = (NamedElementSet<E>) super.clone();
+		clone.elements = new ArrayList<>();
+		clone.index = new NameIndex<>();
+		clone.addAll(this);
+		return clone;
+	}
+
+}
@@ -22,9 +22,9 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
 import spoon.reflect.code.CtExpression;
 import spoon.reflect.code.CtInvocation;
@@ -113,7 +113,7 @@ public abstract class RtHelper {
 	 * (java.lang.reflect).
 	 */
 	public static Set<ModifierKind> getModifiers(int mod) {
-		Set<ModifierKind> set = new TreeSet<ModifierKind>();
+		Set<ModifierKind> set = EnumSet.noneOf(ModifierKind.class);
 		if (Modifier.isAbstract(mod)) {
 			set.add(ModifierKind.ABSTRACT);
 		}
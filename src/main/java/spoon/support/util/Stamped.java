@@ -0,0 +1,49 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+package spoon.support.util;
+
+/**
+ * An immutable value cached with the generation of the model for which it
+ * was computed. Both are published together by assigning the holder to a
+ * single volatile field, so that a concurrent reader never sees a stamp with
+ * the value of another generation.
+ */
+public final class Stamped<V> {
+
+	private final long stamp;
+
+	private final V value;
+
+	public Stamped(long stamp, V value) {
+		this.stamp = stamp;
+		this.value = value;
+	}
+
+	/**
+	 * Tells if the given holder is not null and was computed for the given
+	 * generation.
+	 */
+	public static boolean isValid(Stamped<?> stamped, long generation) {
+		return stamped != null && stamped.stamp == generation;
+	}
+
+	public V getValue() {
+		return value;
+	}
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+package spoon.support.util;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import spoon.reflect.declaration.CtAnnotationType;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtEnum;
+import spoon.reflect.declaration.CtSimpleType;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.reference.CtTypeReference;
+
+/**
+ * This class indexes the supertypes of the types known by a factory, whether
+ * they are declared in the model or loaded from the class path, so that the
+ * subtyping queries do not walk the hierarchy.
+ * 
+ * <p>
+ * The types are identified by their qualified names, which are numbered, and
+ * the supertypes of a type are encoded as a bit set of these numbers. They
+ * are computed on demand and dropped when the type or one of its supertypes
+ * changes (see {@link #typeChanged(String)}).
+ */
+public class TypeHierarchy {
+
+	private final Factory factory;
+
+	private final ConcurrentMap<String, Integer> numbers = new ConcurrentHashMap<>();
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	private final ConcurrentMap<String, BitSet> supertypes = new ConcurrentHashMap<>();
+
+	/**
+	 * Incremented by the changes, so that the supertypes computed during a
+	 * change are not kept.
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * Creates the hierarchy of the types of a factory.
+	 */
+	public TypeHierarchy(Factory factory) {
+		this.factory = factory;
+	}
+
+	/**
+	 * Tells if a type is a subtype of another one (or the same type). The
+	 * type arguments are ignored.
+	 * 
+	 * @param subType
+	 *            the qualified name of the subtype
+	 * @param superType
+	 *            the qualified name of the supertype
+	 */
+	public boolean isSubtype(String subType, String superType) {
+		if (subType.equals(superType)) {
+			return true;
+		}
+		BitSet bits = supertypes.get(subType);
+		if (bits == null) {
+			bits = getSupertypes(subType, new HashSet<String>());
+		}
+		Integer number = numbers.get(superType);
+		return number != null && bits.get(number);
+	}
+
+	/**
+	 * Drops the supertypes of a type and of its subtypes. It is called by the
+	 * model when the supertypes of a type change, and when a type is added,
+	 * removed or renamed. The changes made directly to the references to the
+	 * supertypes are not tracked.
+	 */
+	public void typeChanged(String qualifiedName) {
+		generation.incrementAndGet();
+		Integer number = qualifiedName == null ? null : numbers
+				.get(qualifiedName);
+		if (number == null) {
+			// no supertypes were computed with this type
+			return;
+		}
+		supertypes.remove(qualifiedName);
+		for (Iterator<BitSet> it = supertypes.values().iterator(); it
+				.hasNext();) {
+			if (it.next().get(number)) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Drops all the supertypes, when a type that cannot be identified by
+	 * name changes (such as a local type).
+	 */
+	public void clear() {
+		generation.incrementAndGet();
+		supertypes.clear();
+	}
+
+	private BitSet getSupertypes(String qualifiedName, Set<String> visiting) {
+		BitSet bits = supertypes.get(qualifiedName);
+		if (bits != null) {
+			return bits;
+		}
+		bits = new BitSet();
+		bits.set(number(qualifiedName));
+		if (!visiting.add(qualifiedName)) {
+			// cyclic hierarchy
+			return bits;
+		}
+		long stamp = generation.get();
+		for (String name : getDirectSupertypes(qualifiedName)) {
+			bits.or(getSupertypes(name, visiting));
+		}
+		visiting.remove(qualifiedName);
+		if (generation.get() == stamp) {
+			supertypes.put(qualifiedName, bits);
+		}
+		return bits;
+	}
+
+	private List<String> getDirectSupertypes(String qualifiedName) {
+		List<String> names = new ArrayList<String>();
+		CtSimpleType<?> type = factory.Type().get(qualifiedName);
+		if (type != null) {
+			if (type instanceof CtType) {
+				for (CtTypeReference<?> ref : ((CtType<?>) type)
+						.getSuperInterfaces()) {
+					names.add(ref.getQualifiedName());
+				}
+			}
+			if (type instanceof CtEnum) {
+				names.add(Enum.class.getName());
+			} else if (type instanceof CtClass
+					&& ((CtClass<?>) type).getSuperclass() != null) {
+				names.add(((CtClass<?>) type).getSuperclass()
+						.getQualifiedName());
+			} else if (type instanceof CtAnnotationType) {
+				names.add(Annotation.class.getName());
+			}
+			names.add(Object.class.getName());
+		} else {
+			try {
+				Class<?> c = factory.getEnvironment().loadClass(qualifiedName);
+				for (Class<?> i : c.getInterfaces()) {
+					names.add(i.getName());
+				}
+				if (c.getSuperclass() != null) {
+					names.add(c.getSuperclass().getName());
+				} else if (c != Object.class) {
+					names.add(Object.class.getName());
+				}
+			} catch (ClassNotFoundException e) {
+				// the type is unknown: it has no other supertypes
+			}
+		}
+		return names;
+	}
+
+	private int number(String qualifiedName) {
+		Integer number = numbers.get(qualifiedName);
+		if (number == null) {
+			Integer created = count.getAndIncrement();
+			number = numbers.putIfAbsent(qualifiedName, created);
+			if (number == null) {
+				number = created;
+			}
+		}
+		return number;
+	}
+
+}
@@ -0,0 +1,870 @@
+/*
+ * Spoon - http://spoon.gforge.inria.fr/
+ * Copyright (C) 2006 INRIA Futurs <renaud.pawlak@inria.fr>
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+
+
+package spoon.support.visitor;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import spoon.reflect.code.CtAnnotationFieldAccess;
+import spoon.reflect.code.CtArrayAccess;
+import spoon.reflect.code.CtAssert;
+import spoon.reflect.code.CtAssignment;
+import spoon.reflect.code.CtBinaryOperator;
+import spoon.reflect.code.CtBlock;
+import spoon.reflect.code.CtBreak;
+import spoon.reflect.code.CtCase;
+import spoon.reflect.code.CtCatch;
+import spoon.reflect.code.CtCodeSnippetExpression;
+import spoon.reflect.code.CtCodeSnippetStatement;
+import spoon.reflect.code.CtConditional;
+import spoon.reflect.code.CtContinue;
+import spoon.reflect.code.CtDo;
+import spoon.reflect.code.CtExpression;
+import spoon.reflect.code.CtFor;
+import spoon.reflect.code.CtForEach;
+import spoon.reflect.code.CtIf;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.code.CtLiteral;
+import spoon.reflect.code.CtLocalVariable;
+import spoon.reflect.code.CtNewArray;
+import spoon.reflect.code.CtNewClass;
+import spoon.reflect.code.CtOperatorAssignment;
+import spoon.reflect.code.CtReturn;
+import spoon.reflect.code.CtStatement;
+import spoon.reflect.code.CtStatementList;
+import spoon.reflect.code.CtSuperAccess;
+import spoon.reflect.code.CtSwitch;
+import spoon.reflect.code.CtSynchronized;
+import spoon.reflect.code.CtTargetedAccess;
+import spoon.reflect.code.CtThisAccess;
+import spoon.reflect.code.CtThrow;
+import spoon.reflect.code.CtTry;
+import spoon.reflect.code.CtUnaryOperator;
+import spoon.reflect.code.CtVariableAccess;
+import spoon.reflect.code.CtWhile;
+import spoon.reflect.declaration.CtAnnotation;
+import spoon.reflect.declaration.CtAnnotationType;
+import spoon.reflect.declaration.CtAnonymousExecutable;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtConstructor;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtEnum;
+import spoon.reflect.declaration.CtExecutable;
+import spoon.reflect.declaration.CtField;
+import spoon.reflect.declaration.CtInterface;
+import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtModifiable;
+import spoon.reflect.declaration.CtNamedElement;
+import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtParameter;
+import spoon.reflect.declaration.CtSimpleType;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.CtTypeParameter;
+import spoon.reflect.declaration.CtTypedElement;
+import spoon.reflect.declaration.CtVariable;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.reference.CtArrayTypeReference;
+import spoon.reflect.reference.CtExecutableReference;
+import spoon.reflect.reference.CtFieldReference;
+import spoon.reflect.reference.CtLocalVariableReference;
+import spoon.reflect.reference.CtPackageReference;
+import spoon.reflect.reference.CtParameterReference;
+import spoon.reflect.reference.CtReference;
+import spoon.reflect.reference.CtTypeParameterReference;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.reference.CtVariableReference;
+import spoon.reflect.visitor.CtVisitor;
+import spoon.support.reflect.declaration.CtElementImpl;
+import spoon.support.reflect.declaration.CtExecutableImpl;
+
+/**
+ * This visitor makes deep copies of elements and references. Each kind of
+ * element is created directly with the core factory of the target factory,
+ * and its children are copied and attached through the setters of the
+ * model, so that the parents of the copies are set as they are built. The
+ * copy of the root element has no parent.
+ *
+ * <p>
+ * By default, references are copied too, since they may be modified in
+ * place afterwards (by templates for instance). When the copies are only
+ * read or when their references are replaced rather than modified, they can
+ * be shared with the original elements.
+ */
+public class ElementCopier implements CtVisitor {
+
+	private final Factory factory;
+
+	private final boolean shareReferences;
+
+	/**
+	 * The copies of the local variables, so that the references to a copied
+	 * variable point to its copy.
+	 */
+	private final Map<CtLocalVariable<?>, CtLocalVariable<?>> variables = new IdentityHashMap<>();
+
+	/**
+	 * The copy made by the last visit.
+	 */
+	private Object result;
+
+	/**
+	 * Creates a copier that copies the references.
+	 *
+	 * @param factory
+	 *            the factory the copies belong to
+	 */
+	public ElementCopier(Factory factory) {
+		this(factory, false);
+	}
+
+	/**
+	 * Creates a copier.
+	 *
+	 * @param factory
+	 *            the factory the copies belong to
+	 * @param shareReferences
+	 *            true to share the references of the copied elements instead
+	 *            of copying them
+	 */
+	public ElementCopier(Factory factory, boolean shareReferences) {
+		this.factory = factory;
+		this.shareReferences = shareReferences;
+	}
+
+	/**
+	 * Copies an element or a reference. Other objects are returned as they
+	 * are.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T copy(T object) {
+		if (object instanceof CtElement) {
+			return (T) copyElement((CtElement) object);
+		}
+		if (object instanceof CtReference) {
+			return (T) copyReference((CtReference) object);
+		}
+		return object;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <E extends CtElement> E copyElement(E element) {
+		if (element == null) {
+			return null;
+		}
+		element.accept(this);
+		return (E) result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <R extends CtReference> R copyReference(R reference) {
+		if (reference == null || shareReferences) {
+			return reference;
+		}
+		reference.accept(this);
+		return (R) result;
+	}
+
+	private <E extends CtElement> List<E> copyElements(List<E> elements) {
+		List<E> copies = new ArrayList<>(elements.size());
+		for (E e : elements) {
+			copies.add(copyElement(e));
+		}
+		return copies;
+	}
+
+	private <R extends CtReference> List<R> copyReferences(List<R> references) {
+		List<R> copies = new ArrayList<>(references.size());
+		for (R r : references) {
+			copies.add(copyReference(r));
+		}
+		return copies;
+	}
+
+	/**
+	 * Copies a value of an annotation element, which may be an array or a
+	 * list of values.
+	 */
+	private Object copyValue(Object value, CtElement parent) {
+		if (value instanceof CtElement) {
+			CtElement copy = copyElement((CtElement) value);
+			copy.setParent(parent);
+			return copy;
+		}
+		if (value instanceof CtReference) {
+			return copyReference((CtReference) value);
+		}
+		if (value instanceof Object[]) {
+			Object[] values = (Object[]) value;
+			Object[] copies = (Object[]) Array.newInstance(value.getClass()
+					.getComponentType(), values.length);
+			for (int i = 0; i < values.length; i++) {
+				copies[i] = copyValue(values[i], parent);
+			}
+			return copies;
+		}
+		if (value instanceof Collection) {
+			Collection<?> values = (Collection<?>) value;
+			List<Object> copies = new ArrayList<>(values.size());
+			for (Object v : values) {
+				copies.add(copyValue(v, parent));
+			}
+			return copies;
+		}
+		return value;
+	}
+
+	/**
+	 * Copies the attributes that are common to several kinds of elements.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private <E extends CtElement> E copyCommon(E element, E copy) {
+		copy.setFactory(factory);
+		if (element instanceof CtElementImpl && copy instanceof CtElementImpl) {
+			((CtElementImpl) copy).copyPosition((CtElementImpl) element);
+		} else {
+			copy.setPosition(element.getPosition());
+		}
+		copy.setDocComment(element.getDocComment());
+		if (element.isImplicit()) {
+			copy.setImplicit(true);
+		}
+		if (!element.getAnnotations().isEmpty()) {
+			copy.setAnnotations(copyElements(element.getAnnotations()));
+		}
+		// the name and the type of a constructor come from its declaring type
+		boolean constructor = element instanceof CtConstructor;
+		if (element instanceof CtNamedElement && !constructor) {
+			((CtNamedElement) copy).setSimpleName(((CtNamedElement) element)
+					.getSimpleName());
+		}
+		if (element instanceof CtModifiable
+				&& !((CtModifiable) element).getModifiers().isEmpty()) {
+			((CtModifiable) copy).setModifiers(EnumSet
+					.copyOf(((CtModifiable) element).getModifiers()));
+		}
+		if (element instanceof CtStatement
+				&& ((CtStatement) element).getLabel() != null) {
+			((CtStatement) copy).setLabel(((CtStatement) element).getLabel());
+		}
+		if (element instanceof CtTypedElement && !constructor) {
+			((CtTypedElement) copy).setType(copyReference(((CtTypedElement) element)
+					.getType()));
+		}
+		if (element instanceof CtExpression
+				&& !((CtExpression<?>) element).getTypeCasts().isEmpty()) {
+			((CtExpression<?>) copy).setTypeCasts(copyReferences(((CtExpression<?>) element)
+					.getTypeCasts()));
+		}
+		return copy;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void copyExecutable(CtExecutable<?> executable, CtExecutable copy) {
+		if (!executable.getFormalTypeParameters().isEmpty()) {
+			copy.setFormalTypeParameters(copyReferences(executable
+					.getFormalTypeParameters()));
+		}
+		if (!executable.getParameters().isEmpty()) {
+			copy.setParameters(copyElements(executable.getParameters()));
+		}
+		for (CtTypeReference<? extends Throwable> t : executable
+				.getThrownTypes()) {
+			copy.addThrownType(copyReference(t));
+		}
+		// a body that is not built yet is built by the copy on its own, as
+		// long as the copy stays in the same factory
+		if (executable instanceof CtExecutableImpl
+				&& copy instanceof CtExecutableImpl
+				&& ((CtExecutableImpl<?>) executable).getBodyLoader() != null
+				&& executable.getFactory() == factory) {
+			((CtExecutableImpl<?>) copy)
+					.setBodyLoader(((CtExecutableImpl<?>) executable)
+							.getBodyLoader());
+		} else {
+			copy.setBody(copyElement(executable.getBody()));
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void copyType(CtSimpleType<?> type, CtSimpleType copy) {
+		for (CtField<?> f : type.getFields()) {
+			copy.addField(copyElement(f));
+		}
+		for (CtSimpleType<?> t : type.getNestedTypes()) {
+			copy.addNestedType(copyElement(t));
+		}
+		if (type instanceof CtType) {
+			CtType<?> t = (CtType<?>) type;
+			if (!t.getFormalTypeParameters().isEmpty()) {
+				((CtType) copy).setFormalTypeParameters(copyReferences(t
+						.getFormalTypeParameters()));
+			}
+			for (CtTypeReference<?> i : t.getSuperInterfaces()) {
+				((CtType) copy).addSuperInterface(copyReference(i));
+			}
+			for (CtMethod<?> m : t.getMethods()) {
+				((CtType) copy).addMethod(copyElement(m));
+			}
+		}
+	}
+
+	private <T> void copyVariable(CtVariable<T> variable, CtVariable<T> copy) {
+		copy.setDefaultExpression(copyElement(variable.getDefaultExpression()));
+	}
+
+	private <T> void copyTypeReference(CtTypeReference<T> reference,
+			CtTypeReference<T> copy) {
+		copy.setFactory(factory);
+		copy.setSimpleName(reference.getSimpleName());
+		copy.setPackage(copyReference(reference.getPackage()));
+		copy.setDeclaringType(copyReference(reference.getDeclaringType()));
+		if (!reference.getActualTypeArguments().isEmpty()) {
+			copy.setActualTypeArguments(copyReferences(reference
+					.getActualTypeArguments()));
+		}
+		if (reference.isSuperReference()) {
+			copy.setSuperReference(true);
+		}
+	}
+
+	public <A extends Annotation> void visitCtAnnotation(
+			CtAnnotation<A> annotation) {
+		CtAnnotation<A> copy = copyCommon(annotation, factory.Core()
+				.<A> createAnnotation());
+		copy.setAnnotationType(copyReference(annotation.getAnnotationType()));
+		if (!annotation.getElementValues().isEmpty()) {
+			Map<String, Object> values = new TreeMap<>();
+			for (Entry<String, Object> e : annotation.getElementValues()
+					.entrySet()) {
+				values.put(e.getKey(), copyValue(e.getValue(), copy));
+			}
+			copy.setElementValues(values);
+		}
+		result = copy;
+	}
+
+	public <T> void visitCtCodeSnippetExpression(
+			CtCodeSnippetExpression<T> expression) {
+		CtCodeSnippetExpression<T> copy = copyCommon(expression, factory
+				.Core().<T> createCodeSnippetExpression());
+		copy.setValue(expression.getValue());
+		result = copy;
+	}
+
+	public void visitCtCodeSnippetStatement(CtCodeSnippetStatement statement) {
+		CtCodeSnippetStatement copy = copyCommon(statement, factory.Core()
+				.createCodeSnippetStatement());
+		copy.setValue(statement.getValue());
+		result = copy;
+	}
+
+	public <A extends Annotation> void visitCtAnnotationType(
+			CtAnnotationType<A> annotationType) {
+		CtAnnotationType<A> copy = copyCommon(annotationType, factory.Core()
+				.<A> createAnnotationType());
+		copyType(annotationType, copy);
+		result = copy;
+	}
+
+	public void visitCtAnonymousExecutable(CtAnonymousExecutable anonymousExec) {
+		CtAnonymousExecutable copy = copyCommon(anonymousExec, factory.Core()
+				.createAnonymousExecutable());
+		copy.setBody(copyElement(anonymousExec.getBody()));
+		result = copy;
+	}
+
+	public <T, E extends CtExpression<?>> void visitCtArrayAccess(
+			CtArrayAccess<T, E> arrayAccess) {
+		CtArrayAccess<T, E> copy = copyCommon(arrayAccess, factory.Core()
+				.<T, E> createArrayAccess());
+		copy.setTarget(copyElement(arrayAccess.getTarget()));
+		copy.setIndexExpression(copyElement(arrayAccess.getIndexExpression()));
+		result = copy;
+	}
+
+	public <T> void visitCtArrayTypeReference(CtArrayTypeReference<T> reference) {
+		CtArrayTypeReference<T> copy = factory.Core()
+				.createArrayTypeReference();
+		copyTypeReference(reference, copy);
+		copy.setComponentType(copyReference(reference.getComponentType()));
+		result = copy;
+	}
+
+	public <T> void visitCtAssert(CtAssert<T> asserted) {
+		CtAssert<T> copy = copyCommon(asserted, factory.Core().<T> createAssert());
+		copy.setAssertExpression(copyElement(asserted.getAssertExpression()));
+		copy.setExpression(copyElement(asserted.getExpression()));
+		result = copy;
+	}
+
+	public <T, A extends T> void visitCtAssignment(
+			CtAssignment<T, A> assignement) {
+		CtAssignment<T, A> copy = copyCommon(assignement, factory.Core()
+				.<T, A> createAssignment());
+		copy.setAssigned(copyElement(assignement.getAssigned()));
+		copy.setAssignment(copyElement(assignement.getAssignment()));
+		result = copy;
+	}
+
+	public <T> void visitCtBinaryOperator(CtBinaryOperator<T> operator) {
+		CtBinaryOperator<T> copy = copyCommon(operator, factory.Core()
+				.<T> createBinaryOperator());
+		copy.setKind(operator.getKind());
+		copy.setLeftHandOperand(copyElement(operator.getLeftHandOperand()));
+		copy.setRightHandOperand(copyElement(operator.getRightHandOperand()));
+		result = copy;
+	}
+
+	public <R> void visitCtBlock(CtBlock<R> block) {
+		CtBlock<R> copy = copyCommon(block, factory.Core().<R> createBlock());
+		if (!block.getStatements().isEmpty()) {
+			copy.setStatements(copyElements(block.getStatements()));
+		}
+		result = copy;
+	}
+
+	public void visitCtBreak(CtBreak breakStatement) {
+		CtBreak copy = copyCommon(breakStatement, factory.Core().createBreak());
+		copy.setTargetLabel(breakStatement.getTargetLabel());
+		result = copy;
+	}
+
+	public <S> void visitCtCase(CtCase<S> caseStatement) {
+		CtCase<S> copy = copyCommon(caseStatement, factory.Core()
+				.<S> createCase());
+		copy.setCaseExpression(copyElement(caseStatement.getCaseExpression()));
+		if (!caseStatement.getStatements().isEmpty()) {
+			copy.setStatements(copyElements(caseStatement.getStatements()));
+		}
+		result = copy;
+	}
+
+	public void visitCtCatch(CtCatch catchBlock) {
+		CtCatch copy = copyCommon(catchBlock, factory.Core().createCatch());
+		copy.setParameter(copyElement(catchBlock.getParameter()));
+		copy.setBody(copyElement(catchBlock.getBody()));
+		result = copy;
+	}
+
+	public <T> void visitCtClass(CtClass<T> ctClass) {
+		CtClass<T> copy = copyCommon(ctClass, factory.Core().<T> createClass());
+		copyClass(ctClass, copy);
+		result = copy;
+	}
+
+	private <T> void copyClass(CtClass<T> ctClass, CtClass<T> copy) {
+		copy.setSuperclass(copyReference(ctClass.getSuperclass()));
+		copyType(ctClass, copy);
+		if (!ctClass.getAnonymousExecutables().isEmpty()) {
+			copy.setAnonymousExecutables(copyElements(ctClass
+					.getAnonymousExecutables()));
+		}
+		for (CtConstructor<T> c : ctClass.getConstructors()) {
+			copy.addConstructor(copyElement(c));
+		}
+	}
+
+	public <T> void visitCtConditional(CtConditional<T> conditional) {
+		CtConditional<T> copy = copyCommon(conditional, factory.Core()
+				.<T> createConditional());
+		copy.setCondition(copyElement(conditional.getCondition()));
+		copy.setThenExpression(copyElement(conditional.getThenExpression()));
+		copy.setElseExpression(copyElement(conditional.getElseExpression()));
+		result = copy;
+	}
+
+	public <T> void visitCtConstructor(CtConstructor<T> c) {
+		CtConstructor<T> copy = copyCommon(c, factory.Core()
+				.<T> createConstructor());
+		copyExecutable(c, copy);
+		result = copy;
+	}
+
+	public void visitCtContinue(CtContinue continueStatement) {
+		CtContinue copy = copyCommon(continueStatement, factory.Core()
+				.createContinue());
+		copy.setTargetLabel(continueStatement.getTargetLabel());
+		copy.setLabelledStatement(continueStatement.getLabelledStatement());
+		result = copy;
+	}
+
+	public void visitCtDo(CtDo doLoop) {
+		CtDo copy = copyCommon(doLoop, factory.Core().createDo());
+		copy.setLoopingExpression(copyElement(doLoop.getLoopingExpression()));
+		copy.setBody(copyElement(doLoop.getBody()));
+		result = copy;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public <T extends Enum<?>> void visitCtEnum(CtEnum<T> ctEnum) {
+		CtEnum<T> copy = copyCommon(ctEnum, (CtEnum<T>) factory.Core()
+				.createEnum());
+		copyClass(ctEnum, copy);
+		result = copy;
+	}
+
+	public <T> void visitCtExecutableReference(
+			CtExecutableReference<T> reference) {
+		CtExecutableReference<T> copy = factory.Core()
+				.createExecutableReference();
+		copy.setFactory(factory);
+		copy.setSimpleName(reference.getSimpleName());
+		copy.setDeclaringType(copyReference(reference.getDeclaringType()));
+		copy.setType(copyReference(reference.getType()));
+		if (!reference.getParameterTypes().isEmpty()) {
+			copy.setParameterTypes(copyReferences(reference.getParameterTypes()));
+		}
+		if (!reference.getActualTypeArguments().isEmpty()) {
+			copy.setActualTypeArguments(copyReferences(reference
+					.getActualTypeArguments()));
+		}
+		if (reference.isStatic()) {
+			copy.setStatic(true);
+		}
+		result = copy;
+	}
+
+	public <T> void visitCtField(CtField<T> f) {
+		CtField<T> copy = copyCommon(f, factory.Core().<T> createField());
+		copyVariable(f, copy);
+		result = copy;
+	}
+
+	public <T> void visitCtTargetedAccess(CtTargetedAccess<T> targetedAccess) {
+		CtTargetedAccess<T> copy;
+		if (targetedAccess instanceof CtSuperAccess) {
+			copy = factory.Core().createSuperAccess();
+		} else {
+			copy = factory.Core().createFieldAccess();
+		}
+		copyCommon(targetedAccess, copy);
+		copy.setVariable(copyReference(targetedAccess.getVariable()));
+		copy.setTarget(copyElement(targetedAccess.getTarget()));
+		result = copy;
+	}
+
+	public <T> void visitCtThisAccess(CtThisAccess<T> thisAccess) {
+		CtThisAccess<T> copy = copyCommon(thisAccess, factory.Core()
+				.<T> createThisAccess());
+		if (thisAccess.isQualified()) {
+			copy.setQualified(true);
+		}
+		result = copy;
+	}
+
+	public <T> void visitCtFieldReference(CtFieldReference<T> reference) {
+		CtFieldReference<T> copy = factory.Core().createFieldReference();
+		copyVariableReference(reference, copy);
+		copy.setDeclaringType(copyReference(reference.getDeclaringType()));
+		if (reference.isFinal()) {
+			copy.setFinal(true);
+		}
+		if (reference.isStatic()) {
+			copy.setStatic(true);
+		}
+		result = copy;
+	}
+
+	private <T> void copyVariableReference(CtVariableReference<T> reference,
+			CtVariableReference<T> copy) {
+		copy.setFactory(factory);
+		copy.setSimpleName(reference.getSimpleName());
+		copy.setType(copyReference(reference.getType()));
+	}
+
+	public void visitCtFor(CtFor forLoop) {
+		CtFor copy = copyCommon(forLoop, factory.Core().createFor());
+		if (!forLoop.getForInit().isEmpty()) {
+			copy.setForInit(copyElements(forLoop.getForInit()));
+		}
+		copy.setExpression(copyElement(forLoop.getExpression()));
+		if (!forLoop.getForUpdate().isEmpty()) {
+			copy.setForUpdate(copyElements(forLoop.getForUpdate()));
+		}
+		copy.setBody(copyElement(forLoop.getBody()));
+		result = copy;
+	}
+
+	public void visitCtForEach(CtForEach foreach) {
+		CtForEach copy = copyCommon(foreach, factory.Core().createForEach());
+		copy.setVariable(copyElement(foreach.getVariable()));
+		copy.setExpression(copyElement(foreach.getExpression()));
+		copy.setBody(copyElement(foreach.getBody()));
+		result = copy;
+	}
+
+	public void visitCtIf(CtIf ifElement) {
+		CtIf copy = copyCommon(ifElement, factory.Core().createIf());
+		copy.setCondition(copyElement(ifElement.getCondition()));
+		copy.setThenStatement(copyElement(ifElement.getThenStatement()));
+		copy.setElseStatement(copyElement(ifElement.getElseStatement()));
+		result = copy;
+	}
+
+	public <T> void visitCtInterface(CtInterface<T> intrface) {
+		CtInterface<T> copy = copyCommon(intrface, factory.Core()
+				.<T> createInterface());
+		copyType(intrface, copy);
+		result = copy;
+	}
+
+	public <T> void visitCtInvocation(CtInvocation<T> invocation) {
+		CtInvocation<T> copy = copyCommon(invocation, factory.Core()
+				.<T> createInvocation());
+		copy.setTarget(copyElement(invocation.getTarget()));
+		copy.setExecutable(copyReference(invocation.getExecutable()));
+		if (!invocation.getGenericTypes().isEmpty()) {
+			copy.setGenericTypes(copyReferences(invocation.getGenericTypes()));
+		}
+		if (!invocation.getArguments().isEmpty()) {
+			copy.setArguments(copyElements(invocation.getArguments()));
+		}
+		result = copy;
+	}
+
+	public <T> void visitCtLiteral(CtLiteral<T> literal) {
+		CtLiteral<T> copy = copyCommon(literal, factory.Core()
+				.<T> createLiteral());
+		copy.setValue(literal.getValue());
+		result = copy;
+	}
+
+	public <T> void visitCtLocalVariable(CtLocalVariable<T> localVariable) {
+		CtLocalVariable<T> copy = copyCommon(localVariable, factory.Core()
+				.<T> createLocalVariable());
+		variables.put(localVariable, copy);
+		copyVariable(localVariable, copy);
+		result = copy;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> void visitCtLocalVariableReference(
+			CtLocalVariableReference<T> reference) {
+		CtLocalVariableReference<T> copy = factory.Core()
+				.createLocalVariableReference();
+		copyVariableReference(reference, copy);
+		CtLocalVariable<T> declaration = (CtLocalVariable<T>) variables
+				.get(reference.getDeclaration());
+		copy.setDeclaration(declaration == null ? reference.getDeclaration()
+				: declaration);
+		result = copy;
+	}
+
+	public <T> void visitCtMethod(CtMethod<T> m) {
+		CtMethod<T> copy = copyCommon(m, factory.Core().<T> createMethod());
+		copyExecutable(m, copy);
+		result = copy;
+	}
+
+	public <T> void visitCtNewArray(CtNewArray<T> newArray) {
+		CtNewArray<T> copy = copyCommon(newArray, factory.Core()
+				.<T> createNewArray());
+		if (!newArray.getDimensionExpressions().isEmpty()) {
+			copy.setDimensionExpressions(copyElements(newArray
+					.getDimensionExpressions()));
+		}
+		if (!newArray.getElements().isEmpty()) {
+			copy.setElements(copyElements(newArray.getElements()));
+		}
+		result = copy;
+	}
+
+	public <T> void visitCtNewClass(CtNewClass<T> newClass) {
+		CtNewClass<T> copy = copyCommon(newClass, factory.Core()
+				.<T> createNewClass());
+		copy.setTarget(copyElement(newClass.getTarget()));
+		copy.setExecutable(copyReference(newClass.getExecutable()));
+		if (!newClass.getArguments().isEmpty()) {
+			copy.setArguments(copyElements(newClass.getArguments()));
+		}
+		copy.setAnonymousClass(copyElement(newClass.getAnonymousClass()));
+		result = copy;
+	}
+
+	public <T, A extends T> void visitCtOperatorAssignement(
+			CtOperatorAssignment<T, A> assignment) {
+		CtOperatorAssignment<T, A> copy = copyCommon(assignment, factory
+				.Core().<T, A> createOperatorAssignment());
+		copy.setKind(assignment.getKind());
+		copy.setAssigned(copyElement(assignment.getAssigned()));
+		copy.setAssignment(copyElement(assignment.getAssignment()));
+		result = copy;
+	}
+
+	public void visitCtPackage(CtPackage ctPackage) {
+		CtPackage copy = copyCommon(ctPackage, factory.Core().createPackage());
+		for (CtPackage p : ctPackage.getPackages()) {
+			copy.addPackage(copyElement(p));
+		}
+		for (CtSimpleType<?> t : ctPackage.getTypes()) {
+			copy.addType(copyElement(t));
+		}
+		result = copy;
+	}
+
+	public void visitCtPackageReference(CtPackageReference reference) {
+		CtPackageReference copy = factory.Core().createPackageReference();
+		copy.setFactory(factory);
+		copy.setSimpleName(reference.getSimpleName());
+		result = copy;
+	}
+
+	public <T> void visitCtParameter(CtParameter<T> parameter) {
+		CtParameter<T> copy = copyCommon(parameter, factory.Core()
+				.<T> createParameter());
+		copyVariable(parameter, copy);
+		if (parameter.isVarArgs()) {
+			copy.setVarArgs(true);
+		}
+		result = copy;
+	}
+
+	public <T> void visitCtParameterReference(CtParameterReference<T> reference) {
+		CtParameterReference<T> copy = factory.Core()
+				.createParameterReference();
+		copyVariableReference(reference, copy);
+		copy.setDeclaringExecutable(copyReference(reference
+				.getDeclaringExecutable()));
+		result = copy;
+	}
+
+	public <R> void visitCtReturn(CtReturn<R> returnStatement) {
+		CtReturn<R> copy = copyCommon(returnStatement, factory.Core()
+				.<R> createReturn());
+		copy.setReturnedExpression(copyElement(returnStatement
+				.getReturnedExpression()));
+		result = copy;
+	}
+
+	public <R> void visitCtStatementList(CtStatementList statements) {
+		CtStatementList copy = copyCommon(statements, factory.Core()
+				.createStatementList());
+		if (!statements.getStatements().isEmpty()) {
+			copy.setStatements(copyElements(statements.getStatements()));
+		}
+		result = copy;
+	}
+
+	public <S> void visitCtSwitch(CtSwitch<S> switchStatement) {
+		CtSwitch<S> copy = copyCommon(switchStatement, factory.Core()
+				.<S> createSwitch());
+		copy.setSelector(copyElement(switchStatement.getSelector()));
+		if (!switchStatement.getCases().isEmpty()) {
+			copy.setCases(copyElements(switchStatement.getCases()));
+		}
+		result = copy;
+	}
+
+	public void visitCtSynchronized(CtSynchronized synchro) {
+		CtSynchronized copy = copyCommon(synchro, factory.Core()
+				.createSynchronized());
+		copy.setExpression(copyElement(synchro.getExpression()));
+		copy.setBlock(copyElement(synchro.getBlock()));
+		result = copy;
+	}
+
+	public void visitCtThrow(CtThrow throwStatement) {
+		CtThrow copy = copyCommon(throwStatement, factory.Core().createThrow());
+		copy.setThrownExpression(copyElement(throwStatement
+				.getThrownExpression()));
+		result = copy;
+	}
+
+	public void visitCtTry(CtTry tryBlock) {
+		CtTry copy = copyCommon(tryBlock, factory.Core().createTry());
+		if (!tryBlock.getResources().isEmpty()) {
+			copy.setResources(copyElements(tryBlock.getResources()));
+		}
+		copy.setBody(copyElement(tryBlock.getBody()));
+		if (!tryBlock.getCatchers().isEmpty()) {
+			copy.setCatchers(copyElements(tryBlock.getCatchers()));
+		}
+		copy.setFinalizer(copyElement(tryBlock.getFinalizer()));
+		result = copy;
+	}
+
+	public void visitCtTypeParameter(CtTypeParameter typeParameter) {
+		CtTypeParameter copy = copyCommon(typeParameter, factory.Core()
+				.createTypeParameter());
+		copy.setName(typeParameter.getName());
+		if (!typeParameter.getBounds().isEmpty()) {
+			copy.setBounds(copyReferences(typeParameter.getBounds()));
+		}
+		result = copy;
+	}
+
+	public void visitCtTypeParameterReference(CtTypeParameterReference ref) {
+		CtTypeParameterReference copy = factory.Core()
+				.createTypeParameterReference();
+		copyTypeReference(ref, copy);
+		if (!ref.getBounds().isEmpty()) {
+			copy.setBounds(copyReferences(ref.getBounds()));
+		}
+		if (ref.isUpper()) {
+			copy.setUpper(true);
+		}
+		result = copy;
+	}
+
+	public <T> void visitCtTypeReference(CtTypeReference<T> reference) {
+		CtTypeReference<T> copy = factory.Core().createTypeReference();
+		copyTypeReference(reference, copy);
+		result = copy;
+	}
+
+	public <T> void visitCtUnaryOperator(CtUnaryOperator<T> operator) {
+		CtUnaryOperator<T> copy = copyCommon(operator, factory.Core()
+				.<T> createUnaryOperator());
+		copy.setKind(operator.getKind());
+		copy.setOperand(copyElement(operator.getOperand()));
+		result = copy;
+	}
+
+	public <T> void visitCtVariableAccess(CtVariableAccess<T> variableAccess) {
+		CtVariableAccess<T> copy = copyCommon(variableAccess, factory.Core()
+				.<T> createVariableAccess());
+		copy.setVariable(copyReference(variableAccess.getVariable()));
+		result = copy;
+	}
+
+	public void visitCtWhile(CtWhile whileLoop) {
+		CtWhile copy = copyCommon(whileLoop, factory.Core().createWhile());
+		copy.setLoopingExpression(copyElement(whileLoop.getLoopingExpression()));
+		copy.setBody(copyElement(whileLoop.getBody()));
+		result = copy;
+	}
+
+	public <T> void visitCtAnnotationFieldAccess(
+			CtAnnotationFieldAccess<T> annotationAccess) {
+		CtAnnotationFieldAccess<T> copy = copyCommon(annotationAccess, factory
+				.Core().<T> createAnnotationFieldAccess());
+		copy.setVariable(copyReference(annotationAccess.getVariable()));
+		copy.setTarget(copyElement(annotationAccess.getTarget()));
+		result = copy;
+	}
+
+}
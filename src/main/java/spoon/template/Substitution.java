@@ -33,6 +33,7 @@ import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtSimpleType;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.reference.CtPackageReference;
+import spoon.reflect.reference.CtReference;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.visitor.Query;
 import spoon.reflect.visitor.filter.ReferenceTypeFilter;
@@ -536,7 +537,9 @@ public abstract class Substitution {
 
 	/**
 	 * A helper method that recursively redirects all the type references from a
-	 * source type to a target type in the given element.
+	 * source type to a target type in the given element. The references are
+	 * modified in place, so that the element must not contain shared
+	 * references (see {@link CtReference#isShared()}): it is typically a clone.
 	 */
 	public static void redirectTypeReferences(CtElement element,
 			CtTypeReference<?> source, CtTypeReference<?> target) {
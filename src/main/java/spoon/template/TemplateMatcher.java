@@ -17,8 +17,6 @@
 
 package spoon.template;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -52,7 +50,8 @@ import spoon.reflect.visitor.filter.InvocationFilter;
 import spoon.support.template.DefaultParameterMatcher;
 import spoon.support.template.ParameterMatcher;
 import spoon.support.template.Parameters;
-import spoon.support.util.RtHelper;
+import spoon.support.util.Metamodel;
+import spoon.support.util.Metamodel.Role;
 
 /**
  * This class defines an engine for matching a template to pieces of code.
@@ -392,29 +391,12 @@ public class TemplateMatcher {
 		}
 
 		if ((target instanceof CtElement) || (target instanceof CtReference)) {
-			for (Field f : RtHelper.getAllFields(target.getClass())) {
-				f.setAccessible(true);
-				if (Modifier.isStatic(f.getModifiers())) {
+			for (Role role : Metamodel.getRoles(target.getClass())) {
+				if (role.getName().equals("docComment")) {
 					continue;
 				}
-				if (f.getName().equals("parent")) {
-					continue;
-				}
-				if (f.getName().equals("position")) {
-					continue;
-				}
-				if (f.getName().equals("docComment")) {
-					continue;
-				}
-				if (f.getName().equals("factory")) {
-					continue;
-				}
-				try {
-					if (!helperMatch(f.get(target), f.get(template))) {
-						return false;
-					}
-				} catch (Exception e) {
-					Launcher.logger.error(e.getMessage(), e);
+				if (!helperMatch(role.get(target), role.get(template))) {
+					return false;
 				}
 			}
 			return true;
@@ -8,15 +8,27 @@ import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
 import spoon.Launcher;
+import spoon.OutputType;
+import spoon.compiler.ModelBuildingException;
+import spoon.compiler.ModelFidelity;
+import spoon.compiler.SpoonCompiler;
+import spoon.compiler.SpoonResourceHelper;
+import spoon.reflect.code.CtBlock;
+import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.declaration.CtSimpleType;
+import spoon.reflect.declaration.CtType;
 import spoon.reflect.factory.Factory;
+import spoon.reflect.visitor.Query;
+import spoon.reflect.visitor.filter.TypeFilter;
 import spoon.support.JavaOutputProcessor;
 import spoon.support.compiler.FileSystemFolder;
+import spoon.support.reflect.declaration.CtExecutableImpl;
 
 public class APITest {
 
@@ -123,6 +135,163 @@ public class APITest {
 		}
 	}
 	
+	@Test
+	public void testParallelBuild() throws Exception {
+		// the model built with several threads is the same as the sequential one
+		List<String> sequential = buildTypeNames(1);
+		List<String> parallel = buildTypeNames(4);
+		assertTrue(sequential.size() > 1);
+		Assert.assertEquals(sequential, parallel);
+	}
+
+	private List<String> buildTypeNames(int threads) throws Exception {
+		Launcher spoon = new Launcher();
+		SpoonCompiler comp = spoon.createCompiler();
+		comp.getFactory().getEnvironment().setBuildThreadCount(threads);
+		comp.addInputSources(SpoonResourceHelper
+				.resources("./src/test/resources/spoon/test/model"));
+		comp.build();
+		List<String> names = new ArrayList<>();
+		for (CtPackage p : comp.getFactory().Package().getAll()) {
+			names.add(p.getQualifiedName() + " " + p.getTypes().size() + " "
+					+ p.getDocComment());
+		}
+		for (CtSimpleType<?> t : comp.getFactory().Type().getAll()) {
+			Assert.assertSame(t,
+					comp.getFactory().Type().get(t.getQualifiedName()));
+			names.add(t.getQualifiedName() + " "
+					+ t.getPosition().getCompilationUnit().getDeclaredTypes()
+							.indexOf(t) + " " + t.toString().length());
+		}
+		return names;
+	}
+
+	@Test
+	public void testLazyMethodBodies() throws Exception {
+		// the lazily built bodies are the same as the eagerly built ones
+		Factory eager = buildModel(false);
+		Factory lazy = buildModel(true);
+
+		// a copy made before its body is built builds it on its own, even
+		// once all the other bodies are built and the compiler is released
+		CtMethod<?> original = null;
+		for (CtSimpleType<?> t : lazy.Type().getAll()) {
+			if (original == null && t instanceof CtType) {
+				for (CtMethod<?> m : ((CtType<?>) t).getMethods()) {
+					if (((CtExecutableImpl<?>) m).getBodyLoader() != null) {
+						original = m;
+						break;
+					}
+				}
+			}
+		}
+		Assert.assertNotNull(original);
+		CtMethod<?> copy = lazy.Core().clone(original);
+
+		for (CtSimpleType<?> t : eager.Type().getAll()) {
+			Assert.assertEquals(t.toString(),
+					lazy.Type().get(t.getQualifiedName()).toString());
+		}
+		for (CtMethod<?> m : Query.getElements(lazy,
+				new TypeFilter<CtMethod<?>>(CtMethod.class))) {
+			if (m.getBody() != null) {
+				Assert.assertSame(m, m.getBody().getParent());
+			}
+		}
+		Assert.assertEquals(original.getBody().toString(), copy.getBody()
+				.toString());
+		Assert.assertNotSame(original.getBody(), copy.getBody());
+	}
+
+	private Factory buildModel(boolean lazyMethodBodies) throws Exception {
+		SpoonCompiler comp = new Launcher().createCompiler();
+		comp.getFactory().getEnvironment()
+				.setLazyMethodBodies(lazyMethodBodies);
+		comp.addInputSources(SpoonResourceHelper
+				.resources("./src/test/resources/spoon/test/model"));
+		comp.build();
+		return comp.getFactory();
+	}
+
+	@Test
+	public void testLazyMethodBodyProblems() throws Exception {
+		// the errors of a lazily built body are reported when it is built
+		File src = new File("target/lazy-apitest/Broken.java");
+		FileUtils.writeStringToFile(src,
+				"class Broken { int m() { return unknown; } }");
+		SpoonCompiler comp = new Launcher().createCompiler();
+		comp.getFactory().getEnvironment().setLazyMethodBodies(true);
+		comp.addInputSource(src);
+		comp.build();
+		CtMethod<?> m = comp.getFactory().Class().get("Broken")
+				.getMethodsByName("m").get(0);
+		try {
+			m.getBody();
+			fail();
+		} catch (ModelBuildingException e) {
+			assertTrue(e.getMessage().contains("unknown"));
+		}
+		// the body is not built, so that it fails again
+		try {
+			m.getBody();
+			fail();
+		} catch (ModelBuildingException e) {
+			assertTrue(e.getMessage().contains("unknown"));
+		}
+	}
+
+	@Test
+	public void testModelFidelity() throws Exception {
+		// the declarations only model has the same methods, without bodies
+		SpoonCompiler comp = new Launcher().createCompiler();
+		comp.getFactory().getEnvironment()
+				.setModelFidelity(ModelFidelity.DECLARATIONS);
+		comp.addInputSources(SpoonResourceHelper
+				.resources("./src/test/resources/spoon/test/model"));
+		comp.build();
+		List<CtMethod<?>> methods = Query.getElements(comp.getFactory(),
+				new TypeFilter<CtMethod<?>>(CtMethod.class));
+		// the local and anonymous classes are declared in the bodies
+		int declared = 0;
+		for (CtMethod<?> m : Query.getElements(buildModel(false),
+				new TypeFilter<CtMethod<?>>(CtMethod.class))) {
+			if (m.getParent(CtBlock.class) == null) {
+				declared++;
+			}
+		}
+		Assert.assertEquals(declared, methods.size());
+		for (CtMethod<?> m : methods) {
+			Assert.assertNull(m.getBody());
+		}
+	}
+
+	@Test
+	public void testBuildOnlyOutdatedFiles() throws Exception {
+		// only the modified files and the files that depend on them are built
+		File src = new File("target/incremental-apitest/src");
+		File out = new File("target/incremental-apitest/spooned");
+		FileUtils.deleteDirectory(src.getParentFile());
+		FileUtils.writeStringToFile(new File(src, "A.java"), "class A {}");
+		FileUtils.writeStringToFile(new File(src, "B.java"), "class B { A a; }");
+		FileUtils.writeStringToFile(new File(src, "C.java"), "class C {}");
+
+		Assert.assertEquals(3, buildOutdated(src, out));
+		Assert.assertEquals(0, buildOutdated(src, out));
+		FileUtils.writeStringToFile(new File(src, "A.java"), "class A { int i; }");
+		Assert.assertEquals(2, buildOutdated(src, out));
+		Assert.assertEquals(0, buildOutdated(src, out));
+	}
+
+	private int buildOutdated(File src, File out) throws Exception {
+		SpoonCompiler comp = new Launcher().createCompiler();
+		comp.addInputSource(src);
+		comp.setOutputDirectory(out);
+		comp.setBuildOnlyOutdatedFiles(true);
+		comp.build();
+		comp.generateProcessedSourceFiles(OutputType.COMPILATION_UNITS);
+		return comp.getFactory().CompilationUnit().getMap().size();
+	}
+
 	@Test(expected=FileNotFoundException.class)
 	public void testNotValidInput() throws Exception {
 		Launcher spoon = new Launcher();
@@ -0,0 +1,142 @@
+package spoon.test.compilation;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.core.compiler.IProblem;
+import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem.Classpath;
+import org.eclipse.jdt.internal.compiler.env.AccessRestriction;
+import org.eclipse.jdt.internal.compiler.env.AccessRule;
+import org.eclipse.jdt.internal.compiler.env.AccessRuleSet;
+import org.junit.Test;
+
+import spoon.Launcher;
+import spoon.compiler.SpoonFile;
+import spoon.compiler.SpoonResourceHelper;
+import spoon.support.compiler.jdt.JDTBasedSpoonCompiler;
+import spoon.support.compiler.jdt.SharedNameEnvironment;
+import spoon.support.compiler.jdt.SharedNameEnvironment.SharedJar;
+
+public class CompilationTest {
+
+	/**
+	 * A compiler that keeps the array of the JDT units it resolves, a copy of
+	 * it and their types.
+	 */
+	static class RetainingCompiler extends JDTBasedSpoonCompiler {
+		CompilationUnitDeclaration[] resolved;
+
+		List<CompilationUnitDeclaration> units = new ArrayList<>();
+
+		List<TypeDeclaration> types = new ArrayList<>();
+
+		RetainingCompiler() throws Exception {
+			super(new Launcher().createFactory());
+			addInputSources(SpoonResourceHelper
+					.resources("./src/test/resources/spoon/test/model"));
+		}
+
+		@Override
+		protected CompilationUnitDeclaration[] resolveSources(
+				List<SpoonFile> filesToBuild) throws Exception {
+			resolved = super.resolveSources(filesToBuild);
+			units.addAll(Arrays.asList(resolved));
+			for (CompilationUnitDeclaration unit : resolved) {
+				types.addAll(Arrays.asList(unit.types));
+			}
+			return resolved;
+		}
+	}
+
+	@Test
+	public void testUnitsReleasedAfterBuild() throws Exception {
+		RetainingCompiler compiler = new RetainingCompiler();
+		compiler.build();
+		assertTrue(compiler.units.size() > 0);
+
+		// the compiler does not reference the units once they are converted
+		for (CompilationUnitDeclaration unit : compiler.resolved) {
+			assertNull(unit);
+		}
+		// and the units do not keep their syntax trees (which the lookup
+		// environment keeps until the end of the build), which do not
+		// reference the compiler state anymore
+		for (CompilationUnitDeclaration unit : compiler.units) {
+			assertNull(unit.types);
+		}
+		assertTrue(compiler.types.size() > 0);
+		for (TypeDeclaration type : compiler.types) {
+			assertNull(type.binding.scope);
+		}
+	}
+
+	@Test
+	public void testSharedJars() throws Exception {
+		File jar = File.createTempFile("shared", ".jar");
+		jar.deleteOnExit();
+		copy(new File("src/test/resources/reference-test/ReferenceTest.jar"),
+				jar);
+		char[][] referenced = CharOperation
+				.splitOn('.', "spoon.test.reference.ReferencedClass"
+						.toCharArray());
+
+		// the environments share the opened jar files
+		SharedNameEnvironment first = SharedNameEnvironment.create(
+				new String[] { jar.getPath() }, null);
+		assertNotNull(first.findType(referenced));
+		SharedJar shared = (SharedJar) first.getEntries()[0];
+		assertTrue(shared.isOpen());
+		assertSame(shared, SharedNameEnvironment.create(
+				new String[] { jar.getPath() }, null).getEntries()[0]);
+		first.cleanup();
+		assertTrue(shared.isOpen());
+
+		// but not with the entries that have other access rules
+		AccessRuleSet rules = new AccessRuleSet(new AccessRule[] { new AccessRule(
+				"spoon/**".toCharArray(), IProblem.ForbiddenReference) },
+				AccessRestriction.COMMAND_LINE, jar.getPath());
+		SharedNameEnvironment restricted = new SharedNameEnvironment(
+				new Classpath[] { FileSystem.getClasspath(jar.getPath(), null,
+						rules) }, null);
+		assertNotSame(shared, restricted.getEntries()[0]);
+		assertNotNull(restricted.findType(referenced).getAccessRestriction());
+		assertNull(first.findType(referenced).getAccessRestriction());
+
+		// a modified jar file is opened again, and the old version is closed
+		copy(new File("src/test/resources/reference-test/ReferenceTest.jar"),
+				jar);
+		assertTrue(jar.setLastModified(jar.lastModified() - 10000));
+		SharedNameEnvironment second = SharedNameEnvironment.create(
+				new String[] { jar.getPath() }, null);
+		assertNotSame(shared, second.getEntries()[0]);
+		assertFalse(shared.isOpen());
+		assertNotNull(second.findType(referenced));
+	}
+
+	private static void copy(File from, File to) throws IOException {
+		try (InputStream in = new FileInputStream(from);
+				OutputStream out = new FileOutputStream(to)) {
+			IOUtils.copy(in, out);
+		}
+	}
+
+}
@@ -2,19 +2,43 @@ package spoon.test.factory;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static spoon.test.TestUtils.build;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import spoon.reflect.code.CtLocalVariable;
+import spoon.reflect.code.CtStatement;
 import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtField;
 import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtParameter;
+import spoon.reflect.declaration.ModifierKind;
 import spoon.reflect.factory.CoreFactory;
 import spoon.reflect.factory.Factory;
 import spoon.reflect.factory.FactoryImpl;
+import spoon.reflect.factory.NameFactory;
+import spoon.reflect.reference.CtTypeReference;
 import spoon.support.DefaultCoreFactory;
+import spoon.support.SerializationModelStreamer;
 import spoon.support.StandardEnvironment;
 import spoon.support.reflect.declaration.CtMethodImpl;
+import spoon.support.util.ElementIntTable;
+import spoon.support.util.ElementTable;
+import spoon.support.visitor.ElementCopier;
+import spoon.support.visitor.SignaturePrinter;
 import spoon.test.TestUtils;
 
 public class FactoryTest {
@@ -32,6 +56,298 @@ public class FactoryTest {
 		assertFalse(m.isParentInitialized());
 	}
 
+	@Test
+	public void testCopy() throws Exception {
+		CtClass<?> type = build("spoon.test", "SampleClass");
+		CtMethod<?> m = type.getMethodsByName("method3").get(0);
+
+		Factory other = new FactoryImpl(new DefaultCoreFactory(),
+				new StandardEnvironment());
+		CtMethod<?> copy = new ElementCopier(other).copy(m);
+		assertSame(other, copy.getFactory());
+		assertSame(other, copy.getBody().getFactory());
+		assertSame(copy, copy.getBody().getParent());
+		assertFalse(copy.isParentInitialized());
+		assertEquals(m.getBody().toString(), copy.getBody().toString());
+
+		// the references are copied unless they are shared
+		assertFalse(m.getType() == m.getFactory().Core().clone(m).getType());
+		CtMethod<?> shared = new ElementCopier(m.getFactory(), true).copy(m);
+		assertSame(m.getType(), shared.getType());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testCachedSignature() throws Exception {
+		CtClass<?> type = build("spoon.test", "SampleClass");
+		CtMethod<?> m = type.getMethodsByName("method3").get(0);
+		String signature = m.getSignature();
+		assertSame(signature, m.getSignature());
+
+		// the cached signatures are invalidated by the changes
+		m.setSimpleName("renamed");
+		assertFalse(signature.equals(m.getSignature()));
+		m.setSimpleName("method3");
+		assertEquals(signature, m.getSignature());
+		CtMethod<Object> method = (CtMethod<Object>) m;
+		CtTypeReference<Object> returnType = method.getType();
+		method.setType(m.getFactory().Type().OBJECT);
+		assertFalse(signature.equals(m.getSignature()));
+		method.setType(returnType);
+		assertEquals(signature, m.getSignature());
+
+		// the changes of another model do not invalidate them
+		long generation = m.getFactory().Metadata().getSignatureGeneration();
+		build("spoon.test", "SampleClass").setSimpleName("Other");
+		assertEquals(generation, m.getFactory().Metadata()
+				.getSignatureGeneration());
+		assertSame(m.getSignature(), m.getSignature());
+	}
+
+	@Test
+	public void testCachedSignatureOfReferrers() throws Exception {
+		CtClass<?> type = build("spoon.test.replace", "Foo");
+		CtMethod<?> m = type.getMethodsByName("foo").get(0);
+		CtLocalVariable<?> x = m.getBody().getStatement(0);
+		CtStatement assignment = m.getBody().getStatement(2);
+		assertTrue(assignment.getSignature().contains("xPLUS"));
+
+		// renaming a declaration invalidates the signatures of its referrers
+		x.setSimpleName("y");
+		SignaturePrinter printer = new SignaturePrinter();
+		printer.scan(assignment);
+		assertEquals(printer.getSignature(), assignment.getSignature());
+		assertTrue(assignment.getSignature().contains("yPLUS"));
+
+		// but building the references does not invalidate the signatures
+		long generation = type.getFactory().Metadata()
+				.getSignatureGeneration();
+		CtTypeReference<?> ref = type.getFactory().Type()
+				.createReference("spoon.test.Other");
+		ref.setSimpleName("Renamed");
+		assertEquals(generation, type.getFactory().Metadata()
+				.getSignatureGeneration());
+		// unlike the changes to the references that have been read
+		ref.getQualifiedName();
+		ref.setSimpleName("Other");
+		assertTrue(generation < type.getFactory().Metadata()
+				.getSignatureGeneration());
+	}
+
+	@Test
+	public void testMemberTables() throws Exception {
+		CtClass<?> type = build("spoon.test", "SampleClass");
+		CtMethod<?> m = type.getMethodsByName("method3").get(0);
+		assertTrue(type.getMethods().contains(m));
+
+		// the members are indexed by their current names
+		m.setSimpleName("renamed");
+		assertTrue(type.getMethodsByName("method3").isEmpty());
+		assertSame(m, type.getMethodsByName("renamed").get(0));
+		assertTrue(type.getMethods().contains(m));
+		m.setSimpleName("method3");
+		assertSame(m, type.getMethodsByName("method3").get(0));
+
+		// the tables are kept in sync by the collection operations
+		int size = type.getMethods().size();
+		type.getMethods().remove(m);
+		assertTrue(type.getMethodsByName("method3").isEmpty());
+		assertEquals(size - 1, type.getMethods().size());
+		type.addMethod(m);
+		assertEquals(size, type.getMethods().size());
+
+		CtClass<?> clone = type.getFactory().Core().clone(type);
+		assertEquals(1, clone.getMethodsByName("method3").size());
+		assertFalse(m == clone.getMethodsByName("method3").get(0));
+
+		// the members whose parent is not the owner of the table are
+		// re-indexed too
+		CtMethod<?> orphan = type.getFactory().Core().createMethod();
+		orphan.setSimpleName("orphan");
+		type.getMethods().add(orphan);
+		orphan.setSimpleName("adopted");
+		assertTrue(type.getMethodsByName("orphan").isEmpty());
+		assertSame(orphan, type.getMethodsByName("adopted").get(0));
+		assertTrue(type.getMethods().contains(orphan));
+
+		// and the lists are re-indexed after the operations that bypass them
+		List<CtField<?>> fields = type.getFields();
+		CtField<?> f = type.getFactory().Core().createField();
+		f.setSimpleName("f");
+		fields.add(f);
+		assertSame(f, type.getField("f"));
+		fields.subList(0, 1).clear();
+		assertNull(type.getField("f"));
+		fields.add(0, f);
+		assertSame(f, type.getField("f"));
+	}
+
+	@Test
+	public void testQualifiedNameIndex() throws Exception {
+		CtClass<?> type = build("spoon.test", "SampleClass");
+		Factory factory = type.getFactory();
+		CtPackage pack = type.getPackage();
+		assertSame(pack, factory.Package().get("spoon.test"));
+		assertSame(type, factory.Type().get("spoon.test.SampleClass"));
+		CtClass<?> nested = factory.Class().create(type, "Nested");
+		assertSame(nested, factory.Type().get("spoon.test.SampleClass$Nested"));
+		// the index is shared by the type sub-factories
+		assertSame(type, factory.Class().get("spoon.test.SampleClass"));
+		assertSame(nested, factory.Class().get("spoon.test.SampleClass$Nested"));
+		assertSame(factory.Type().getHierarchy(), factory.Class().getHierarchy());
+
+		// the index follows the renamings and the moves
+		type.setSimpleName("Renamed");
+		assertNull(factory.Type().get("spoon.test.SampleClass"));
+		assertSame(nested, factory.Type().get("spoon.test.Renamed$Nested"));
+		CtPackage other = factory.Package().getOrCreate("spoon.other");
+		pack.removeType(type);
+		other.addType(type);
+		assertNull(factory.Type().get("spoon.test.Renamed"));
+		assertSame(type, factory.Type().get("spoon.other.Renamed"));
+		type.removeNestedType(nested);
+		assertNull(factory.Type().get("spoon.other.Renamed$Nested"));
+	}
+
+	@Test
+	public void testInternedNames() throws Exception {
+		CtClass<?> type = build("spoon.test", "SampleClass");
+		Factory factory = type.getFactory();
+		CtMethod<?> m = type.getMethodsByName("method3").get(0);
+		assertSame(m.getSimpleName(), factory.Name().get("method3"));
+		assertSame(m.getSimpleName(),
+				factory.Name().intern(new String("method3")));
+		assertSame(m.getSimpleName(),
+				factory.Name().intern("method3".toCharArray()));
+		// the names of the references are interned too
+		assertSame(type.getSimpleName(), type.getReference().getSimpleName());
+	}
+
+	@Test
+	public void testInternedNamesAcrossResizes() throws Exception {
+		NameFactory names = new FactoryImpl(new DefaultCoreFactory(),
+				new StandardEnvironment()).Name();
+		String[] interned = new String[5000];
+		for (int i = 0; i < interned.length; i++) {
+			String name = "name" + i;
+			interned[i] = i % 2 == 0 ? names.intern(name) : names
+					.intern(name.toCharArray());
+			assertEquals(name, interned[i]);
+		}
+		for (int i = 0; i < interned.length; i++) {
+			assertSame(interned[i], names.intern(new String("name" + i)));
+			assertSame(interned[i], names.get("name" + i));
+		}
+	}
+
+	@Test
+	public void testInternedNamesNotRetained() throws Exception {
+		NameFactory names = new FactoryImpl(new DefaultCoreFactory(),
+				new StandardEnvironment()).Name();
+		for (int i = 0; i < 5000; i++) {
+			names.intern("unused" + i);
+		}
+		WeakReference<String> unused = new WeakReference<>(
+				names.get("unused0"));
+		for (int i = 0; i < 10 && unused.get() != null; i++) {
+			System.gc();
+		}
+		if (unused.get() != null) {
+			// the collector did not run
+			return;
+		}
+		// the collected names are dropped when the table grows
+		String[] used = new String[5000];
+		for (int i = 0; i < used.length; i++) {
+			used[i] = names.intern("used" + i);
+		}
+		assertTrue(names.size() < 10000);
+		assertNull(names.get("unused0"));
+		for (int i = 0; i < used.length; i++) {
+			assertSame(used[i], names.get("used" + i));
+		}
+	}
+
+	@Test
+	public void testInternedNamesAcrossThreads() throws Exception {
+		final NameFactory names = new FactoryImpl(new DefaultCoreFactory(),
+				new StandardEnvironment()).Name();
+		final String[][] interned = new String[4][2000];
+		Thread[] threads = new Thread[interned.length];
+		for (int t = 0; t < threads.length; t++) {
+			final String[] mine = interned[t];
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < mine.length; i++) {
+						String name = "name" + i;
+						mine[i] = i % 2 == 0 ? names.intern(name) : names
+								.intern(name.toCharArray());
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		for (int i = 0; i < interned[0].length; i++) {
+			for (String[] other : interned) {
+				assertSame(interned[0][i], other[i]);
+			}
+		}
+		assertEquals(interned[0].length, names.size());
+	}
+
+	@Test
+	public void testElementIds() throws Exception {
+		CtClass<?> type = build("spoon.test", "SampleClass");
+		Factory factory = type.getFactory();
+		CtMethod<?> m = type.getMethodsByName("method3").get(0);
+		assertTrue(type.getId() > 0);
+		assertTrue(m.getId() > 0 && m.getId() != type.getId());
+		assertTrue(m.getId() <= factory.Metadata().getIdCount());
+		CtMethod<?> clone = factory.Core().clone(m);
+		assertEquals(m, clone);
+		assertTrue(clone.getId() != m.getId());
+
+		ElementTable<String> table = factory.Metadata().createTable();
+		table.put(m, "m");
+		assertEquals("m", table.get(m));
+		assertEquals(null, table.get(clone));
+		assertEquals(1, table.size());
+		ElementIntTable counts = factory.Metadata().createIntTable(-1);
+		assertEquals(-1, counts.get(m));
+		counts.add(m, 2);
+		assertEquals(1, counts.get(m));
+		assertEquals(-1, counts.get(clone));
+	}
+
+	@Test
+	public void testElementIdsAfterSerialization() throws Exception {
+		Factory factory = new FactoryImpl(new DefaultCoreFactory(),
+				new StandardEnvironment());
+		CtClass<?> type = factory.Class().create(
+				factory.Package().getOrCreate("spoon.test"), "SampleClass");
+		factory.Method().create(type, EnumSet.of(ModifierKind.PUBLIC),
+				factory.Type().VOID_PRIMITIVE, "m",
+				new ArrayList<CtParameter<?>>(),
+				new HashSet<CtTypeReference<? extends Throwable>>());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new SerializationModelStreamer().save(factory, out);
+		Factory loaded = new SerializationModelStreamer()
+				.load(new ByteArrayInputStream(out.toByteArray()));
+
+		// the identifiers of the loaded elements are kept, and the new
+		// elements get other ones
+		CtClass<?> copy = loaded.Class().get("spoon.test.SampleClass");
+		assertEquals(type.getId(), copy.getId());
+		assertEquals(factory.Metadata().getIdCount(), loaded.Metadata()
+				.getIdCount());
+		CtMethod<?> m = loaded.Core().createMethod();
+		assertTrue(m.getId() > factory.Metadata().getIdCount());
+	}
+
 	@Test
 	public void testFactoryOverriding()  throws Exception {
 
@@ -0,0 +1,288 @@
+package spoon.test.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import spoon.Launcher;
+import spoon.compiler.SpoonCompiler;
+import spoon.compiler.SpoonResourceHelper;
+import spoon.reflect.code.CtCodeElement;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.cu.CompilationUnit;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtNamedElement;
+import spoon.reflect.declaration.CtSimpleType;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.reference.CtReference;
+import spoon.reflect.visitor.CtScanner;
+import spoon.reflect.visitor.Query;
+import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.reflect.cu.SourcePositionImpl;
+import spoon.support.reflect.declaration.CtElementImpl;
+
+/**
+ * A heap footprint benchmark of the model, per element kind. The sizes are
+ * estimated from the object layout of a 64-bit JVM with compressed
+ * references (12-byte headers, 4-byte references, 8-byte alignment), so that
+ * the figures are reproducible. Each node is charged with the objects it
+ * owns (collections, arrays, strings, positions...), but not with its
+ * children nodes. The shared objects are charged once.
+ * 
+ * The tests check the layout on the model fixture, and compare its footprint
+ * with the one of the same model once its positions and modifiers are
+ * stored as before (a position object per element and tree sets). On recent
+ * JVMs, the internals of <code>java.util</code> must be opened to get the
+ * exact size of the collections
+ * (<code>--add-opens java.base/java.util=ALL-UNNAMED</code>).
+ */
+public class FootprintTest {
+
+	static final int HEADER = 12;
+
+	static final int ARRAY_HEADER = 16;
+
+	static final int REFERENCE = 4;
+
+	static class Footprint {
+		int count;
+
+		long bytes;
+	}
+
+	private final Set<Object> visited = Collections
+			.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+	private final Map<String, Footprint> footprints = new TreeMap<>();
+
+	private int positions;
+
+	@Test
+	public void testFootprint() throws Exception {
+		Factory factory = build("./src/test/resources/spoon/test/model");
+		measure(factory);
+		assertTrue(footprints.size() > 0);
+
+		// the modifiers are stored in enum sets
+		for (CtNamedElement e : Query.getElements(factory,
+				new TypeFilter<CtNamedElement>(CtNamedElement.class))) {
+			Set<?> modifiers = e.getModifiers();
+			assertTrue(modifiers.isEmpty() || modifiers instanceof EnumSet);
+		}
+
+		// the positions of the code are packed in the elements (the builder
+		// only asks for the ones of the types and of their constructors)
+		assertEquals(0, positions);
+		// until they are asked for
+		CtSimpleType<?> type = factory.Type().get("spoon.test.model.Circle");
+		assertSame(type.getPosition(), type.getPosition());
+		assertEquals("Circle.java", type.getPosition().getFile().getName());
+
+		// the empty lists of children are shared
+		CtInvocation<?> invocation = factory.Core().createInvocation();
+		invocation.removeArgument(factory.Core().createLiteral());
+		assertSame(CtElementImpl.EMPTY_LIST(), invocation.getArguments());
+	}
+
+	@Test
+	public void testFootprintSaving() throws Exception {
+		Factory factory = build("./src/test/resources/spoon/test/model");
+		FootprintTest compact = new FootprintTest();
+		compact.measure(factory);
+
+		// the previous layout: a position object per element, and the
+		// modifiers in tree sets
+		new CtScanner() {
+			@Override
+			protected void enter(CtElement e) {
+				e.getPosition();
+				if (e instanceof CtNamedElement) {
+					CtNamedElement named = (CtNamedElement) e;
+					if (!named.getModifiers().isEmpty()) {
+						named.setModifiers(new TreeSet<>(named.getModifiers()));
+					}
+				}
+			}
+		}.scan(factory.Package().getAllRoots());
+		FootprintTest previous = new FootprintTest();
+		previous.measure(factory);
+
+		assertEquals(compact.count(), previous.count());
+		assertTrue(previous.positions > 0);
+		CtSimpleType<?> type = factory.Type().get("spoon.test.model.Circle");
+		long positionSize = shallowSize(type.getPosition());
+		assertTrue(previous.total() - compact.total() > previous.positions
+				* positionSize);
+	}
+
+	int count() {
+		int count = 0;
+		for (Footprint f : footprints.values()) {
+			count += f.count;
+		}
+		return count;
+	}
+
+	long total() {
+		long total = 0;
+		for (Footprint f : footprints.values()) {
+			total += f.bytes;
+		}
+		return total;
+	}
+
+	Factory build(String input) throws Exception {
+		SpoonCompiler comp = new Launcher().createCompiler();
+		comp.addInputSources(SpoonResourceHelper.resources(input));
+		comp.build();
+		return comp.getFactory();
+	}
+
+	void measure(Factory factory) {
+		new CtScanner() {
+			@Override
+			protected void enter(CtElement e) {
+				account(e);
+			}
+
+			@Override
+			protected void enterReference(CtReference e) {
+				account(e);
+			}
+		}.scan(factory.Package().getAllRoots());
+	}
+
+	void account(Object node) {
+		if (!visited.add(node)) {
+			return;
+		}
+		String kind = node.getClass().getSimpleName().replace("Impl", "");
+		Footprint f = footprints.get(kind);
+		if (f == null) {
+			f = new Footprint();
+			footprints.put(kind, f);
+		}
+		f.count++;
+		f.bytes += shallowSize(node) + ownedSize(node);
+	}
+
+	/**
+	 * Gets the size of the objects owned by a node.
+	 */
+	long ownedSize(Object node) {
+		long size = 0;
+		Deque<Object> todo = new ArrayDeque<>();
+		addReferents(node, todo);
+		while (!todo.isEmpty()) {
+			Object o = todo.pop();
+			if (isNode(o) || !visited.add(o)) {
+				continue;
+			}
+			if (o instanceof SourcePositionImpl && node instanceof CtCodeElement
+					&& !(node instanceof CtSimpleType)) {
+				positions++;
+			}
+			size += shallowSize(o);
+			addReferents(o, todo);
+		}
+		return size;
+	}
+
+	static boolean isNode(Object o) {
+		return o instanceof CtElement || o instanceof CtReference
+				|| o instanceof Factory || o instanceof CompilationUnit
+				|| o instanceof Class || o instanceof Enum;
+	}
+
+	static void addReferents(Object o, Deque<Object> todo) {
+		Class<?> c = o.getClass();
+		if (c.isArray()) {
+			if (!c.getComponentType().isPrimitive()) {
+				for (int i = 0; i < Array.getLength(o); i++) {
+					push(Array.get(o, i), todo);
+				}
+			}
+			return;
+		}
+		for (; c != null; c = c.getSuperclass()) {
+			for (Field f : c.getDeclaredFields()) {
+				if (Modifier.isStatic(f.getModifiers())
+						|| f.getType().isPrimitive()) {
+					continue;
+				}
+				try {
+					f.setAccessible(true);
+					push(f.get(o), todo);
+				} catch (RuntimeException | IllegalAccessException e) {
+					// closed JDK internals: only the collection contents
+					if (o instanceof Collection) {
+						for (Object element : (Collection<?>) o) {
+							push(element, todo);
+						}
+					}
+					return;
+				}
+			}
+		}
+	}
+
+	static void push(Object o, Deque<Object> todo) {
+		if (o != null) {
+			todo.push(o);
+		}
+	}
+
+	static long shallowSize(Object o) {
+		Class<?> c = o.getClass();
+		if (c.isArray()) {
+			return align(ARRAY_HEADER + (long) Array.getLength(o)
+					* size(c.getComponentType()));
+		}
+		long size = HEADER;
+		for (; c != null; c = c.getSuperclass()) {
+			for (Field f : c.getDeclaredFields()) {
+				if (!Modifier.isStatic(f.getModifiers())) {
+					size += size(f.getType());
+				}
+			}
+		}
+		return align(size);
+	}
+
+	static int size(Class<?> type) {
+		if (type == long.class || type == double.class) {
+			return 8;
+		}
+		if (type == int.class || type == float.class) {
+			return 4;
+		}
+		if (type == short.class || type == char.class) {
+			return 2;
+		}
+		if (type == byte.class || type == boolean.class) {
+			return 1;
+		}
+		return REFERENCE;
+	}
+
+	static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+
+}
@@ -1,6 +1,11 @@
 package spoon.test.parent;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -8,16 +13,25 @@ import org.junit.Test;
 
 import spoon.Launcher;
 import spoon.compiler.SpoonResourceHelper;
+import spoon.processing.Processor;
+import spoon.processing.Severity;
 import spoon.reflect.code.BinaryOperatorKind;
 import spoon.reflect.code.CtAssignment;
 import spoon.reflect.code.CtBinaryOperator;
+import spoon.reflect.code.CtBlock;
 import spoon.reflect.code.CtExpression;
+import spoon.reflect.code.CtIf;
 import spoon.reflect.code.CtLiteral;
 import spoon.reflect.code.CtLocalVariable;
+import spoon.reflect.code.CtReturn;
 import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtField;
 import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.ModifierKind;
 import spoon.reflect.factory.Factory;
+import spoon.reflect.visitor.ModelConsistencyChecker;
 import spoon.reflect.visitor.filter.NameFilter;
+import spoon.support.StandardEnvironment;
 
 public class ParentTest {
     
@@ -75,4 +89,41 @@ public class ParentTest {
 		assertEquals(assignment, newLit2.getParent());
 				
 	}
+
+	@Test
+	public void testParentSetBySetters() throws Exception {
+		CtClass<?> foo = factory.Package().get("spoon.test.parent")
+				.getType("Foo");
+		CtBlock<?> body = factory.Core().createBlock();
+		CtIf ifStatement = factory.Core().createIf();
+		CtLiteral<Boolean> condition = factory.Code().createLiteral(true);
+		ifStatement.setCondition(condition);
+		ifStatement.setThenStatement(body);
+		CtReturn<?> ret = factory.Core().createReturn();
+		body.addStatement(ret);
+		assertSame(ifStatement, condition.getParent());
+		assertSame(ifStatement, body.getParent());
+		assertSame(body, ret.getParent());
+
+		CtField<Integer> field = factory.Field().create(foo,
+				EnumSet.noneOf(ModifierKind.class),
+				factory.Type().INTEGER_PRIMITIVE, "bar");
+		assertSame(foo, field.getParent());
+		CtClass<?> nested = factory.Class().create(foo, "Nested");
+		assertSame(foo, nested.getParent());
+		assertSame(nested, foo.getNestedType("Nested"));
+
+		// no parent to repair: the checker reports nothing
+		final List<String> warnings = new ArrayList<String>();
+		new ModelConsistencyChecker(new StandardEnvironment() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void report(Processor<?> processor, Severity severity,
+					String message) {
+				warnings.add(message);
+			}
+		}, false, false).scan(foo);
+		assertEquals(new ArrayList<String>(), warnings);
+	}
 }
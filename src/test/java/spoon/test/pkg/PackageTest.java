@@ -9,8 +9,11 @@ import spoon.Launcher;
 import spoon.compiler.SpoonResourceHelper;
 import spoon.reflect.declaration.CtAnnotation;
 import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtSimpleType;
 import spoon.reflect.factory.Factory;
+import spoon.reflect.reference.CtTypeReference;
 import spoon.test.pkg.name.PackageTestClass;
 
 public class PackageTest
@@ -55,4 +58,87 @@ public class PackageTest
 		Assert.assertNull(ctPackage.getPosition());
 		Assert.assertNull(ctPackage.getDocComment());
 	}
+
+	@Test
+	public void testQualifiedNames() throws Exception
+	{
+		Factory factory = new Launcher().createFactory();
+		CtPackage pack = factory.Package().getOrCreate("a.b.c");
+		CtClass<?> outer = factory.Class().create(pack, "Outer");
+		CtClass<?> inner = createNested(outer, "Inner");
+		CtTypeReference<?> ref = inner.getReference();
+		Assert.assertEquals("a.b.c.Outer$Inner", inner.getQualifiedName());
+		Assert.assertSame(inner.getQualifiedName(), inner.getQualifiedName());
+		Assert.assertEquals("a.b.c.Outer$Inner", ref.getQualifiedName());
+
+		// the cached names are invalidated by renaming or moving
+		((CtPackage) pack.getParent()).setSimpleName("x");
+		Assert.assertEquals("a.x.c.Outer$Inner", inner.getQualifiedName());
+		outer.setSimpleName("Other");
+		Assert.assertEquals("a.x.c.Other$Inner", inner.getQualifiedName());
+		inner.setParent(pack);
+		Assert.assertEquals("a.x.c.Inner", inner.getQualifiedName());
+		ref.getDeclaringType().setSimpleName("Other");
+		Assert.assertEquals("a.b.c.Other$Inner", ref.getQualifiedName());
+	}
+
+	@Test
+	public void testCachedQualifiedNames() throws Exception
+	{
+		Factory factory = new Launcher().createFactory();
+		CtSimpleType<?> type = factory.Class().create(
+				factory.Package().getOrCreate("a.b.c.d.e.f.g.h"), "T0");
+		for (int i = 1; i < 8; i++) {
+			type = createNested((CtClass<?>) type, "T" + i);
+		}
+		String name = type.getQualifiedName();
+		Assert.assertSame(name, type.getQualifiedName());
+
+		// the names are only recomputed when a type or a package moves
+		long generation = factory.Metadata().getNameGeneration();
+		CtMethod<?> m = factory.Core().createMethod();
+		m.setParent(type);
+		m.setParent(type.getDeclaringType());
+		Assert.assertEquals(generation, factory.Metadata().getNameGeneration());
+		Assert.assertSame(name, type.getQualifiedName());
+
+		// neither are they when new types and references are built
+		createNested((CtClass<?>) type, "T8");
+		factory.Type().createReference("a.b.C");
+		Assert.assertEquals(generation, factory.Metadata().getNameGeneration());
+		Assert.assertSame(name, type.getQualifiedName());
+		factory.Metadata().invalidateQualifiedNames();
+		Assert.assertEquals(name, type.getQualifiedName());
+	}
+
+	/**
+	 * Prints the time taken by the qualified names of deeply nested types,
+	 * when they are cached and when they are recomputed.
+	 */
+	@Test
+	public void benchQualifiedNames() throws Exception
+	{
+		Factory factory = new Launcher().createFactory();
+		CtSimpleType<?> type = factory.Class().create(
+				factory.Package().getOrCreate("a.b.c.d.e.f.g.h"), "T0");
+		for (int i = 1; i < 8; i++) {
+			type = createNested((CtClass<?>) type, "T" + i);
+		}
+		int n = 100000;
+		for (boolean cached : new boolean[] { false, true, false, true }) {
+			long start = System.nanoTime();
+			for (int i = 0; i < n; i++) {
+				if (!cached) {
+					factory.Metadata().invalidateQualifiedNames();
+				}
+				type.getQualifiedName();
+			}
+			System.out.println((cached ? "cached: " : "computed: ")
+					+ (System.nanoTime() - start) / n + " ns/op");
+		}
+	}
+
+	private CtClass<?> createNested(CtClass<?> outer, String name) {
+		return outer.getFactory().Class().create(outer, name);
+	}
 }
@@ -0,0 +1,19 @@
+package spoon.test.processing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import spoon.processing.AbstractProcessor;
+import spoon.processing.CompilationUnitLocal;
+import spoon.reflect.declaration.CtClass;
+
+public class ClassCounterProcessor extends AbstractProcessor<CtClass<?>>
+		implements CompilationUnitLocal {
+
+	static List<String> processed = new ArrayList<>();
+
+	public void process(CtClass<?> element) {
+		processed.add(element.getQualifiedName());
+	}
+
+}
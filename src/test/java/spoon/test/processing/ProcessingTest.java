@@ -1,10 +1,16 @@
 package spoon.test.processing;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static spoon.test.TestUtils.build;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.junit.Test;
 
+import spoon.Launcher;
 import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtConstructor;
 import spoon.reflect.declaration.CtMethod;
@@ -41,4 +47,29 @@ public class ProcessingTest {
 		}
 	}
 
+	@Test
+	public void testStreamingMode() throws Exception {
+		List<String> wholeModel = runClassCounter("0");
+		List<String> streamed = runClassCounter("2");
+		assertTrue(wholeModel.size() > 2);
+		assertEquals(wholeModel, streamed);
+	}
+
+	private List<String> runClassCounter(String window) throws Exception {
+		ClassCounterProcessor.processed.clear();
+		Launcher spoon = new Launcher();
+		spoon.setArgs(new String[] { "-i", "src/test/resources/spoon/test/model",
+				"-o", "target/spooned-streaming", "-p",
+				ClassCounterProcessor.class.getName(), "--stream", window });
+		spoon.run();
+		if (!"0".equals(window)) {
+			// the model is released once printed
+			assertEquals(0, spoon.getFactory().CompilationUnit().getMap()
+					.size());
+		}
+		List<String> processed = new ArrayList<>(ClassCounterProcessor.processed);
+		Collections.sort(processed);
+		return processed;
+	}
+
 }
@@ -2,7 +2,15 @@ package spoon.test.reference;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static spoon.test.TestUtils.build;
 
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.Collection;
 import java.util.List;
 
@@ -12,13 +20,22 @@ import spoon.Launcher;
 import spoon.compiler.SpoonCompiler;
 import spoon.compiler.SpoonResource;
 import spoon.compiler.SpoonResourceHelper;
+import spoon.reflect.code.CtNewClass;
+import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtInterface;
+import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtParameter;
 import spoon.reflect.declaration.CtSimpleType;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.ModifierKind;
 import spoon.reflect.factory.Factory;
 import spoon.reflect.reference.CtExecutableReference;
 import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.reference.PrimitiveKind;
 import spoon.reflect.visitor.Query;
 import spoon.reflect.visitor.filter.ReferenceTypeFilter;
+import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.visitor.SignaturePrinter;
 
 /**
  * @author Lionel Seinturier <Lionel.Seinturier@univ-lille1.fr>
@@ -93,5 +110,231 @@ public class TypeReferenceTest {
 		// we can get the actual class from the reference, because it is loaded from the class path
 		Class referencedClass = referencedType.getActualClass();
 		assertEquals(referencedQualifiedName, referencedClass.getName());
+
+		// the class is loaded once, until the class path changes
+		assertSame(referencedClass, referencedType.getActualClass());
+
+		// each context class loader has its own loader of the class path,
+		// which is kept
+		final CtTypeReference<?> reference = referencedType;
+		final Class<?>[] otherClass = new Class<?>[1];
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				otherClass[0] = reference.getActualClass();
+			}
+		};
+		thread.setContextClassLoader(new URLClassLoader(new URL[0],
+				getClass().getClassLoader()));
+		thread.start();
+		thread.join();
+		assertEquals(referencedQualifiedName, otherClass[0].getName());
+		assertFalse(referencedClass == otherClass[0]);
+		assertSame(referencedClass, referencedType.getActualClass());
+
+		factory.getEnvironment().setSourceClasspath(dependencyClasspath);
+		assertFalse(referencedClass == referencedType.getActualClass());
+	}
+
+	@Test
+	public void testSharedTypeReferences() throws Exception {
+		// by default, the references are not shared and can be modified
+		SpoonCompiler comp = new Launcher().createCompiler();
+		comp.addInputSources(SpoonResourceHelper
+				.resources("./src/test/resources/spoon/test/model"));
+		comp.build();
+		Factory factory = comp.getFactory();
+		CtSimpleType<?> kind = factory.Type().get("spoon.test.model.Kind");
+		CtTypeReference<?> label = kind.getField("label").getType();
+		assertFalse(label.isShared());
+		assertFalse(label == ((CtType<?>) kind).getMethod("getLabel")
+				.getType());
+		label.setSimpleName("Object");
+		assertEquals("java.lang.Object", label.getQualifiedName());
+
+		// when the environment shares them, the references to the same
+		// non-parameterized type are shared
+		comp = new Launcher().createCompiler();
+		comp.getFactory().getEnvironment().setSharingReferences(true);
+		comp.addInputSources(SpoonResourceHelper
+				.resources("./src/test/resources/spoon/test/model"));
+		comp.build();
+		factory = comp.getFactory();
+		kind = factory.Type().get("spoon.test.model.Kind");
+		CtTypeReference<?> string = kind.getField("label").getType();
+		assertEquals(String.class.getName(), string.getQualifiedName());
+		CtMethod<?> getLabel = ((CtType<?>) kind).getMethod("getLabel");
+		assertSame(string, getLabel.getType());
+
+		// so that they cannot be modified, unlike their clones
+		assertTrue(string.isShared());
+		try {
+			string.setSimpleName("Object");
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals(String.class.getName(), string.getQualifiedName());
+		}
+		try {
+			string.getActualTypeArguments().add(factory.Type().OBJECT);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertTrue(string.getActualTypeArguments().isEmpty());
+		}
+		CtTypeReference<?> clone = factory.Core().clone(string);
+		assertFalse(clone.isShared());
+		clone.setSimpleName("Object");
+		assertEquals(Object.class.getName(), clone.getQualifiedName());
+	}
+
+	@Test
+	public void testBoxing() throws Exception {
+		Factory factory = new Launcher().createFactory();
+		CtTypeReference<Integer> i = factory.Type().createReference(int.class);
+		CtTypeReference<Integer> boxed = factory.Type().createReference(
+				Integer.class);
+		assertTrue(i.isPrimitive());
+		assertFalse(boxed.isPrimitive());
+		assertEquals(factory.Type().INTEGER, i.box());
+		assertEquals(factory.Type().INTEGER_PRIMITIVE, boxed.unbox());
+		assertSame(boxed, boxed.box());
+		assertSame(i, i.unbox());
+		assertSame(int.class, i.getActualClass());
+
+		// by default, the boxing types can be modified
+		CtTypeReference<?> box = i.box();
+		assertFalse(box.isShared());
+		assertNotSame(box, i.box());
+		box.setSimpleName("Long");
+		assertEquals(factory.Type().INTEGER, i.box());
+
+		// unless the environment shares the references: the canonical
+		// references are returned, which cannot be modified
+		factory.getEnvironment().setSharingReferences(true);
+		assertSame(factory.Type().getBoxReference(PrimitiveKind.INT), i.box());
+		assertSame(factory.Type().getPrimitiveReference(PrimitiveKind.INT),
+				boxed.unbox());
+		CtTypeReference<?> canonical = i.box();
+		assertTrue(canonical.isShared());
+		try {
+			canonical.setSimpleName("Long");
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		assertEquals(factory.Type().INTEGER, i.box());
+		factory.getEnvironment().setSharingReferences(false);
+
+		// the kind follows the changes of the reference
+		i.setSimpleName("long");
+		assertEquals(factory.Type().LONG, i.box());
+		i.setSimpleName("Object");
+		assertFalse(i.isPrimitive());
+		// and only the types of java.lang are boxing types
+		CtTypeReference<?> other = factory.Type().createReference(
+				"spoon.test.Integer");
+		assertSame(other, other.unbox());
+	}
+
+	@Test
+	public void testCachedDeclarations() throws Exception {
+		CtInterface<?> foo = build("spoon.test.reference", "Foo");
+		CtMethod<?> m = foo.getMethodsByName("foo").get(0);
+		CtExecutableReference<?> ref = m.getReference();
+		assertSame(m, ref.getDeclaration());
+		assertSame(foo, ref.getDeclaringType().getDeclaration());
+
+		// the declarations are searched again when the model changes
+		m.setSimpleName("bar");
+		assertNull(ref.getDeclaration());
+		m.setSimpleName("foo");
+		assertSame(m, ref.getDeclaration());
+
+		// including the changes made directly to the member tables
+		foo.getMethods().remove(m);
+		assertNull(ref.getDeclaration());
+		foo.getMethods().add(m);
+		assertSame(m, ref.getDeclaration());
+
+		// or to the parameters of the executables
+		Factory factory = foo.getFactory();
+		CtParameter<Integer> p = factory.Core().createParameter();
+		p.setType(factory.Type().INTEGER_PRIMITIVE);
+		p.setSimpleName("i");
+		m.addParameter(p);
+		assertNull(ref.getDeclaration());
+		m.removeParameter(p);
+		assertSame(m, ref.getDeclaration());
+
+		// but not by the changes that the lookups do not depend on
+		long generation = factory.Metadata().getModelGeneration();
+		m.setDocComment("doc");
+		m.addModifier(ModifierKind.PUBLIC);
+		assertEquals(generation, factory.Metadata().getModelGeneration());
+		assertSame(m, ref.getDeclaration());
+
+		// nor by the changes of the other factories
+		build("spoon.test.reference", "Foo").setSimpleName("Bar");
+		assertEquals(generation, factory.Metadata().getModelGeneration());
+	}
+
+	@Test
+	public void testSubtypes() throws Exception {
+		CtInterface<?> foo = build("spoon.test.reference", "Foo");
+		Factory factory = foo.getFactory();
+		CtTypeReference<?> sup = factory.Type().createReference(
+				"spoon.test.reference.Sup");
+		CtTypeReference<?> runnable = factory.Type().createReference(
+				Runnable.class);
+		assertTrue(foo.getReference().isSubtypeOf(sup));
+		assertTrue(foo.getReference().isSubtypeOf(factory.Type().OBJECT));
+		assertFalse(sup.isSubtypeOf(foo.getReference()));
+		assertFalse(foo.getReference().isSubtypeOf(runnable));
+		assertTrue(factory.Type().STRING.isSubtypeOf(factory.Type()
+				.createReference(CharSequence.class)));
+
+		// the hierarchy follows the changes of the supertypes
+		CtInterface<?> supDecl = (CtInterface<?>) sup.getDeclaration();
+		supDecl.addSuperInterface(runnable);
+		assertTrue(foo.getReference().isSubtypeOf(runnable));
+		foo.removeSuperInterface(sup);
+		assertFalse(foo.getReference().isSubtypeOf(sup));
+		assertFalse(foo.getReference().isSubtypeOf(runnable));
+	}
+
+	@Test
+	public void testSubtypesWithAnonymousClass() throws Exception {
+		// the supertypes of the anonymous classes are set before they are
+		// attached to the model
+		CtClass<?> type = build("spoon.test.secondaryclasses",
+				"AnonymousClass");
+		Factory factory = type.getFactory();
+		CtTypeReference<?> i = factory.Type().createReference(
+				"spoon.test.secondaryclasses.AnonymousClass$I");
+		assertTrue(i.isSubtypeOf(factory.Type().OBJECT));
+		CtNewClass<?> newClass = type.getElements(
+				new TypeFilter<CtNewClass<?>>(CtNewClass.class)).get(0);
+		newClass.getAnonymousClass().setSuperclass(factory.Type().OBJECT);
+		assertTrue(i.isSubtypeOf(factory.Type().OBJECT));
+		assertFalse(i.isSubtypeOf(type.getReference()));
+	}
+
+	@Test
+	public void testReferenceKeys() throws Exception {
+		// references are compared and hashed by their signatures
+		Factory factory = new Launcher().createFactory();
+		for (CtExecutableReference<?> ref : factory.Type()
+				.createReference(String.class).getAllExecutables()) {
+			CtExecutableReference<?> clone = factory.Core().clone(ref);
+			assertEquals(ref, clone);
+			assertEquals(ref.hashCode(), clone.hashCode());
+			SignaturePrinter pr = new SignaturePrinter();
+			pr.scan(ref);
+			assertEquals(pr.getSignature().hashCode(), ref.hashCode());
+		}
+		CtTypeReference<?> array = factory.Type().createArrayReference(
+				factory.Type().STRING);
+		SignaturePrinter pr = new SignaturePrinter();
+		pr.scan(array);
+		assertEquals(pr.getSignature().hashCode(), array.hashCode());
 	}
 }
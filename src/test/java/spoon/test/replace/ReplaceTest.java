@@ -1,7 +1,15 @@
 package spoon.test.replace;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -10,14 +18,20 @@ import spoon.Launcher;
 import spoon.compiler.SpoonResourceHelper;
 import spoon.reflect.code.CtAssignment;
 import spoon.reflect.code.CtExpression;
+import spoon.reflect.code.CtIf;
 import spoon.reflect.code.CtLiteral;
 import spoon.reflect.code.CtLocalVariable;
 import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtField;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.factory.Factory;
 import spoon.reflect.visitor.filter.NameFilter;
 import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.reflect.declaration.CtExecutableImpl;
+import spoon.support.util.Metamodel;
+import spoon.support.util.Metamodel.Role;
+import spoon.support.util.RtHelper;
 
 public class ReplaceTest {
 
@@ -117,4 +131,109 @@ public class ReplaceTest {
 		assertEquals("int y = 0", fooMethod.getBody().getStatement(0).toString());				
 	}
 
+	@Test
+	public void testMetamodelRoles() throws Exception {
+		CtIf ifElement = factory.Core().createIf();
+		List<String> names = new ArrayList<String>();
+		for (Role role : Metamodel.getElementRoles(ifElement.getClass())) {
+			names.add(role.getName());
+		}
+		assertTrue(names.containsAll(Arrays.asList("condition",
+				"thenStatement", "elseStatement", "annotations")));
+		assertFalse(names.contains("parent"));
+		assertFalse(names.contains("docComment"));
+	}
+
+	@Test
+	public void testReplaceWithSetter() throws Exception {
+		CtClass<?> foo = factory.Package().get("spoon.test.replace")
+				.getType("Foo");
+		CtMethod<?> m = foo.getElements(
+				new NameFilter<CtMethod<?>>("foo")).get(0);
+		CtAssignment<?, ?> assignment = (CtAssignment<?, ?>) m.getBody()
+				.getStatements().get(2);
+		CtExpression<?> s1 = assignment.getAssignment();
+		CtExpression<?> s2 = factory.Code().createLiteral(3);
+		String signature = assignment.getSignature();
+
+		// the replacement goes through the setter, which invalidates the
+		// cached signatures
+		s1.replace(s2);
+		assertSame(s2, assignment.getAssignment());
+		assertSame(assignment, s2.getParent());
+		assertFalse(signature.equals(assignment.getSignature()));
+		s2.replace(s1);
+		assertEquals(signature, assignment.getSignature());
+	}
+
+	@Test
+	public void testReadLazyBody() throws Exception {
+		// the body is read with its getter, which builds it
+		Launcher spoon = new Launcher();
+		Factory lazyFactory = spoon.createFactory();
+		lazyFactory.getEnvironment().setLazyMethodBodies(true);
+		spoon.createCompiler(
+				lazyFactory,
+				SpoonResourceHelper
+						.resources("./src/test/java/spoon/test/replace/Foo.java"))
+				.build();
+		CtClass<?> foo = lazyFactory.Package().get("spoon.test.replace")
+				.getType("Foo");
+		CtMethod<?> m = foo.getMethodsByName("foo").get(0);
+		assertNotNull(((CtExecutableImpl<?>) m).getBodyLoader());
+		Object body = null;
+		for (Role role : Metamodel.getElementRoles(m.getClass())) {
+			if (role.getName().equals("body")) {
+				body = role.get(m);
+			}
+		}
+		assertNotNull(body);
+		assertSame(m.getBody(), body);
+	}
+
+	/**
+	 * Compares the replacement based on the metamodel with the previous
+	 * reflective one (the running times are printed).
+	 */
+	@Test
+	public void benchReplace() throws Exception {
+		CtClass<?> foo = factory.Package().get("spoon.test.replace")
+				.getType("Foo");
+		CtMethod<?> m = foo.getElements(
+				new NameFilter<CtMethod<?>>("foo")).get(0);
+		CtAssignment<?, ?> assignment = (CtAssignment<?, ?>) m.getBody()
+				.getStatements().get(2);
+		CtExpression<?> s1 = assignment.getAssignment();
+		CtExpression<?> s2 = factory.Code().createLiteral(3);
+		int n = 100000;
+		for (int round = 0; round < 2; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < n; i++) {
+				s1.replace(s2);
+				s2.replace(s1);
+			}
+			long metamodel = (System.nanoTime() - start) / (2 * n);
+			start = System.nanoTime();
+			for (int i = 0; i < n; i++) {
+				reflectiveReplace(s1, s2, assignment);
+				reflectiveReplace(s2, s1, assignment);
+			}
+			long reflective = (System.nanoTime() - start) / (2 * n);
+			System.out.println("replace: metamodel " + metamodel
+					+ " ns/op, reflection " + reflective + " ns/op");
+		}
+		assertSame(s1, assignment.getAssignment());
+	}
+
+	private static void reflectiveReplace(Object toReplace,
+			CtElement replacement, CtElement parent) throws Exception {
+		for (Field f : RtHelper.getAllFields(parent.getClass())) {
+			f.setAccessible(true);
+			if (f.get(parent) == toReplace) {
+				f.set(parent, replacement);
+				replacement.setParent(parent);
+			}
+		}
+	}
+
 }
@@ -0,0 +1,78 @@
+package spoon.test.support;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import spoon.reflect.declaration.CtField;
+import spoon.reflect.factory.Factory;
+import spoon.support.util.NamedElementSet;
+import spoon.test.TestUtils;
+
+public class NamedElementSetTest {
+
+	private NamedElementSet<CtField<?>> createSet(Factory factory,
+			String... names) {
+		NamedElementSet<CtField<?>> set = new NamedElementSet<>();
+		for (String name : names) {
+			CtField<?> f = factory.Core().createField();
+			f.setSimpleName(name);
+			set.add(f);
+		}
+		return set;
+	}
+
+	@Test
+	public void testCopy() throws Exception {
+		Factory factory = TestUtils.createFactory();
+		NamedElementSet<CtField<?>> set = createSet(factory, "b", "a", "c");
+		List<CtField<?>> expected = new ArrayList<>();
+		for (CtField<?> f : set) {
+			expected.add(f);
+		}
+		assertEquals(3, expected.size());
+
+		// the copies read the elements of the set, not the (empty) storage
+		// of its super class
+		assertEquals(expected, new ArrayList<>(set));
+		assertArrayEquals(expected.toArray(), set.toArray());
+		assertArrayEquals(expected.toArray(),
+				set.toArray(new CtField<?>[0]));
+		assertArrayEquals(expected.toArray(),
+				set.toArray(new CtField<?>[3]));
+		assertEquals(expected, Arrays.asList(set.clone().toArray()));
+	}
+
+	@Test
+	public void testSpliterator() throws Exception {
+		Method spliterator;
+		Method iterator;
+		try {
+			spliterator = Collection.class.getMethod("spliterator");
+			Class<?> spliterators = Class.forName("java.util.Spliterators");
+			iterator = spliterators.getMethod("iterator",
+					Class.forName("java.util.Spliterator"));
+		} catch (ClassNotFoundException | NoSuchMethodException e) {
+			// no spliterators before Java 8
+			return;
+		}
+		Factory factory = TestUtils.createFactory();
+		NamedElementSet<CtField<?>> set = createSet(factory, "b", "a", "c");
+		Iterator<?> it = (Iterator<?>) iterator.invoke(null,
+				spliterator.invoke(set));
+		List<Object> l = new ArrayList<>();
+		while (it.hasNext()) {
+			l.add(it.next());
+		}
+		assertEquals(Arrays.asList(set.toArray()), l);
+	}
+
+}
@@ -2,6 +2,7 @@ package spoon.test.template;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Date;
 
@@ -16,6 +17,8 @@ import spoon.reflect.factory.Factory;
 import spoon.reflect.visitor.ModelConsistencyChecker;
 import spoon.reflect.visitor.filter.NameFilter;
 import spoon.template.Substitution;
+import spoon.template.Template;
+import spoon.template.TemplateMatcher;
 
 public class TemplateTest {
 
@@ -104,6 +107,14 @@ public class TemplateTest {
 		assertEquals("return \"testparam2\"", m2.getBody().getStatement(0)
 				.toString());
 
+		// the inserted members match their templates
+		@SuppressWarnings("unchecked")
+		CtClass<? extends Template> templateClass = (CtClass<? extends Template>) (CtClass<?>) factory
+				.Class().get(TemplateWithFieldsAndMethods.class);
+		TemplateMatcher matcher = new TemplateMatcher(templateClass);
+		assertTrue(matcher.match(c1.getField("fieldToBeInserted"),
+				templateClass.getField("fieldToBeInserted")));
+
 		new ModelConsistencyChecker(factory.getEnvironment(), false, true).scan(c1);
 
 		assertEquals(0, factory.getEnvironment().getErrorCount());
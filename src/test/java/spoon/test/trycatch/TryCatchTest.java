@@ -2,6 +2,7 @@ package spoon.test.trycatch;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static spoon.test.TestUtils.build;
 
@@ -11,6 +12,9 @@ import spoon.reflect.code.CtTry;
 import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.factory.Factory;
+import spoon.reflect.reference.CtLocalVariableReference;
+import spoon.reflect.visitor.Query;
+import spoon.reflect.visitor.filter.ReferenceTypeFilter;
 import spoon.reflect.visitor.filter.TypeFilter;
 import spoon.test.TestUtils;
 
@@ -30,7 +34,17 @@ public class TryCatchTest {
 		assertTrue(t1.getResources().isEmpty());
 		CtTry t2 = m.getBody().getStatement(1);
 		assertNotNull(t2.getResources());
-		
+
+		// the accesses to the resource and to the catch parameters are
+		// resolved to their declaration
+		for (CtLocalVariableReference<?> ref : Query.getReferences(m,
+				new ReferenceTypeFilter<CtLocalVariableReference<?>>(
+						CtLocalVariableReference.class))) {
+			assertNotNull(ref.getDeclaration());
+		}
+		assertSame(t2.getResources().get(0), Query.getReferences(t2.getBody(),
+				new ReferenceTypeFilter<CtLocalVariableReference<?>>(
+						CtLocalVariableReference.class)).get(0).getDeclaration());
 	}
 	
 	Factory factory = TestUtils.createFactory();
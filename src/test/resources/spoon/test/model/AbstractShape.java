@@ -0,0 +1,23 @@
+package spoon.test.model;
+
+public abstract class AbstractShape implements Shape {
+
+	private final Kind kind;
+
+	protected AbstractShape(Kind kind) {
+		this.kind = kind;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public int compareTo(Shape other) {
+		return Double.compare(area(), other.area());
+	}
+
+	@Override
+	public String toString() {
+		return kind.getLabel() + "(" + area() + ")";
+	}
+}
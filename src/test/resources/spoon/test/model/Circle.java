@@ -0,0 +1,30 @@
+package spoon.test.model;
+
+import spoon.test.model.util.Maths;
+
+public class Circle extends AbstractShape {
+
+	private final double radius;
+
+	public Circle(double radius) {
+		super(Kind.ROUND);
+		this.radius = radius;
+	}
+
+	public double area() {
+		return Math.PI * Maths.square(radius);
+	}
+
+	public static class Builder {
+		private double radius = 1;
+
+		public Builder radius(double radius) {
+			this.radius = radius;
+			return this;
+		}
+
+		public Circle build() {
+			return new Circle(radius);
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package spoon.test.model;
+
+public enum Kind {
+	ROUND("round"), SQUARE("square");
+
+	private final String label;
+
+	Kind(String label) {
+		this.label = label;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+}
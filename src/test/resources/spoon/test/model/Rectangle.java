@@ -0,0 +1,25 @@
+package spoon.test.model;
+
+public class Rectangle extends AbstractShape {
+
+	private final double width;
+
+	private final double height;
+
+	public Rectangle(double width, double height) {
+		super(Kind.SQUARE);
+		if (width < 0 || height < 0) {
+			throw new IllegalArgumentException("negative size");
+		}
+		this.width = width;
+		this.height = height;
+	}
+
+	public double area() {
+		return width * height;
+	}
+
+	public Rectangle scale(int factor) {
+		return new Rectangle(width * factor, height * factor);
+	}
+}
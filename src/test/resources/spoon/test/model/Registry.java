@@ -0,0 +1,100 @@
+package spoon.test.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class Registry<K extends Comparable<K>, V extends Shape> implements
+		Iterable<V> {
+
+	private final Map<K, List<V>> shapes = new HashMap<K, List<V>>();
+
+	private int size;
+
+	public void register(K key, V shape) {
+		List<V> l = shapes.get(key);
+		if (l == null) {
+			l = new ArrayList<V>();
+			shapes.put(key, l);
+		}
+		l.add(shape);
+		size++;
+	}
+
+	public List<V> get(K key) {
+		List<V> l = shapes.get(key);
+		return l == null ? Collections.<V> emptyList() : l;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public <S extends V> S first(Class<S> type) {
+		for (V v : this) {
+			if (type.isInstance(v)) {
+				return type.cast(v);
+			}
+		}
+		return null;
+	}
+
+	public List<V> sorted() {
+		List<V> result = new ArrayList<V>();
+		for (List<V> l : shapes.values()) {
+			result.addAll(l);
+		}
+		Collections.sort(result, new Comparator<V>() {
+			public int compare(V v1, V v2) {
+				return v1.compareTo(v2);
+			}
+		});
+		return result;
+	}
+
+	public double totalArea() {
+		class Sum {
+			double value;
+
+			void add(Shape s) {
+				value += s.area();
+			}
+		}
+		Sum sum = new Sum();
+		for (V v : this) {
+			sum.add(v);
+		}
+		return sum.value;
+	}
+
+	public Iterator<V> iterator() {
+		return new Entries();
+	}
+
+	private class Entries implements Iterator<V> {
+		private final Iterator<List<V>> lists = shapes.values().iterator();
+
+		private Iterator<V> current = Collections.<V> emptyList().iterator();
+
+		public boolean hasNext() {
+			while (!current.hasNext() && lists.hasNext()) {
+				current = lists.next().iterator();
+			}
+			return current.hasNext();
+		}
+
+		public V next() {
+			hasNext();
+			return current.next();
+		}
+
+		public void remove() {
+			current.remove();
+			size--;
+		}
+	}
+}
@@ -0,0 +1,9 @@
+package spoon.test.model;
+
+public interface Shape extends Comparable<Shape> {
+
+	double area();
+
+	Kind getKind();
+
+}
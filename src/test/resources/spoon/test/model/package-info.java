@@ -0,0 +1,5 @@
+/**
+ * A small self-contained model used to compare the different ways of
+ * building a model.
+ */
+package spoon.test.model;
@@ -0,0 +1,56 @@
+package spoon.test.model.util;
+
+public final class Maths {
+
+	private static final int[] SMALL_SQUARES = new int[16];
+
+	static {
+		for (int i = 0; i < SMALL_SQUARES.length; i++) {
+			SMALL_SQUARES[i] = i * i;
+		}
+	}
+
+	private Maths() {
+	}
+
+	public static double square(double d) {
+		return d * d;
+	}
+
+	public static int square(int i) {
+		if (i >= 0 && i < SMALL_SQUARES.length) {
+			return SMALL_SQUARES[i];
+		}
+		return i * i;
+	}
+
+	public static int parse(String s, int defaultValue) {
+		try {
+			return Integer.parseInt(s);
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	public static String sign(int i) {
+		switch (Integer.signum(i)) {
+		case -1:
+			return "negative";
+		case 0:
+			return "zero";
+		default:
+			return "positive";
+		}
+	}
+
+	public static int sum(int... values) {
+		long sum = 0;
+		for (int v : values) {
+			sum += v;
+			if (sum > Integer.MAX_VALUE) {
+				return Integer.MAX_VALUE;
+			}
+		}
+		return (int) sum;
+	}
+}